@@ -0,0 +1,174 @@
+package com.cruma.combinaciones;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reparte la búsqueda de combinaciones en un {@link ForkJoinPool}.
+ * El árbol se corta por las comisiones de la primera (y si hace falta la segunda) materia que
+ * elegiría la búsqueda secuencial; cada subárbol lleva su propia copia de la ocupación parcial.
+ * Los resultados se concatenan en el orden de los subárboles, que es el mismo orden en que los
+ * encontraría {@link GeneradorCombinaciones#recorrer}, así la salida no depende de los hilos.
+ */
+public class BusquedaParalela {
+
+    /** Subárboles deseados por hilo disponible, para balancear ramas de distinto tamaño */
+    private static final int SUBARBOLES_POR_HILO = 4;
+
+    private final ForkJoinPool pool;
+
+    public BusquedaParalela(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param elecciones combinaciones encontradas, como máximo {@code limite}
+     * @param truncado   true si había más combinaciones que el límite
+     * @param incompleto true si la búsqueda se cortó por presupuesto, cancelación o tiempo
+     */
+    public record Resultado(List<int[]> elecciones, boolean truncado, boolean incompleto) {
+    }
+
+    private record Prefijo(long[] ocupado, int[] eleccion) {
+    }
+
+    public Resultado buscar(GeneradorCombinaciones generador, int limite, ControlBusqueda control,
+                            long timeoutMs) {
+        List<Prefijo> prefijos = dividir(generador);
+        Raiz raiz = new Raiz(generador, prefijos, limite, control);
+        ForkJoinTask<List<int[]>> tarea = pool.submit(raiz);
+
+        List<int[]> encontradas;
+        boolean vencida = false;
+        try {
+            encontradas = tarea.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Se pide a los subárboles que corten y se usa lo que hayan encontrado hasta ahora
+            vencida = true;
+            control.cancelar();
+            encontradas = tarea.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            control.cancelar();
+            throw new IllegalStateException("Búsqueda de combinaciones interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en la búsqueda de combinaciones", e.getCause());
+        }
+
+        boolean truncado = encontradas.size() > limite;
+        List<int[]> devueltas = truncado ? encontradas.subList(0, limite) : encontradas;
+        boolean incompleto = !truncado && (vencida || control.isCancelada() || control.isAgotada());
+        return new Resultado(devueltas, truncado, incompleto);
+    }
+
+    /**
+     * Expande la raíz uno o dos niveles, siguiendo la heurística del generador, hasta tener
+     * suficientes subárboles para ocupar el pool.
+     */
+    private List<Prefijo> dividir(GeneradorCombinaciones generador) {
+        int[] vacia = new int[generador.materias()];
+        Arrays.fill(vacia, -1);
+        List<Prefijo> prefijos = List.of(new Prefijo(OcupacionSemanal.nuevaDensa(), vacia));
+        int objetivo = pool.getParallelism() * SUBARBOLES_POR_HILO;
+
+        for (int nivel = 0; nivel < 2 && prefijos.size() < objetivo && nivel < generador.materias(); nivel++) {
+            List<Prefijo> siguientes = new ArrayList<>();
+            for (Prefijo p : prefijos) {
+                int materia = generador.masRestringida(p.ocupado(), p.eleccion());
+                if (materia < 0) {
+                    continue;
+                }
+                List<Candidato> opciones = generador.candidatos(materia);
+                for (int j = 0; j < opciones.size(); j++) {
+                    OcupacionSemanal ocupacion = opciones.get(j).ocupacion();
+                    if (ocupacion.chocaCon(p.ocupado())) {
+                        continue;
+                    }
+                    long[] ocupado = p.ocupado().clone();
+                    ocupacion.marcarEn(ocupado);
+                    int[] eleccion = p.eleccion().clone();
+                    eleccion[materia] = j;
+                    siguientes.add(new Prefijo(ocupado, eleccion));
+                }
+            }
+            prefijos = siguientes;
+        }
+        return prefijos;
+    }
+
+    /** Lanza un subárbol por prefijo y junta los resultados en orden */
+    private static final class Raiz extends RecursiveTask<List<int[]>> {
+
+        private final GeneradorCombinaciones generador;
+        private final List<Prefijo> prefijos;
+        private final int limite;
+        private final ControlBusqueda control;
+
+        Raiz(GeneradorCombinaciones generador, List<Prefijo> prefijos, int limite, ControlBusqueda control) {
+            this.generador = generador;
+            this.prefijos = prefijos;
+            this.limite = limite;
+            this.control = control;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<Subarbol> tareas = new ArrayList<>(prefijos.size());
+            for (Prefijo p : prefijos) {
+                Subarbol t = new Subarbol(generador, p, limite, control.hijo());
+                tareas.add(t);
+                t.fork();
+            }
+
+            List<int[]> resultado = new ArrayList<>();
+            for (Subarbol t : tareas) {
+                if (resultado.size() > limite) {
+                    // Ya sobran resultados de subárboles anteriores: los que siguen no se usan
+                    t.control.cancelar();
+                }
+                List<int[]> parcial = t.join();
+                if (resultado.size() <= limite) {
+                    resultado.addAll(parcial);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    /** Busca dentro de un subárbol con su propia copia de la ocupación */
+    private static final class Subarbol extends RecursiveTask<List<int[]>> {
+
+        private final GeneradorCombinaciones generador;
+        private final Prefijo prefijo;
+        private final int limite;
+        private final ControlBusqueda control;
+
+        Subarbol(GeneradorCombinaciones generador, Prefijo prefijo, int limite, ControlBusqueda control) {
+            this.generador = generador;
+            this.prefijo = prefijo;
+            this.limite = limite;
+            this.control = control;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<int[]> encontradas = new ArrayList<>();
+            if (control.isCancelada()) {
+                return encontradas;
+            }
+            // Con limite + 1 alcanza para saber si la respuesta final queda truncada
+            generador.recorrerDesde(prefijo.ocupado().clone(), prefijo.eleccion().clone(), eleccion -> {
+                encontradas.add(eleccion.clone());
+                return encontradas.size() <= limite;
+            }, control);
+            return encontradas;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cruma.combinaciones;
+
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+
+/**
+ * Una comisión candidata para una materia junto con su ocupación semanal precalculada.
+ */
+public record Candidato(OpcionComision opcion, OcupacionSemanal ocupacion) {
+
+    public static Candidato de(OpcionComision opcion) {
+        return new Candidato(opcion, OcupacionSemanal.de(opcion.bloques()));
+    }
+}
@@ -0,0 +1,258 @@
+package com.cruma.combinaciones;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuenta las combinaciones sin superposición sin materializarlas.
+ * <ul>
+ *   <li>Las materias se separan en componentes: si ninguna comisión de una materia choca con
+ *       ninguna de otra, son independientes y los conteos de cada componente se multiplican.</li>
+ *   <li>Dentro de un componente se recorre con memoización: después de elegir las primeras
+ *       materias, lo único que importa para el resto es qué comisiones siguen siendo compatibles,
+ *       así que ese conjunto (como bits) es la clave del memo.</li>
+ * </ul>
+ * El memo tiene un tamaño máximo; al llenarse se sigue contando sin guardar nuevas entradas.
+ */
+public class ContadorCombinaciones {
+
+    /**
+     * @param cantidad    combinaciones posibles (si {@code incompleto} no se conoce y vale 0)
+     * @param componentes grupos de materias independientes entre sí
+     * @param incompleto  true si se agotó el presupuesto de nodos
+     * @param desborde    true si la cantidad no entra en un long y se satura en {@link Long#MAX_VALUE}
+     */
+    public record Conteo(long cantidad, int componentes, boolean incompleto, boolean desborde) {
+    }
+
+    private final List<List<Candidato>> candidatos;
+    private final int maxMemo;
+
+    public ContadorCombinaciones(List<List<Candidato>> candidatos, int maxMemo) {
+        this.candidatos = candidatos;
+        this.maxMemo = maxMemo;
+    }
+
+    public Conteo contar(ControlBusqueda control) {
+        int n = candidatos.size();
+        if (n == 0 || candidatos.stream().anyMatch(List::isEmpty)) {
+            return new Conteo(0, 0, false, false);
+        }
+
+        List<List<Integer>> componentes = componentes();
+        long total = 1;
+        boolean desborde = false;
+        for (List<Integer> componente : componentes) {
+            Componente c = new Componente(componente, control);
+            long parcial = c.contar();
+            if (c.cortado) {
+                return new Conteo(0, componentes.size(), true, false);
+            }
+            if (parcial == 0) {
+                return new Conteo(0, componentes.size(), false, false);
+            }
+            desborde |= c.desborde;
+            try {
+                total = Math.multiplyExact(total, parcial);
+            } catch (ArithmeticException e) {
+                total = Long.MAX_VALUE;
+                desborde = true;
+            }
+        }
+        return new Conteo(total, componentes.size(), false, desborde);
+    }
+
+    /** Agrupa materias unidas (directa o indirectamente) por algún posible choque */
+    private List<List<Integer>> componentes() {
+        int n = candidatos.size();
+        OcupacionSemanal[] union = new OcupacionSemanal[n];
+        for (int i = 0; i < n; i++) {
+            long[] densa = OcupacionSemanal.nuevaDensa();
+            for (Candidato c : candidatos.get(i)) {
+                c.ocupacion().marcarEn(densa);
+            }
+            union[i] = OcupacionSemanal.deDensa(densa);
+        }
+
+        int[] padre = new int[n];
+        for (int i = 0; i < n; i++) {
+            padre[i] = i;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                // Unir las ocupaciones es una prueba rápida; si se solapan se mira comisión por comisión
+                if (union[i].chocaCon(union[j]) && hayChoque(i, j)) {
+                    padre[raiz(padre, i)] = raiz(padre, j);
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> porRaiz = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            porRaiz.computeIfAbsent(raiz(padre, i), k -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(porRaiz.values());
+    }
+
+    private boolean hayChoque(int i, int j) {
+        for (Candidato a : candidatos.get(i)) {
+            for (Candidato b : candidatos.get(j)) {
+                if (a.ocupacion().chocaCon(b.ocupacion())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int raiz(int[] padre, int i) {
+        while (padre[i] != i) {
+            padre[i] = padre[padre[i]];
+            i = padre[i];
+        }
+        return i;
+    }
+
+    /** Conteo memoizado de un componente */
+    private final class Componente {
+
+        private static final int LOTE_NODOS = 256;
+
+        private final ControlBusqueda control;
+        /** Materias del componente en el orden en que se asignan */
+        private final int[] orden;
+        /** Primer índice global de las comisiones de cada paso (el último es el total) */
+        private final int[] inicio;
+        /** Por comisión (índice global): bits de las comisiones de pasos posteriores con las que choca */
+        private final long[][] choques;
+        private final Map<Clave, Long> memo = new HashMap<>();
+        private int nodosSinInformar;
+        private boolean cortado;
+        private boolean desborde;
+
+        Componente(List<Integer> materias, ControlBusqueda control) {
+            this.control = control;
+            // Primero las materias con menos comisiones: el árbol queda más angosto arriba
+            this.orden = materias.stream()
+                    .sorted(Comparator.comparingInt((Integer m) -> candidatos.get(m).size()).thenComparing(m -> m))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.inicio = new int[orden.length + 1];
+            for (int k = 0; k < orden.length; k++) {
+                inicio[k + 1] = inicio[k] + candidatos.get(orden[k]).size();
+            }
+            int total = inicio[orden.length];
+            int palabras = (total + 63) >>> 6;
+            this.choques = new long[total][palabras];
+            for (int k = 0; k < orden.length; k++) {
+                List<Candidato> propios = candidatos.get(orden[k]);
+                for (int a = 0; a < propios.size(); a++) {
+                    long[] fila = choques[inicio[k] + a];
+                    for (int k2 = k + 1; k2 < orden.length; k2++) {
+                        List<Candidato> otros = candidatos.get(orden[k2]);
+                        for (int b = 0; b < otros.size(); b++) {
+                            if (propios.get(a).ocupacion().chocaCon(otros.get(b).ocupacion())) {
+                                int bit = inicio[k2] + b;
+                                fila[bit >>> 6] |= 1L << (bit & 63);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        long contar() {
+            long[] vivas = new long[(inicio[orden.length] + 63) >>> 6];
+            for (int bit = 0; bit < inicio[orden.length]; bit++) {
+                vivas[bit >>> 6] |= 1L << (bit & 63);
+            }
+            return contar(0, vivas);
+        }
+
+        /** Cantidad de formas de completar desde el paso {@code k} usando solo comisiones vivas */
+        private long contar(int k, long[] vivas) {
+            if (k == orden.length) {
+                return 1;
+            }
+            if (cortado) {
+                return 0;
+            }
+            if (++nodosSinInformar >= LOTE_NODOS) {
+                nodosSinInformar = 0;
+                if (!control.consumir(LOTE_NODOS)) {
+                    cortado = true;
+                    return 0;
+                }
+            }
+
+            // Solo las comisiones de los pasos que faltan definen el resultado
+            long[] clave = Arrays.copyOfRange(vivas, inicio[k] >>> 6, vivas.length);
+            clave[0] &= -1L << (inicio[k] & 63);
+            Clave c = new Clave(k, clave);
+            Long guardado = memo.get(c);
+            if (guardado != null) {
+                return guardado;
+            }
+
+            long total = 0;
+            for (int bit = inicio[k]; bit < inicio[k + 1]; bit++) {
+                if ((vivas[bit >>> 6] & (1L << (bit & 63))) == 0) {
+                    continue;
+                }
+                long[] siguientes = vivas.clone();
+                long[] fila = choques[bit];
+                boolean posible = true;
+                for (int w = 0; w < siguientes.length; w++) {
+                    siguientes[w] &= ~fila[w];
+                }
+                // Si alguna materia posterior se quedó sin comisiones, la rama no suma
+                for (int k2 = k + 1; k2 < orden.length && posible; k2++) {
+                    posible = hayBit(siguientes, inicio[k2], inicio[k2 + 1]);
+                }
+                if (!posible) {
+                    continue;
+                }
+                long parcial = contar(k + 1, siguientes);
+                if (cortado) {
+                    return 0;
+                }
+                try {
+                    total = Math.addExact(total, parcial);
+                } catch (ArithmeticException e) {
+                    total = Long.MAX_VALUE;
+                    desborde = true;
+                }
+            }
+            if (memo.size() < maxMemo) {
+                memo.put(c, total);
+            }
+            return total;
+        }
+
+        private static boolean hayBit(long[] bits, int desde, int hasta) {
+            for (int bit = desde; bit < hasta; bit++) {
+                if ((bits[bit >>> 6] & (1L << (bit & 63))) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Clave(int paso, long[] vivas) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Clave otra && paso == otra.paso && Arrays.equals(vivas, otra.vivas);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * paso + Arrays.hashCode(vivas);
+        }
+    }
+}
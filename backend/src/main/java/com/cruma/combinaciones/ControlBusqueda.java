@@ -0,0 +1,71 @@
+package com.cruma.combinaciones;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token de cancelación y presupuesto de trabajo de una búsqueda de combinaciones.
+ * El presupuesto se mide en nodos visitados y se comparte entre un control y sus hijos,
+ * así una búsqueda repartida en varios hilos no puede hacer más trabajo que una secuencial.
+ */
+public class ControlBusqueda {
+
+    private final ControlBusqueda padre;
+    private final AtomicLong nodosRestantes;
+    private volatile boolean cancelada;
+    private volatile boolean agotada;
+
+    private ControlBusqueda(ControlBusqueda padre, AtomicLong nodosRestantes) {
+        this.padre = padre;
+        this.nodosRestantes = nodosRestantes;
+    }
+
+    /** Control raíz con un máximo de nodos a visitar entre todos los hilos */
+    public static ControlBusqueda conPresupuesto(long maxNodos) {
+        return new ControlBusqueda(null, new AtomicLong(maxNodos));
+    }
+
+    public static ControlBusqueda sinLimite() {
+        return conPresupuesto(Long.MAX_VALUE);
+    }
+
+    /** Control hijo: comparte el presupuesto y se cancela si se cancela el padre */
+    public ControlBusqueda hijo() {
+        return new ControlBusqueda(this, nodosRestantes);
+    }
+
+    public void cancelar() {
+        cancelada = true;
+    }
+
+    public boolean isCancelada() {
+        return cancelada || (padre != null && padre.isCancelada());
+    }
+
+    /** true si alguna búsqueda que comparte este presupuesto se quedó sin nodos */
+    public boolean isAgotada() {
+        return agotada || (padre != null && padre.isAgotada());
+    }
+
+    /**
+     * Descuenta nodos del presupuesto compartido.
+     *
+     * @return false si la búsqueda debe detenerse (cancelada o sin presupuesto)
+     */
+    public boolean consumir(long nodos) {
+        if (isCancelada()) {
+            return false;
+        }
+        if (nodosRestantes.addAndGet(-nodos) < 0) {
+            marcarAgotada();
+            return false;
+        }
+        return true;
+    }
+
+    private void marcarAgotada() {
+        agotada = true;
+        if (padre != null) {
+            padre.marcarAgotada();
+        }
+    }
+}
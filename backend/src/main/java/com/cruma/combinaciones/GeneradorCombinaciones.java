@@ -0,0 +1,159 @@
+package com.cruma.combinaciones;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Enumera las combinaciones sin superposición que eligen una comisión por materia.
+ * Backtracking con la heurística "más restringida primero": en cada paso se asigna la materia
+ * que tiene menos comisiones compatibles con lo ya ocupado, y si alguna queda en cero se poda.
+ */
+public class GeneradorCombinaciones {
+
+    private final List<List<Candidato>> candidatos;
+
+    /**
+     * @param candidatos para cada materia (por posición), sus comisiones candidatas
+     */
+    public GeneradorCombinaciones(List<List<Candidato>> candidatos) {
+        this.candidatos = candidatos;
+    }
+
+    public int materias() {
+        return candidatos.size();
+    }
+
+    public List<Candidato> candidatos(int materia) {
+        return candidatos.get(materia);
+    }
+
+    /**
+     * Recorre todas las combinaciones válidas. El visitante recibe, para cada materia, el índice
+     * de la comisión elegida; el arreglo se reutiliza, así que hay que copiarlo si se guarda.
+     *
+     * @param visitante devuelve false para cortar la búsqueda
+     * @return true si se recorrió todo el espacio, false si el visitante cortó
+     */
+    public boolean recorrer(Predicate<int[]> visitante) {
+        return recorrer(visitante, ControlBusqueda.sinLimite());
+    }
+
+    /**
+     * Igual que {@link #recorrer(Predicate)} pero respetando el presupuesto y la cancelación de
+     * {@code control}.
+     *
+     * @return true si se recorrió todo el espacio, false si se cortó por cualquier motivo
+     */
+    public boolean recorrer(Predicate<int[]> visitante, ControlBusqueda control) {
+        int[] eleccion = new int[candidatos.size()];
+        Arrays.fill(eleccion, -1);
+        return recorrerDesde(OcupacionSemanal.nuevaDensa(), eleccion, visitante, control);
+    }
+
+    /**
+     * Recorre partiendo de una asignación parcial. Las posiciones de {@code eleccion} distintas
+     * de -1 se consideran fijas y su ocupación ya debe estar marcada en {@code ocupado}. Ambos
+     * arreglos se modifican durante la búsqueda y quedan como estaban al terminar.
+     */
+    public boolean recorrerDesde(long[] ocupado, int[] eleccion, Predicate<int[]> visitante,
+                                 ControlBusqueda control) {
+        if (candidatos.isEmpty()) {
+            return true;
+        }
+        int pendientes = 0;
+        for (int e : eleccion) {
+            if (e < 0) {
+                pendientes++;
+            }
+        }
+        Recorrido recorrido = new Recorrido(ocupado, eleccion, visitante, control);
+        return recorrido.buscar(pendientes);
+    }
+
+    /** Estado de un recorrido; no se comparte entre hilos */
+    private final class Recorrido {
+
+        /** Cada cuántos nodos se descuenta del presupuesto compartido */
+        private static final int LOTE_NODOS = 256;
+
+        private final long[] ocupado;
+        private final int[] eleccion;
+        private final Predicate<int[]> visitante;
+        private final ControlBusqueda control;
+        private int nodosSinInformar;
+
+        Recorrido(long[] ocupado, int[] eleccion, Predicate<int[]> visitante, ControlBusqueda control) {
+            this.ocupado = ocupado;
+            this.eleccion = eleccion;
+            this.visitante = visitante;
+            this.control = control;
+        }
+
+        boolean buscar(int pendientes) {
+            if (++nodosSinInformar >= LOTE_NODOS) {
+                nodosSinInformar = 0;
+                if (!control.consumir(LOTE_NODOS)) {
+                    return false;
+                }
+            }
+            if (pendientes == 0) {
+                return visitante.test(eleccion);
+            }
+
+            int materia = masRestringida(ocupado, eleccion);
+            if (materia < 0) {
+                return true;
+            }
+
+            List<Candidato> opciones = candidatos.get(materia);
+            for (int j = 0; j < opciones.size(); j++) {
+                OcupacionSemanal ocupacion = opciones.get(j).ocupacion();
+                if (ocupacion.chocaCon(ocupado)) {
+                    continue;
+                }
+                ocupacion.marcarEn(ocupado);
+                eleccion[materia] = j;
+                boolean seguir = buscar(pendientes - 1);
+                eleccion[materia] = -1;
+                ocupacion.desmarcarEn(ocupado);
+                if (!seguir) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Materia sin asignar con menos comisiones compatibles (desempata por posición).
+     *
+     * @return su posición, o -1 si alguna materia ya no tiene ninguna comisión posible
+     */
+    int masRestringida(long[] ocupado, int[] eleccion) {
+        int elegida = -1;
+        int minimo = Integer.MAX_VALUE;
+        for (int i = 0; i < eleccion.length; i++) {
+            if (eleccion[i] >= 0) {
+                continue;
+            }
+            int compatibles = 0;
+            for (Candidato c : candidatos.get(i)) {
+                if (!c.ocupacion().chocaCon(ocupado)) {
+                    compatibles++;
+                    if (compatibles >= minimo) {
+                        break;
+                    }
+                }
+            }
+            if (compatibles == 0) {
+                return -1;
+            }
+            if (compatibles < minimo) {
+                minimo = compatibles;
+                elegida = i;
+            }
+        }
+        return elegida;
+    }
+}
@@ -0,0 +1,88 @@
+package com.cruma.combinaciones;
+
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matriz de choques comisión contra comisión de un periodo, como filas de bits.
+ * Se arma una vez por foto del catálogo y periodo; después saber si dos comisiones se superponen
+ * es leer un bit, y los choques de varias comisiones fijadas se juntan con un OR de sus filas.
+ */
+public final class MatrizConflictos {
+
+    private final List<Candidato> candidatos;
+    private final Map<Integer, Integer> filaPorComisionMateria;
+    private final long[][] choques;
+
+    private MatrizConflictos(List<Candidato> candidatos, Map<Integer, Integer> filaPorComisionMateria,
+                             long[][] choques) {
+        this.candidatos = candidatos;
+        this.filaPorComisionMateria = filaPorComisionMateria;
+        this.choques = choques;
+    }
+
+    public static MatrizConflictos de(List<OpcionComision> opciones) {
+        List<Candidato> candidatos = opciones.stream().map(Candidato::de).toList();
+        int n = candidatos.size();
+        Map<Integer, Integer> filas = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            filas.put(candidatos.get(i).opcion().comisionMateriaId(), i);
+        }
+
+        long[][] choques = new long[n][palabras(n)];
+        for (int i = 0; i < n; i++) {
+            OcupacionSemanal a = candidatos.get(i).ocupacion();
+            for (int j = i + 1; j < n; j++) {
+                OcupacionSemanal b = candidatos.get(j).ocupacion();
+                // Sin días en común no hace falta mirar las franjas
+                if ((a.mascaraDias() & b.mascaraDias()) != 0 && a.chocaCon(b)) {
+                    choques[i][j >>> 6] |= 1L << (j & 63);
+                    choques[j][i >>> 6] |= 1L << (i & 63);
+                }
+            }
+        }
+        return new MatrizConflictos(candidatos, Map.copyOf(filas), choques);
+    }
+
+    private static int palabras(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    /** Cantidad de comisiones (filas) de la matriz */
+    public int tamanio() {
+        return candidatos.size();
+    }
+
+    /** @return la fila de la comisión, o -1 si no pertenece a este periodo */
+    public int fila(int comisionMateriaId) {
+        return filaPorComisionMateria.getOrDefault(comisionMateriaId, -1);
+    }
+
+    public Candidato candidato(int fila) {
+        return candidatos.get(fila);
+    }
+
+    public boolean chocan(int filaA, int filaB) {
+        return tieneBit(choques[filaA], filaB);
+    }
+
+    /** Fila vacía para acumular choques con {@link #acumular(int, long[])} */
+    public long[] nuevaFila() {
+        return new long[palabras(candidatos.size())];
+    }
+
+    /** Suma a {@code destino} las comisiones que chocan con la de {@code fila} */
+    public void acumular(int fila, long[] destino) {
+        long[] origen = choques[fila];
+        for (int w = 0; w < origen.length; w++) {
+            destino[w] |= origen[w];
+        }
+    }
+
+    public static boolean tieneBit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << (i & 63))) != 0;
+    }
+}
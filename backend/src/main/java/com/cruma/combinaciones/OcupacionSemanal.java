@@ -0,0 +1,258 @@
+package com.cruma.combinaciones;
+
+import com.cruma.service.CatalogoSnapshot.Bloque;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Ocupación semanal de una comisión como máscara de bits: un bit por cada franja de 5 minutos,
+ * de lunes a sábado (6 × 288 franjas = 27 palabras {@code long}).
+ * Solo se guardan las palabras distintas de cero, así chequear un choque son unos pocos AND.
+ */
+public final class OcupacionSemanal {
+
+    public static final int MINUTOS_POR_FRANJA = 5;
+    public static final int DIAS = 6;
+    public static final int FRANJAS_POR_DIA = 24 * 60 / MINUTOS_POR_FRANJA;
+    public static final int PALABRAS = (DIAS * FRANJAS_POR_DIA + 63) / 64;
+
+    public static final OcupacionSemanal VACIA = new OcupacionSemanal(new int[0], new long[0], 0);
+
+    private final int[] indices;
+    private final long[] mascaras;
+    private final int dias;
+
+    private OcupacionSemanal(int[] indices, long[] mascaras, int dias) {
+        this.indices = indices;
+        this.mascaras = mascaras;
+        this.dias = dias;
+    }
+
+    /**
+     * Construye la ocupación de un conjunto de bloques. El inicio se redondea hacia abajo y el fin
+     * hacia arriba a la franja de 5 minutos. Los bloques de días fuera de lunes-sábado se ignoran.
+     */
+    public static OcupacionSemanal de(Collection<Bloque> bloques) {
+        long[] densa = new long[PALABRAS];
+        for (Bloque b : bloques) {
+            marcarRango(densa, b.dia(), b.inicioMinutos(), b.finMinutos());
+        }
+        return deDensa(densa);
+    }
+
+    /** Ocupación de un único rango horario en un día (1 = lunes ... 6 = sábado) */
+    public static OcupacionSemanal rango(int dia, int inicioMinutos, int finMinutos) {
+        long[] densa = new long[PALABRAS];
+        marcarRango(densa, dia, inicioMinutos, finMinutos);
+        return deDensa(densa);
+    }
+
+    private static void marcarRango(long[] densa, int dia, int inicioMinutos, int finMinutos) {
+        if (dia < 1 || dia > DIAS || finMinutos <= inicioMinutos) {
+            return;
+        }
+        int base = (dia - 1) * FRANJAS_POR_DIA;
+        int desde = base + Math.max(0, inicioMinutos) / MINUTOS_POR_FRANJA;
+        int hasta = base + Math.min(FRANJAS_POR_DIA,
+                (Math.min(finMinutos, 24 * 60) + MINUTOS_POR_FRANJA - 1) / MINUTOS_POR_FRANJA);
+        for (int bit = desde; bit < hasta; bit++) {
+            densa[bit >>> 6] |= 1L << (bit & 63);
+        }
+    }
+
+    /** Ocupación compacta a partir de un arreglo denso (por ejemplo la unión de varias ocupaciones) */
+    public static OcupacionSemanal deDensa(long[] densa) {
+        int noVacias = 0;
+        for (long palabra : densa) {
+            if (palabra != 0) {
+                noVacias++;
+            }
+        }
+        if (noVacias == 0) {
+            return VACIA;
+        }
+        int[] indices = new int[noVacias];
+        long[] mascaras = new long[noVacias];
+        int k = 0;
+        for (int i = 0; i < densa.length; i++) {
+            if (densa[i] != 0) {
+                indices[k] = i;
+                mascaras[k] = densa[i];
+                k++;
+            }
+        }
+        return new OcupacionSemanal(indices, mascaras, mascaraDias(densa));
+    }
+
+    /** Bit {@code d - 1} encendido si el día {@code d} tiene alguna franja ocupada */
+    public static int mascaraDias(long[] densa) {
+        int resultado = 0;
+        for (int dia = 1; dia <= DIAS; dia++) {
+            int base = (dia - 1) * FRANJAS_POR_DIA;
+            if (primeraFranja(densa, base, base + FRANJAS_POR_DIA) >= 0) {
+                resultado |= 1 << (dia - 1);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Franjas libres entre la primera y la última franja ocupada de cada día (los "huecos"),
+     * sumadas en toda la semana.
+     */
+    public static int franjasHueco(long[] densa) {
+        int total = 0;
+        for (int dia = 1; dia <= DIAS; dia++) {
+            int base = (dia - 1) * FRANJAS_POR_DIA;
+            int primera = primeraFranja(densa, base, base + FRANJAS_POR_DIA);
+            if (primera < 0) {
+                continue;
+            }
+            int ultima = ultimaFranja(densa, base, base + FRANJAS_POR_DIA);
+            total += (ultima - primera + 1) - contarFranjas(densa, primera, ultima + 1);
+        }
+        return total;
+    }
+
+    /** Primera franja ocupada en [desde, hasta), o -1 */
+    private static int primeraFranja(long[] densa, int desde, int hasta) {
+        int ultimaPalabra = (hasta - 1) >>> 6;
+        for (int w = desde >>> 6; w <= ultimaPalabra; w++) {
+            long palabra = densa[w] & mascaraRango(w, desde, hasta);
+            if (palabra != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(palabra);
+            }
+        }
+        return -1;
+    }
+
+    /** Última franja ocupada en [desde, hasta), o -1 */
+    private static int ultimaFranja(long[] densa, int desde, int hasta) {
+        int primeraPalabra = desde >>> 6;
+        for (int w = (hasta - 1) >>> 6; w >= primeraPalabra; w--) {
+            long palabra = densa[w] & mascaraRango(w, desde, hasta);
+            if (palabra != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(palabra);
+            }
+        }
+        return -1;
+    }
+
+    private static int contarFranjas(long[] densa, int desde, int hasta) {
+        int total = 0;
+        for (int w = desde >>> 6; w <= (hasta - 1) >>> 6; w++) {
+            total += Long.bitCount(densa[w] & mascaraRango(w, desde, hasta));
+        }
+        return total;
+    }
+
+    /** Bits de la palabra {@code w} que caen dentro de [desde, hasta) */
+    private static long mascaraRango(int w, int desde, int hasta) {
+        long mascara = -1L;
+        if (w == desde >>> 6) {
+            mascara &= -1L << (desde & 63);
+        }
+        if (w == (hasta - 1) >>> 6) {
+            mascara &= -1L >>> (63 - ((hasta - 1) & 63));
+        }
+        return mascara;
+    }
+
+    /** Crea un arreglo denso vacío para acumular ocupaciones */
+    public static long[] nuevaDensa() {
+        return new long[PALABRAS];
+    }
+
+    /** @return true si alguna franja de esta ocupación ya está marcada en {@code ocupado} */
+    public boolean chocaCon(long[] ocupado) {
+        for (int k = 0; k < indices.length; k++) {
+            if ((ocupado[indices[k]] & mascaras[k]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean chocaCon(OcupacionSemanal otra) {
+        int i = 0;
+        int j = 0;
+        while (i < indices.length && j < otra.indices.length) {
+            if (indices[i] == otra.indices[j]) {
+                if ((mascaras[i] & otra.mascaras[j]) != 0) {
+                    return true;
+                }
+                i++;
+                j++;
+            } else if (indices[i] < otra.indices[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /** Marca esta ocupación en {@code ocupado}. Solo debe llamarse si no hay choque. */
+    public void marcarEn(long[] ocupado) {
+        for (int k = 0; k < indices.length; k++) {
+            ocupado[indices[k]] |= mascaras[k];
+        }
+    }
+
+    /** Deshace un {@link #marcarEn(long[])} previo */
+    public void desmarcarEn(long[] ocupado) {
+        for (int k = 0; k < indices.length; k++) {
+            ocupado[indices[k]] &= ~mascaras[k];
+        }
+    }
+
+    /** Días con alguna franja ocupada, como en {@link #mascaraDias(long[])} */
+    public int mascaraDias() {
+        return dias;
+    }
+
+    /** Franjas ocupadas dentro de un rango horario, sumando todos los días */
+    public int franjasEntre(int desdeMinutos, int hastaMinutos) {
+        if (hastaMinutos <= desdeMinutos) {
+            return 0;
+        }
+        long[] densa = nuevaDensa();
+        marcarEn(densa);
+        int total = 0;
+        int desde = desdeMinutos / MINUTOS_POR_FRANJA;
+        int hasta = Math.min(FRANJAS_POR_DIA, (hastaMinutos + MINUTOS_POR_FRANJA - 1) / MINUTOS_POR_FRANJA);
+        for (int dia = 1; dia <= DIAS; dia++) {
+            int base = (dia - 1) * FRANJAS_POR_DIA;
+            if (desde < hasta) {
+                total += contarFranjas(densa, base + desde, base + hasta);
+            }
+        }
+        return total;
+    }
+
+    public boolean esVacia() {
+        return indices.length == 0;
+    }
+
+    /** Cantidad de franjas de 5 minutos ocupadas */
+    public int franjas() {
+        int total = 0;
+        for (long m : mascaras) {
+            total += Long.bitCount(m);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OcupacionSemanal that)) return false;
+        return Arrays.equals(indices, that.indices) && Arrays.equals(mascaras, that.mascaras);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(indices) + Arrays.hashCode(mascaras);
+    }
+}
@@ -0,0 +1,223 @@
+package com.cruma.combinaciones;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Busca las K mejores combinaciones según criterios ponderados (días en la facultad, horas de
+ * hueco entre clases y horas fuera del turno preferido) con ramificación y poda.
+ * Nunca enumera todo el espacio: cada rama se descarta en cuanto una cota inferior admisible de
+ * su costo ya no puede mejorar la peor de las K soluciones guardadas.
+ */
+public class OptimizadorCombinaciones {
+
+    /** Rangos horarios de cada turno, en minutos desde las 00:00 */
+    public enum Turno {
+        MANANA(0, 13 * 60),
+        TARDE(13 * 60, 18 * 60),
+        NOCHE(18 * 60, 24 * 60);
+
+        private final int desdeMinutos;
+        private final int hastaMinutos;
+
+        Turno(int desdeMinutos, int hastaMinutos) {
+            this.desdeMinutos = desdeMinutos;
+            this.hastaMinutos = hastaMinutos;
+        }
+    }
+
+    /**
+     * @param pesoDia             costo por cada día con clases
+     * @param pesoHoraHueco       costo por hora libre entre la primera y la última clase de un día
+     * @param pesoHoraFueraTurno  costo por hora de clase fuera del turno preferido
+     * @param turno               turno preferido, o null si no importa
+     * @param bloqueos            franjas en las que no puede haber clases (restricción dura)
+     * @throws IllegalArgumentException si algún peso es negativo, NaN o infinito: la poda usa el costo
+     *                                  parcial como cota inferior y con esos pesos descartaría las mejores
+     */
+    public record Criterios(double pesoDia, double pesoHoraHueco, double pesoHoraFueraTurno,
+                            Turno turno, OcupacionSemanal bloqueos) {
+
+        public Criterios {
+            validarPeso("pesoDias", pesoDia);
+            validarPeso("pesoHuecos", pesoHoraHueco);
+            validarPeso("pesoFueraDeTurno", pesoHoraFueraTurno);
+        }
+
+        private static void validarPeso(String nombre, double peso) {
+            if (!Double.isFinite(peso) || peso < 0) {
+                throw new IllegalArgumentException(nombre + " debe ser un número mayor o igual a 0: " + peso);
+            }
+        }
+    }
+
+    /** Una combinación puntuada; {@code eleccion} usa los índices de los candidatos originales */
+    public record Solucion(int[] eleccion, double costo, int dias, int minutosHueco, int minutosFueraTurno) {
+    }
+
+    private static final double FRANJAS_POR_HORA = 60.0 / OcupacionSemanal.MINUTOS_POR_FRANJA;
+
+    private static final Comparator<Solucion> MEJOR_PRIMERO = Comparator
+            .comparingDouble(Solucion::costo)
+            .thenComparing(Solucion::eleccion, Arrays::compare);
+
+    private final Criterios criterios;
+    /** Por materia: candidatos que no chocan con los bloqueos, ordenados por costo propio */
+    private final List<List<Opcion>> opciones;
+
+    private record Opcion(int indiceOriginal, OcupacionSemanal ocupacion, double costoPropio, int franjasFueraTurno) {
+    }
+
+    public OptimizadorCombinaciones(List<List<Candidato>> candidatos, Criterios criterios) {
+        this.criterios = criterios;
+        this.opciones = new ArrayList<>(candidatos.size());
+        OcupacionSemanal bloqueos = criterios.bloqueos() != null ? criterios.bloqueos() : OcupacionSemanal.VACIA;
+        for (List<Candidato> deMateria : candidatos) {
+            List<Opcion> filtradas = new ArrayList<>();
+            for (int j = 0; j < deMateria.size(); j++) {
+                OcupacionSemanal ocupacion = deMateria.get(j).ocupacion();
+                if (ocupacion.chocaCon(bloqueos)) {
+                    continue;
+                }
+                int fueraTurno = franjasFueraDeTurno(ocupacion);
+                double costo = criterios.pesoHoraFueraTurno() * fueraTurno / FRANJAS_POR_HORA;
+                filtradas.add(new Opcion(j, ocupacion, costo, fueraTurno));
+            }
+            filtradas.sort(Comparator.comparingDouble(Opcion::costoPropio).thenComparingInt(Opcion::indiceOriginal));
+            opciones.add(filtradas);
+        }
+    }
+
+    private int franjasFueraDeTurno(OcupacionSemanal ocupacion) {
+        Turno turno = criterios.turno();
+        if (turno == null) {
+            return 0;
+        }
+        return ocupacion.franjas() - ocupacion.franjasEntre(turno.desdeMinutos, turno.hastaMinutos);
+    }
+
+    /**
+     * @param k cuántas soluciones devolver como máximo
+     * @return las mejores soluciones, de menor a mayor costo
+     */
+    public List<Solucion> mejores(int k, ControlBusqueda control) {
+        if (k <= 0 || opciones.isEmpty() || opciones.stream().anyMatch(List::isEmpty)) {
+            return List.of();
+        }
+        Busqueda busqueda = new Busqueda(k, control);
+        busqueda.buscar(opciones.size(), 0, 0, 0);
+        List<Solucion> resultado = new ArrayList<>(busqueda.mejores);
+        resultado.sort(MEJOR_PRIMERO);
+        return resultado;
+    }
+
+    private final class Busqueda {
+
+        private static final int LOTE_NODOS = 256;
+
+        private final int k;
+        private final ControlBusqueda control;
+        /** Las K mejores hasta ahora, con la peor arriba */
+        private final PriorityQueue<Solucion> mejores = new PriorityQueue<>(MEJOR_PRIMERO.reversed());
+        private final long[] ocupado = OcupacionSemanal.nuevaDensa();
+        private final int[] eleccion;
+        private int nodosSinInformar;
+        private boolean cortada;
+
+        Busqueda(int k, ControlBusqueda control) {
+            this.k = k;
+            this.control = control;
+            this.eleccion = new int[opciones.size()];
+            Arrays.fill(eleccion, -1);
+        }
+
+        void buscar(int pendientes, double costoPropio, int franjasFueraTurno, int dias) {
+            if (cortada) {
+                return;
+            }
+            if (++nodosSinInformar >= LOTE_NODOS) {
+                nodosSinInformar = 0;
+                if (!control.consumir(LOTE_NODOS)) {
+                    cortada = true;
+                    return;
+                }
+            }
+            if (pendientes == 0) {
+                registrar(costoPropio, franjasFueraTurno, dias);
+                return;
+            }
+
+            // Una sola pasada por las materias pendientes: elige la más restringida y arma la cota
+            int materia = -1;
+            int minimoCompatibles = Integer.MAX_VALUE;
+            double cotaPropia = costoPropio;
+            int diasNuevosMinimos = 0;
+            for (int i = 0; i < eleccion.length; i++) {
+                if (eleccion[i] >= 0) {
+                    continue;
+                }
+                int compatibles = 0;
+                double mejorCosto = Double.MAX_VALUE;
+                int menosDiasNuevos = Integer.MAX_VALUE;
+                for (Opcion o : opciones.get(i)) {
+                    if (o.ocupacion().chocaCon(ocupado)) {
+                        continue;
+                    }
+                    compatibles++;
+                    mejorCosto = Math.min(mejorCosto, o.costoPropio());
+                    menosDiasNuevos = Math.min(menosDiasNuevos, Integer.bitCount(o.ocupacion().mascaraDias() & ~dias));
+                }
+                if (compatibles == 0) {
+                    return;
+                }
+                cotaPropia += mejorCosto;
+                diasNuevosMinimos = Math.max(diasNuevosMinimos, menosDiasNuevos);
+                if (compatibles < minimoCompatibles) {
+                    minimoCompatibles = compatibles;
+                    materia = i;
+                }
+            }
+
+            // Los huecos pueden achicarse al sumar materias, así que no entran en la cota
+            double cota = cotaPropia + criterios.pesoDia() * (Integer.bitCount(dias) + diasNuevosMinimos);
+            if (mejores.size() >= k && cota > mejores.peek().costo()) {
+                return;
+            }
+
+            for (Opcion o : opciones.get(materia)) {
+                if (o.ocupacion().chocaCon(ocupado)) {
+                    continue;
+                }
+                o.ocupacion().marcarEn(ocupado);
+                eleccion[materia] = o.indiceOriginal();
+                buscar(pendientes - 1, costoPropio + o.costoPropio(), franjasFueraTurno + o.franjasFueraTurno(),
+                        dias | o.ocupacion().mascaraDias());
+                eleccion[materia] = -1;
+                o.ocupacion().desmarcarEn(ocupado);
+                if (cortada) {
+                    return;
+                }
+            }
+        }
+
+        private void registrar(double costoPropio, int franjasFueraTurno, int dias) {
+            int franjasHueco = OcupacionSemanal.franjasHueco(ocupado);
+            int cantidadDias = Integer.bitCount(dias);
+            double costo = costoPropio
+                    + criterios.pesoDia() * cantidadDias
+                    + criterios.pesoHoraHueco() * franjasHueco / FRANJAS_POR_HORA;
+            Solucion s = new Solucion(eleccion.clone(), costo, cantidadDias,
+                    franjasHueco * OcupacionSemanal.MINUTOS_POR_FRANJA,
+                    franjasFueraTurno * OcupacionSemanal.MINUTOS_POR_FRANJA);
+            if (mejores.size() < k) {
+                mejores.add(s);
+            } else if (MEJOR_PRIMERO.compare(s, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.add(s);
+            }
+        }
+    }
+}
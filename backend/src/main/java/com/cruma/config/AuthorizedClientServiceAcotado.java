@@ -0,0 +1,78 @@
+package com.cruma.config;
+
+import com.cruma.util.CacheAcotada;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Guarda los clientes autorizados (tokens de acceso) de OAuth2 en una caché con tope de entradas y
+ * vencimiento, en lugar del mapa en memoria de Spring que nunca descarta nada.
+ * Opcionalmente delega en un almacenamiento persistente (JDBC): se escribe en los dos y, si la
+ * entrada ya no está en memoria, se busca ahí y se vuelve a cachear.
+ */
+public class AuthorizedClientServiceAcotado implements OAuth2AuthorizedClientService {
+
+    private record Clave(String registrationId, String principal) {
+    }
+
+    private final CacheAcotada<Clave, OAuth2AuthorizedClient> memoria;
+    private final OAuth2AuthorizedClientService persistente;
+
+    /**
+     * @param persistente segundo nivel, o null para usar solo memoria
+     */
+    public AuthorizedClientServiceAcotado(int maxEntradas, Duration ttl, OAuth2AuthorizedClientService persistente) {
+        this(maxEntradas, ttl, persistente, Clock.systemUTC());
+    }
+
+    AuthorizedClientServiceAcotado(int maxEntradas, Duration ttl, OAuth2AuthorizedClientService persistente,
+                                   Clock reloj) {
+        this.memoria = new CacheAcotada<>(maxEntradas, ttl, reloj);
+        this.persistente = persistente;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+        Clave clave = new Clave(clientRegistrationId, principalName);
+        OAuth2AuthorizedClient cliente = memoria.get(clave);
+        if (cliente == null && persistente != null) {
+            cliente = persistente.loadAuthorizedClient(clientRegistrationId, principalName);
+            if (cliente != null) {
+                memoria.put(clave, cliente);
+            }
+        }
+        return (T) cliente;
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+        memoria.put(new Clave(authorizedClient.getClientRegistration().getRegistrationId(), principal.getName()),
+                authorizedClient);
+        if (persistente != null) {
+            persistente.saveAuthorizedClient(authorizedClient, principal);
+        }
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+        memoria.remove(new Clave(clientRegistrationId, principalName));
+        if (persistente != null) {
+            persistente.removeAuthorizedClient(clientRegistrationId, principalName);
+        }
+    }
+
+    /** Entradas en memoria */
+    public int getEntradas() {
+        return memoria.size();
+    }
+
+    /** Entradas descartadas de memoria por tope o vencimiento */
+    public long getDesalojos() {
+        return memoria.getDesalojos();
+    }
+}
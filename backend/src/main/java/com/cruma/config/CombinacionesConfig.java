@@ -0,0 +1,23 @@
+package com.cruma.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class CombinacionesConfig {
+
+    /**
+     * Pool dedicado a la búsqueda paralela de combinaciones. Es acotado (por defecto la mitad de
+     * los núcleos) para que las búsquedas grandes no le quiten todos los hilos al resto de la app.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    ForkJoinPool combinacionesPool(@Value("${cruma.combinaciones.paralelismo:0}") int paralelismo) {
+        int hilos = paralelismo > 0
+                ? paralelismo
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ForkJoinPool(hilos);
+    }
+}
@@ -0,0 +1,73 @@
+package com.cruma.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.client.JdbcOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Almacenamiento de los clientes autorizados de OAuth2: caché acotada en memoria y, si
+ * {@code cruma.oauth2.clientes.jdbc=true}, la tabla oauth2_authorized_client (V5) como segundo nivel.
+ */
+@Configuration
+public class OAuth2ClientesConfig {
+
+    private final Duration ttl;
+    private final boolean jdbc;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OAuth2ClientesConfig(@Value("${cruma.oauth2.clientes.ttl-horas}") long ttlHoras,
+                                @Value("${cruma.oauth2.clientes.jdbc}") boolean jdbc,
+                                ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.jdbc = jdbc;
+        this.jdbcTemplate = jdbc ? jdbcTemplate.getObject() : null;
+    }
+
+    @Bean
+    AuthorizedClientServiceAcotado authorizedClientService(
+            @Value("${cruma.oauth2.clientes.max-entradas}") int maxEntradas,
+            ClientRegistrationRepository clientRegistrationRepository,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        OAuth2AuthorizedClientService persistente = jdbc
+                ? new JdbcOAuth2AuthorizedClientService(jdbcTemplate, clientRegistrationRepository)
+                : null;
+        AuthorizedClientServiceAcotado servicio = new AuthorizedClientServiceAcotado(maxEntradas, ttl, persistente);
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("cruma.oauth2.clientes.entradas", servicio, AuthorizedClientServiceAcotado::getEntradas)
+                    .description("Clientes autorizados de OAuth2 en memoria")
+                    .register(registry);
+            FunctionCounter.builder("cruma.oauth2.clientes.desalojos", servicio,
+                            AuthorizedClientServiceAcotado::getDesalojos)
+                    .description("Clientes autorizados descartados de memoria por tope o vencimiento")
+                    .register(registry);
+        });
+        return servicio;
+    }
+
+    /**
+     * En la tabla también vencen: se borran los que no se renovaron en el TTL. Se mira la emisión del
+     * access token porque created_at no cambia cuando el mismo usuario vuelve a entrar (V7).
+     */
+    @Scheduled(fixedDelayString = "${cruma.oauth2.clientes.purga-ms}",
+            initialDelayString = "${cruma.oauth2.clientes.purga-ms}")
+    void purgarVencidos() {
+        if (jdbc) {
+            jdbcTemplate.update("DELETE FROM oauth2_authorized_client WHERE access_token_issued_at < ?",
+                    Timestamp.from(Instant.now().minus(ttl)));
+        }
+    }
+}
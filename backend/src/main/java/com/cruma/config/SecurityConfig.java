@@ -15,6 +15,14 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private final UsuarioOAuth2Service usuarioOAuth2Service;
+    private final UsuarioOidcService usuarioOidcService;
+
+    public SecurityConfig(UsuarioOAuth2Service usuarioOAuth2Service, UsuarioOidcService usuarioOidcService) {
+        this.usuarioOAuth2Service = usuarioOAuth2Service;
+        this.usuarioOidcService = usuarioOidcService;
+    }
+
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -32,13 +40,17 @@ public class SecurityConfig {
                         // Endpoints protegidos
                         .requestMatchers("/api/auth/me",
                                 "/api/cronogramas/**",
+                                "/api/v2/cronogramas/**",
                                 "/api/correlativas/estado/**").authenticated()
                         // Resto público
                         .anyRequest().permitAll()
                 )
                 
-                // OAuth2 Login
+                // OAuth2 Login: el usuario se registra al entrar y queda en la sesión como UsuarioSesion
                 .oauth2Login(oauth2 -> oauth2
+                        .userInfoEndpoint(userInfo -> userInfo
+                                .userService(usuarioOAuth2Service)
+                                .oidcUserService(usuarioOidcService))
                         .defaultSuccessUrl("http://localhost:3000/", true)
                 )
                 
@@ -52,7 +64,7 @@ public class SecurityConfig {
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration cors = new CorsConfiguration();
         cors.setAllowedOrigins(List.of("http://localhost:3000"));
-        cors.setAllowedMethods(List.of("GET", "POST", "OPTIONS", "PUT", "DELETE"));
+        cors.setAllowedMethods(List.of("GET", "POST", "OPTIONS", "PUT", "PATCH", "DELETE"));
         cors.setAllowedHeaders(List.of("*"));
         cors.setAllowCredentials(true);
 
@@ -0,0 +1,197 @@
+package com.cruma.config;
+
+import com.cruma.model.UsuarioSesion;
+import com.cruma.model.UsuarioSesionOidc;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializa los atributos de la sesión HTTP para guardarlos en la BD.
+ * El contexto de seguridad de un usuario logueado (el atributo que se lee en cada request) se escribe
+ * en un formato binario propio con solo lo que CRUMA usa: id, email, nombre, proveedor, nombre del
+ * principal, autoridades y, en los logins con Google, el id token (sus claims se vuelven a leer del
+ * propio JWT). Cualquier otro atributo (por ejemplo el pedido de autorización durante el
+ * login) usa la serialización de Java como antes.
+ */
+public class SerializadorSesion {
+
+    private static final byte JAVA = 0;
+    private static final byte CONTEXTO_COMPACTO = 1;
+    /** La versión 1 no guardaba el id token; se sigue leyendo */
+    private static final byte VERSION = 2;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final SerializingConverter java = new SerializingConverter();
+    private final DeserializingConverter desdeJava;
+    private final DistributionSummary bytesCompactos;
+    private final DistributionSummary bytesJava;
+    private final Timer lecturas;
+
+    /**
+     * @param registry para las métricas de tamaño y tiempo de lectura, o null para no medir
+     */
+    public SerializadorSesion(ClassLoader classLoader, MeterRegistry registry) {
+        this.desdeJava = new DeserializingConverter(classLoader);
+        if (registry != null) {
+            this.bytesCompactos = tamanio(registry, "compacto");
+            this.bytesJava = tamanio(registry, "java");
+            this.lecturas = Timer.builder("cruma.sesiones.atributo.lectura")
+                    .description("Tiempo de deserializar un atributo de sesión leído de la BD")
+                    .register(registry);
+        } else {
+            this.bytesCompactos = null;
+            this.bytesJava = null;
+            this.lecturas = null;
+        }
+    }
+
+    private static DistributionSummary tamanio(MeterRegistry registry, String formato) {
+        return DistributionSummary.builder("cruma.sesiones.atributo.bytes")
+                .description("Tamaño de cada atributo de sesión guardado en la BD")
+                .baseUnit("bytes")
+                .tag("formato", formato)
+                .register(registry);
+    }
+
+    public byte[] serializar(Object valor) {
+        if (valor instanceof SecurityContext contexto
+                && contexto.getAuthentication() instanceof OAuth2AuthenticationToken token
+                && token.getPrincipal() instanceof UsuarioSesion sesion) {
+            byte[] bytes = compacto(sesion, token);
+            if (bytesCompactos != null) {
+                bytesCompactos.record(bytes.length);
+            }
+            return bytes;
+        }
+        byte[] serializado = java.convert(valor);
+        byte[] bytes = new byte[serializado.length + 1];
+        bytes[0] = JAVA;
+        System.arraycopy(serializado, 0, bytes, 1, serializado.length);
+        if (bytesJava != null) {
+            bytesJava.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    public Object deserializar(byte[] bytes) {
+        long inicio = System.nanoTime();
+        try {
+            if (bytes.length > 0 && bytes[0] == CONTEXTO_COMPACTO) {
+                return leerContexto(bytes);
+            }
+            if (bytes.length > 0 && bytes[0] == JAVA) {
+                return desdeJava.convert(Arrays.copyOfRange(bytes, 1, bytes.length));
+            }
+            // Sin prefijo: serialización de Java tal cual (empieza con 0xAC)
+            return desdeJava.convert(bytes);
+        } finally {
+            if (lecturas != null) {
+                lecturas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static byte[] compacto(UsuarioSesion sesion, OAuth2AuthenticationToken token) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CONTEXTO_COMPACTO);
+            out.writeByte(VERSION);
+            out.writeLong(sesion.getUsuarioId().getMostSignificantBits());
+            out.writeLong(sesion.getUsuarioId().getLeastSignificantBits());
+            out.writeUTF(sesion.getMail());
+            escribirOpcional(out, sesion.getNombre());
+            out.writeUTF(sesion.getProveedor());
+            out.writeUTF(sesion.getName());
+            out.writeUTF(token.getAuthorizedClientRegistrationId());
+            List<String> autoridades = token.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+            out.writeShort(autoridades.size());
+            for (String autoridad : autoridades) {
+                out.writeUTF(autoridad);
+            }
+            escribirOpcional(out, sesion instanceof UsuarioSesionOidc oidc ? oidc.getIdToken().getTokenValue() : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SecurityContext leerContexto(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.readByte();
+            byte version = in.readByte();
+            if (version != 1 && version != VERSION) {
+                throw new IllegalStateException("Versión de sesión desconocida: " + version);
+            }
+            UUID usuarioId = new UUID(in.readLong(), in.readLong());
+            String mail = in.readUTF();
+            String nombre = leerOpcional(in);
+            String proveedor = in.readUTF();
+            String nombrePrincipal = in.readUTF();
+            String registrationId = in.readUTF();
+            int cantidad = in.readShort();
+            List<String> autoridades = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                autoridades.add(in.readUTF());
+            }
+            String idToken = version >= 2 ? leerOpcional(in) : null;
+            UsuarioSesion sesion = idToken != null
+                    ? new UsuarioSesionOidc(usuarioId, mail, nombre, proveedor, nombrePrincipal, autoridades,
+                            idToken(idToken))
+                    : new UsuarioSesion(usuarioId, mail, nombre, proveedor, nombrePrincipal, autoridades);
+            return new SecurityContextImpl(new OAuth2AuthenticationToken(sesion, sesion.getAuthorities(), registrationId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Rearma el id token a partir del JWT: los claims están en la parte del medio */
+    private static OidcIdToken idToken(String jwt) throws IOException {
+        String[] partes = jwt.split("\\.");
+        if (partes.length < 2) {
+            throw new IllegalStateException("El id token guardado en la sesión no es un JWT");
+        }
+        Map<String, Object> claims = JSON.readValue(Base64.getUrlDecoder().decode(partes[1]), new TypeReference<>() {
+        });
+        return new OidcIdToken(jwt, instante(claims.get("iat")), instante(claims.get("exp")), claims);
+    }
+
+    private static Instant instante(Object segundos) {
+        return segundos instanceof Number n ? Instant.ofEpochSecond(n.longValue()) : null;
+    }
+
+    private static void escribirOpcional(DataOutputStream out, String valor) throws IOException {
+        out.writeBoolean(valor != null);
+        if (valor != null) {
+            out.writeUTF(valor);
+        }
+    }
+
+    private static String leerOpcional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cruma.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+
+/**
+ * Sesiones HTTP en Postgres (tablas de V6) en lugar de la memoria de Tomcat, para poder correr varias
+ * réplicas sin sesiones pegajosas. Se activa con {@code cruma.sesiones.jdbc=true}; si no, todo sigue
+ * como antes. La autoconfiguración de Spring Boot para sesiones está excluida para que el modo dependa
+ * solo de esta propiedad.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cruma.sesiones.jdbc", havingValue = "true")
+@EnableJdbcHttpSession(maxInactiveIntervalInSeconds = 1800)
+public class SesionesJdbcConfig {
+
+    /** Atributos con {@link SerializadorSesion} en lugar de la serialización de Java completa */
+    @Bean
+    SessionRepositoryCustomizer<JdbcIndexedSessionRepository> serializacionCompacta(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader(),
+                meterRegistry.getIfAvailable());
+        GenericConversionService conversion = new GenericConversionService();
+        conversion.addConverter(Object.class, byte[].class, serializador::serializar);
+        conversion.addConverter(byte[].class, Object.class, serializador::deserializar);
+        return repositorio -> repositorio.setConversionService(conversion);
+    }
+
+    /** Misma cookie que con Tomcat (JSESSIONID), así el logout y el frontend no cambian */
+    @Bean
+    CookieSerializer cookieSerializer(@Value("${server.servlet.session.cookie.secure:false}") boolean secure,
+                                      @Value("${server.servlet.session.cookie.same-site:lax}") String sameSite) {
+        DefaultCookieSerializer cookies = new DefaultCookieSerializer();
+        cookies.setCookieName("JSESSIONID");
+        cookies.setCookiePath("/");
+        cookies.setUseHttpOnlyCookie(true);
+        cookies.setUseSecureCookie(secure);
+        cookies.setSameSite(sameSite.substring(0, 1).toUpperCase() + sameSite.substring(1));
+        // Tomcat no codifica el id en Base64; mantenerlo igual simplifica convivir durante el cambio
+        cookies.setUseBase64Encoding(false);
+        return cookies;
+    }
+}
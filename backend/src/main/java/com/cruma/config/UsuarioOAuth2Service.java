@@ -0,0 +1,50 @@
+package com.cruma.config;
+
+import com.cruma.model.Usuario;
+import com.cruma.model.UsuarioSesion;
+import com.cruma.service.GitHubEmailService;
+import com.cruma.service.UsuarioService;
+import com.cruma.util.OAuth2UserHelper;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Login con GitHub (OAuth2 sin OIDC): carga el perfil, resuelve el email con el access token
+ * del login y registra al usuario. Lo que queda en la sesión es un {@link UsuarioSesion}.
+ */
+@Component
+public class UsuarioOAuth2Service implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
+
+    private final DefaultOAuth2UserService delegado = new DefaultOAuth2UserService();
+    private final UsuarioService usuarioService;
+    private final GitHubEmailService gitHubEmailService;
+
+    public UsuarioOAuth2Service(UsuarioService usuarioService, GitHubEmailService gitHubEmailService) {
+        this.usuarioService = usuarioService;
+        this.gitHubEmailService = gitHubEmailService;
+    }
+
+    @Override
+    public OAuth2User loadUser(OAuth2UserRequest request) throws OAuth2AuthenticationException {
+        OAuth2User original = delegado.loadUser(request);
+        String proveedor = request.getClientRegistration().getRegistrationId();
+        String email = OAuth2UserHelper.extractEmail(original, proveedor,
+                () -> gitHubEmailService.obtenerEmail(original.getName(), request.getAccessToken().getTokenValue()));
+        Usuario usuario = registrar(usuarioService, original, email, proveedor);
+        return new UsuarioSesion(usuario.getId(), usuario.getMail(), usuario.getNombre(), proveedor, original);
+    }
+
+    /** Registra el login; sin email no se puede identificar al usuario */
+    static Usuario registrar(UsuarioService usuarioService, OAuth2User original, String email, String proveedor) {
+        if (email == null || email.isBlank()) {
+            throw new OAuth2AuthenticationException(new OAuth2Error("email_no_disponible"),
+                    "No se pudo obtener el email del usuario");
+        }
+        return usuarioService.registrarLogin(email, OAuth2UserHelper.extractName(original), proveedor);
+    }
+}
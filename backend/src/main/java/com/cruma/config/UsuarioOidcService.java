@@ -0,0 +1,34 @@
+package com.cruma.config;
+
+import com.cruma.model.Usuario;
+import com.cruma.model.UsuarioSesionOidc;
+import com.cruma.service.UsuarioService;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Component;
+
+/**
+ * Login con Google (OIDC): mismo registro que {@link UsuarioOAuth2Service}, con el email del id token.
+ * El principal es un {@link UsuarioSesionOidc}, que conserva el id token.
+ */
+@Component
+public class UsuarioOidcService implements OAuth2UserService<OidcUserRequest, OidcUser> {
+
+    private final OidcUserService delegado = new OidcUserService();
+    private final UsuarioService usuarioService;
+
+    public UsuarioOidcService(UsuarioService usuarioService) {
+        this.usuarioService = usuarioService;
+    }
+
+    @Override
+    public OidcUser loadUser(OidcUserRequest request) throws OAuth2AuthenticationException {
+        OidcUser original = delegado.loadUser(request);
+        String proveedor = request.getClientRegistration().getRegistrationId();
+        Usuario usuario = UsuarioOAuth2Service.registrar(usuarioService, original, original.getEmail(), proveedor);
+        return new UsuarioSesionOidc(usuario.getId(), usuario.getMail(), usuario.getNombre(), proveedor, original);
+    }
+}
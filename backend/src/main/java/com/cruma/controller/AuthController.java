@@ -2,13 +2,15 @@ package com.cruma.controller;
 
 import com.cruma.dto.UsuarioDTO;
 import com.cruma.model.Usuario;
-import com.cruma.repository.UsuarioRepository;
+import com.cruma.model.UsuarioSesion;
+import com.cruma.service.UsuarioAutenticadoService;
+import com.cruma.service.UsuarioService;
 import com.cruma.util.OAuth2UserHelper;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,23 +19,25 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final UsuarioRepository usuarioRepository;
-    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final UsuarioService usuarioService;
+    private final UsuarioAutenticadoService usuarioAutenticado;
 
-    public AuthController(UsuarioRepository usuarioRepository, OAuth2AuthorizedClientService authorizedClientService) {
-        this.usuarioRepository = usuarioRepository;
-        this.authorizedClientService = authorizedClientService;
+    public AuthController(UsuarioService usuarioService, UsuarioAutenticadoService usuarioAutenticado) {
+        this.usuarioService = usuarioService;
+        this.usuarioAutenticado = usuarioAutenticado;
     }
 
     /**
      * Devuelve el usuario autenticado actualmente, o 401 si no hay sesión.
+     * Es solo lectura: el usuario se registra en el login y sus datos vienen del principal de la sesión.
+     * Lleva ETag, así el navegador revalida con If-None-Match y recibe 304 si no cambió nada.
      */
     @GetMapping("/me")
     public ResponseEntity<?> me(Authentication authentication) {
@@ -45,44 +49,36 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        String email = OAuth2UserHelper.extractEmail(oAuth2User, authentication, authorizedClientService);
-        String nombre = OAuth2UserHelper.extractName(oAuth2User);
-
-        if (email == null || email.isBlank()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "No se pudo obtener el email"));
-        }
-
-        String proveedor = OAuth2UserHelper.determinarProveedor(authentication);
-        
-        Optional<Usuario> existente = usuarioRepository.findByMailWithProveedores(email);
-        Usuario usuario;
-        
-        if (existente.isPresent()) {
-            usuario = existente.get();
-            usuario.agregarProveedor(proveedor);
-            if (nombre != null && !nombre.isBlank()) {
-                usuario.setNombre(nombre);
-            }
-            usuario = usuarioRepository.save(usuario);
+        UsuarioDTO dto;
+        if (oAuth2User instanceof UsuarioSesion sesion) {
+            dto = aDTO(sesion.getUsuarioId(), sesion.getMail(), sesion.getNombre());
         } else {
-            usuario = new Usuario();
-            usuario.setId(UUID.randomUUID());
-            usuario.setMail(email);
-            usuario.setNombre(nombre != null && !nombre.isBlank() ? nombre : email);
-            usuario.agregarProveedor(proveedor);
-            usuario = usuarioRepository.save(usuario);
+            // Sesión iniciada antes de que el login registrara al usuario: se registra acá
+            String email = usuarioAutenticado.obtenerEmail(authentication);
+            if (email == null || email.isBlank()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "No se pudo obtener el email"));
+            }
+            Usuario usuario = usuarioService.registrarLogin(email, OAuth2UserHelper.extractName(oAuth2User),
+                    OAuth2UserHelper.determinarProveedor(authentication));
+            dto = aDTO(usuario.getId(), usuario.getMail(), usuario.getNombre());
         }
 
-        // Crear DTO para evitar referencias circulares en JSON
-        UsuarioDTO dto = new UsuarioDTO();
-        dto.setId(usuario.getId());
-        dto.setMail(usuario.getMail());
-        dto.setNombre(usuario.getNombre() != null && !usuario.getNombre().isBlank() 
-            ? usuario.getNombre() 
-            : usuario.getMail());
+        // Spring responde 304 solo si el If-None-Match coincide con este ETag
+        String etag = Integer.toHexString(Objects.hash(dto.getId(), dto.getMail(), dto.getNombre()));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(dto);
+    }
 
-        return ResponseEntity.ok(dto);
+    /** Crea el DTO para evitar referencias circulares en JSON */
+    private static UsuarioDTO aDTO(UUID id, String mail, String nombre) {
+        UsuarioDTO dto = new UsuarioDTO();
+        dto.setId(id);
+        dto.setMail(mail);
+        dto.setNombre(nombre != null && !nombre.isBlank() ? nombre : mail);
+        return dto;
     }
 
     /**
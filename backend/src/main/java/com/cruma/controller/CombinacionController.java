@@ -0,0 +1,78 @@
+package com.cruma.controller;
+
+import com.cruma.dto.CombinacionesDTO;
+import com.cruma.dto.ComisionInfoDTO;
+import com.cruma.dto.ConteoCombinacionesDTO;
+import com.cruma.dto.CriteriosCombinacionDTO;
+import com.cruma.dto.MejoresCombinacionesDTO;
+import com.cruma.service.CombinacionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/combinaciones")
+@CrossOrigin("http://localhost:5173")
+public class CombinacionController {
+
+    private final CombinacionService service;
+
+    public CombinacionController(CombinacionService service) {
+        this.service = service;
+    }
+
+    /** GET /api/combinaciones?materiaIds=1,2,3&periodoId=1 - Combinaciones de comisiones sin superposición */
+    @GetMapping
+    public CombinacionesDTO generar(@RequestParam List<Integer> materiaIds,
+                                    @RequestParam Integer periodoId,
+                                    @RequestParam(required = false) Integer limite,
+                                    @RequestParam(required = false) Boolean paralelo) {
+        return service.generar(materiaIds, periodoId, limite, paralelo);
+    }
+
+    /**
+     * GET /api/combinaciones/compatibles?periodoId=1&materiaIds=4,5&horarioIds=10,11 - Por materia,
+     * las comisiones que no chocan con los horarios (comision_materia_horario) ya fijados
+     */
+    @GetMapping("/compatibles")
+    public Map<Integer, List<ComisionInfoDTO>> compatibles(@RequestParam Integer periodoId,
+                                                           @RequestParam List<Integer> materiaIds,
+                                                           @RequestParam(required = false) List<Integer> horarioIds) {
+        return service.compatibles(periodoId, horarioIds, materiaIds);
+    }
+
+    /** GET /api/combinaciones/cantidad?materiaIds=1,2,3&periodoId=1 - Cuántas combinaciones hay, sin listarlas */
+    @GetMapping("/cantidad")
+    public ConteoCombinacionesDTO contar(@RequestParam List<Integer> materiaIds,
+                                         @RequestParam Integer periodoId) {
+        return service.contar(materiaIds, periodoId);
+    }
+
+    /**
+     * GET /api/combinaciones/stream?materiaIds=1,2,3&periodoId=1 - Las mismas combinaciones en NDJSON,
+     * una por línea a medida que se encuentran, terminando con una línea {"fin":true,...}
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> transmitir(@RequestParam List<Integer> materiaIds,
+                                                           @RequestParam Integer periodoId,
+                                                           @RequestParam(required = false) Integer limite) {
+        // Se valida antes de empezar a escribir para que los errores lleguen como respuesta normal
+        CombinacionService.Problema problema = service.preparar(materiaIds, periodoId);
+        StreamingResponseBody cuerpo = salida -> service.transmitir(problema, limite, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(cuerpo);
+    }
+
+    /** POST /api/combinaciones/mejores - Las K mejores combinaciones según días, huecos, turno y franjas bloqueadas */
+    @PostMapping("/mejores")
+    public MejoresCombinacionesDTO mejores(@RequestBody CriteriosCombinacionDTO criterios) {
+        return service.mejores(criterios);
+    }
+}
@@ -1,5 +1,6 @@
 package com.cruma.controller;
 
+import com.cruma.dto.BusquedaFranjasDTO;
 import com.cruma.dto.ComisionDTO;
 import com.cruma.dto.ComisionInfoDTO;
 import com.cruma.dto.HorarioDTO;
@@ -7,6 +8,7 @@ import com.cruma.service.ComisionService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -33,6 +35,18 @@ public class ComisionController {
         return service.listarInfoPorMateria(materiaId);
     }
 
+    /** GET /api/comisiones?materiaIds=1,2,3 - Comisiones de varias materias agrupadas por materiaId */
+    @GetMapping("/comisiones")
+    public Map<Integer, List<ComisionInfoDTO>> getComisionesPorMaterias(@RequestParam List<Integer> materiaIds) {
+        return service.listarInfoPorMaterias(materiaIds);
+    }
+
+    /** POST /api/comisiones/en-franjas - Comisiones cuyos horarios entran todos en las franjas libres */
+    @PostMapping("/comisiones/en-franjas")
+    public List<ComisionInfoDTO> buscarPorFranjas(@RequestBody BusquedaFranjasDTO busqueda) {
+        return service.buscarPorFranjas(busqueda);
+    }
+
     @GetMapping("/materias/{materiaId}/comisiones/{comisionId}/periodo/{periodoId}/horarios")
     public List<HorarioDTO> getHorariosPorMateriaComisionPeriodo(
             @PathVariable Integer materiaId,
@@ -1,6 +1,7 @@
 package com.cruma.controller;
 
 import com.cruma.dto.CrearCronogramaDTO;
+import com.cruma.dto.CrearCronogramaV2DTO;
 import com.cruma.dto.CronogramaDTO;
 import com.cruma.model.Cronograma;
 import com.cruma.model.DetalleCronograma;
@@ -12,7 +13,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
-@RequestMapping("/api/cronogramas")
+@RequestMapping("/api")
 public class CronogramaController {
 
     private final CronogramaService svc;
@@ -22,7 +23,7 @@ public class CronogramaController {
     }
 
     /** GET /api/cronogramas - Lista todos los cronogramas del usuario autenticado */
-    @GetMapping
+    @GetMapping("/cronogramas")
     public List<CronogramaDTO> list(Authentication authentication) {
         return svc.listByUsuarioAutenticado(authentication).stream()
                 .map(this::convertirADTO)
@@ -30,14 +31,14 @@ public class CronogramaController {
     }
 
     /** GET /api/cronogramas/{id} - Obtiene un cronograma del usuario autenticado */
-    @GetMapping("/{id}")
+    @GetMapping("/cronogramas/{id}")
     public CronogramaDTO getOne(@PathVariable Long id, Authentication authentication) {
         Cronograma cronograma = svc.getOne(id, authentication);
         return convertirADTO(cronograma);
     }
 
     /** POST /api/cronogramas - Crea un nuevo cronograma para el usuario autenticado */
-    @PostMapping
+    @PostMapping("/cronogramas")
     @ResponseStatus(HttpStatus.CREATED)
     public CronogramaDTO create(@RequestBody CrearCronogramaDTO dto, Authentication authentication) {
         Cronograma cronograma = svc.crearDesdeDTO(dto, authentication);
@@ -45,20 +46,34 @@ public class CronogramaController {
     }
 
     /** PUT /api/cronogramas/{id} - Actualiza un cronograma del usuario autenticado */
-    @PutMapping("/{id}")
+    @PutMapping("/cronogramas/{id}")
     public CronogramaDTO update(@PathVariable Long id,
                              @RequestBody CrearCronogramaDTO dto,
                              Authentication authentication) {
-        // Verificar que el cronograma pertenezca al usuario antes de actualizar
-        svc.getOne(id, authentication);
-        // Eliminar el cronograma existente y crear uno nuevo con los nuevos datos
-        svc.delete(id, authentication);
-        Cronograma cronograma = svc.crearDesdeDTO(dto, authentication);
+        // Se actualiza en el lugar: mismo id y solo se escriben los detalles que cambiaron
+        Cronograma cronograma = svc.actualizarDesdeDTO(id, dto, authentication);
+        return convertirADTO(cronograma);
+    }
+
+    /** POST /api/v2/cronogramas - Crea un cronograma a partir de ids de comision_materia_horario */
+    @PostMapping("/v2/cronogramas")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CronogramaDTO createV2(@RequestBody CrearCronogramaV2DTO dto, Authentication authentication) {
+        Cronograma cronograma = svc.crearDesdeHorarios(dto, authentication);
+        return convertirADTO(cronograma);
+    }
+
+    /** PUT /api/v2/cronogramas/{id} - Actualiza un cronograma a partir de ids de comision_materia_horario */
+    @PutMapping("/v2/cronogramas/{id}")
+    public CronogramaDTO updateV2(@PathVariable Long id,
+                                  @RequestBody CrearCronogramaV2DTO dto,
+                                  Authentication authentication) {
+        Cronograma cronograma = svc.actualizarDesdeHorarios(id, dto, authentication);
         return convertirADTO(cronograma);
     }
 
     /** DELETE /api/cronogramas/{id} - Elimina un cronograma del usuario autenticado */
-    @DeleteMapping("/{id}")
+    @DeleteMapping("/cronogramas/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id, Authentication authentication) {
         svc.delete(id, authentication);
@@ -98,27 +113,11 @@ public class CronogramaController {
         dto.setMateriaId(cm.getMateria().getId());
         dto.setComisionId(cm.getComision().getId());
         
-        // Convertir nombre de día a número
-        String diaNombre = horario.getDiaSemana().toUpperCase();
-        String diaNumero = convertirDiaANumero(diaNombre);
-        dto.setDia(diaNumero);
+        dto.setDia(String.valueOf(horario.getDia().getNumero()));
         
         dto.setHoraEntrada(horario.getHoraInicio().toString());
         dto.setHoraSalida(horario.getHoraFin().toString());
         
         return dto;
     }
-
-    /** Convierte nombre de día a número (LUNES -> "1", MARTES -> "2", etc.) */
-    private String convertirDiaANumero(String diaNombre) {
-        return switch (diaNombre.toUpperCase()) {
-            case "LUNES" -> "1";
-            case "MARTES" -> "2";
-            case "MIÉRCOLES", "MIERCOLES" -> "3";
-            case "JUEVES" -> "4";
-            case "VIERNES" -> "5";
-            case "SÁBADO", "SABADO" -> "6";
-            default -> diaNombre;
-        };
-    }
 }
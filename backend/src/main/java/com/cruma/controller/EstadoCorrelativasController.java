@@ -29,5 +29,13 @@ public class EstadoCorrelativasController {
                                                  Authentication authentication) {
         return service.guardar(estados, authentication);
     }
+
+    /** PATCH /api/correlativas/estado/{materiaId} - Cambia el estado de una sola materia */
+    @PatchMapping("/{materiaId}")
+    public EstadoCorrelativasResponseDTO actualizarUno(@PathVariable Integer materiaId,
+                                                       @RequestBody MateriaEstadoDTO estado,
+                                                       Authentication authentication) {
+        return service.actualizarUno(materiaId, estado.getEstado(), authentication);
+    }
 }
 
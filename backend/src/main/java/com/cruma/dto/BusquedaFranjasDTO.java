@@ -0,0 +1,11 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class BusquedaFranjasDTO {
+    private List<HorarioDTO> franjas; // franjas libres: dia (1 = lunes) y horas "H:mm"
+    private Integer carreraId; // opcional
+    private Integer periodoId; // opcional; si viene se incluyen también las anuales
+}
@@ -0,0 +1,10 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CombinacionDTO {
+    // Una comisión por materia, en el mismo orden que materiaIds de la respuesta
+    private List<ComisionInfoDTO> comisiones;
+}
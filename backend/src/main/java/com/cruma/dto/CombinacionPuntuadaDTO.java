@@ -0,0 +1,14 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CombinacionPuntuadaDTO {
+    private double puntaje; // menor es mejor
+    private int dias;
+    private int minutosHueco;
+    private int minutosFueraDeTurno;
+    // Una comisión por materia, en el mismo orden que materiaIds de la respuesta
+    private List<ComisionInfoDTO> comisiones;
+}
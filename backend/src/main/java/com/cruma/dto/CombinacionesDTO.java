@@ -0,0 +1,15 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CombinacionesDTO {
+    private List<Integer> materiaIds;
+    private Integer periodoId;
+    private int cantidad;
+    private boolean truncado; // true si había más combinaciones que el límite pedido
+    private boolean incompleto; // true si la búsqueda se cortó por tiempo o presupuesto de trabajo
+    private List<Integer> materiasSinComisiones;
+    private List<CombinacionDTO> combinaciones;
+}
@@ -0,0 +1,15 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ConteoCombinacionesDTO {
+    private List<Integer> materiaIds;
+    private Integer periodoId;
+    private Long cantidad; // null si el conteo quedó incompleto: no se sabe cuántas hay
+    private int componentes; // grupos de materias cuyos horarios nunca se cruzan entre grupos
+    private boolean incompleto; // true si el conteo se cortó por presupuesto de trabajo
+    private boolean desborde; // true si la cantidad es tan grande que se satura en el máximo
+    private List<Integer> materiasSinComisiones;
+}
@@ -0,0 +1,10 @@
+package com.cruma.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CrearCronogramaV2DTO {
+    private String nombre;
+    private List<Integer> comisionMateriaHorarioIds; // ids recibidos de los endpoints del catálogo
+}
@@ -0,0 +1,19 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CriteriosCombinacionDTO {
+    private List<Integer> materiaIds;
+    private Integer periodoId;
+    private Integer cantidad; // cuántas combinaciones devolver (K)
+    // Pesos del puntaje; si faltan se usan los valores por defecto de la configuración
+    private Double pesoDias; // por cada día con clases
+    private Double pesoHuecos; // por cada hora libre entre clases de un mismo día
+    private Double pesoFueraDeTurno; // por cada hora de clase fuera del turno preferido
+    private String turno; // MANANA, TARDE o NOCHE (opcional)
+    private String noAntesDe; // "H:mm", ninguna clase empieza antes (opcional)
+    private String noDespuesDe; // "H:mm", ninguna clase termina después (opcional)
+    private List<HorarioDTO> bloqueos; // franjas sin clases: dia (1 = lunes) y horas "H:mm"
+}
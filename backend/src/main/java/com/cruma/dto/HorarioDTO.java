@@ -7,4 +7,5 @@ public class HorarioDTO {
     private String dia;
     private String horaEntrada;
     private String horaSalida;
+    private Integer comisionMateriaHorarioId; // id para guardar cronogramas (solo en respuestas del catálogo)
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.cruma.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class MejoresCombinacionesDTO {
+    private List<Integer> materiaIds;
+    private Integer periodoId;
+    private boolean incompleto; // true si la búsqueda se cortó por presupuesto de trabajo
+    private List<Integer> materiasSinComisiones;
+    private List<CombinacionPuntuadaDTO> combinaciones; // de mejor a peor puntaje
+}
@@ -0,0 +1,18 @@
+package com.cruma.exception;
+
+/**
+ * Excepción lanzada cuando el pool de exportación a PDF tiene todos los hilos ocupados y la cola llena.
+ */
+public class ExportacionSaturadaException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ExportacionSaturadaException(long retryAfterSegundos) {
+        super("Hay demasiadas exportaciones en curso. Probá de nuevo en unos segundos.");
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -1,5 +1,6 @@
 package com.cruma.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -22,6 +23,12 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", e.getMessage()));
     }
 
+    @ExceptionHandler(MateriaNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleMateriaNotFound(MateriaNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(ComisionMateriaHorarioNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleComisionMateriaHorarioNotFound(
             ComisionMateriaHorarioNotFoundException e) {
@@ -36,6 +43,13 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", e.getMessage()));
     }
 
+    @ExceptionHandler(ExportacionSaturadaException.class)
+    public ResponseEntity<Map<String, String>> handleExportacionSaturada(ExportacionSaturadaException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<Map<String, String>> handleAccessDenied(AccessDeniedException e) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN)
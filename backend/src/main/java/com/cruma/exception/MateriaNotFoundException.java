@@ -0,0 +1,10 @@
+package com.cruma.exception;
+
+/**
+ * Excepción lanzada cuando no se encuentra una materia.
+ */
+public class MateriaNotFoundException extends RuntimeException {
+    public MateriaNotFoundException(Integer id) {
+        super("Materia no encontrada: " + id);
+    }
+}
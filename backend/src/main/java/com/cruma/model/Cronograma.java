@@ -10,7 +10,9 @@ import java.util.List;
 public class Cronograma {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con bloques de 50 ids (V4): Hibernate puede mandar los INSERT en lote
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cronograma_seq")
+    @SequenceGenerator(name = "cronograma_seq", sequenceName = "cronograma_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -9,7 +9,9 @@ import org.hibernate.type.SqlTypes;
 public class DetalleCronograma {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Igual que en Cronograma: ids de a bloques para que los detalles se inserten en lote
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_cronograma_seq")
+    @SequenceGenerator(name = "detalle_cronograma_seq", sequenceName = "detalle_cronograma_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,39 @@
+package com.cruma.model;
+
+/**
+ * Día de la semana de un horario. En la base se guarda como smallint (1 = lunes ... 7 = domingo)
+ * en la columna {@code horario.dia}.
+ */
+public enum DiaSemana {
+    LUNES(1, "LUNES"),
+    MARTES(2, "MARTES"),
+    MIERCOLES(3, "MIÉRCOLES"),
+    JUEVES(4, "JUEVES"),
+    VIERNES(5, "VIERNES"),
+    SABADO(6, "SÁBADO"),
+    DOMINGO(7, "DOMINGO");
+
+    private final int numero;
+    private final String nombre;
+
+    DiaSemana(int numero, String nombre) {
+        this.numero = numero;
+        this.nombre = nombre;
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    /** Nombre en mayúsculas y con tildes, como se mostraba antes en las respuestas */
+    public String getNombre() {
+        return nombre;
+    }
+
+    public static DiaSemana deNumero(int numero) {
+        if (numero < 1 || numero > 7) {
+            throw new IllegalArgumentException("Día inválido: " + numero);
+        }
+        return values()[numero - 1];
+    }
+}
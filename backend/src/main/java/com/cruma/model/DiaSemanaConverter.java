@@ -0,0 +1,21 @@
+package com.cruma.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda {@link DiaSemana} como su número (smallint) en lugar del nombre.
+ */
+@Converter
+public class DiaSemanaConverter implements AttributeConverter<DiaSemana, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(DiaSemana dia) {
+        return dia == null ? null : (short) dia.getNumero();
+    }
+
+    @Override
+    public DiaSemana convertToEntityAttribute(Short numero) {
+        return numero == null ? null : DiaSemana.deNumero(numero);
+    }
+}
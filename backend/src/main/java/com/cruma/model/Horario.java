@@ -13,8 +13,10 @@ public class Horario {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "dia_semana", length = 9, nullable = false)
-    private String diaSemana;
+    // La columna vieja dia_semana (texto) no se mapea; un trigger (V8) la mantiene igual a dia
+    @Convert(converter = DiaSemanaConverter.class)
+    @Column(name = "dia", nullable = false)
+    private DiaSemana dia;
 
     @Column(name = "hora_inicio", nullable = false)
     private java.time.LocalTime horaInicio;
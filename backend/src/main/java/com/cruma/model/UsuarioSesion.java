@@ -0,0 +1,108 @@
+package com.cruma.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Principal que queda en la sesión después del login, con el usuario ya resuelto en la BD.
+ * Los servicios toman el id de acá sin volver a buscar por email. Del usuario del proveedor
+ * solo se guardan unos pocos atributos (no el token ni el JSON completo del perfil) para que la sesión sea chica.
+ * Es el principal de GitHub (OAuth2 sin OIDC); el de Google es {@link UsuarioSesionOidc}, que conserva el id token.
+ */
+public class UsuarioSesion implements OAuth2User, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Atributos del proveedor que se conservan (OIDC y GitHub) */
+    private static final List<String> ATRIBUTOS = List.of("sub", "iss", "id", "login", "name", "email");
+
+    private final UUID usuarioId;
+    private final String mail;
+    private final String nombre;
+    private final String proveedor;
+    private final String nombrePrincipal;
+    private final Map<String, Object> atributos;
+    private final List<SimpleGrantedAuthority> autoridades;
+
+    public UsuarioSesion(UUID usuarioId, String mail, String nombre, String proveedor, OAuth2User original) {
+        this.usuarioId = usuarioId;
+        this.mail = mail;
+        this.nombre = nombre;
+        this.proveedor = proveedor;
+        // Es la clave con la que se guardan los OAuth2AuthorizedClient, tiene que ser la del proveedor
+        this.nombrePrincipal = original.getName();
+        Map<String, Object> compactos = new HashMap<>();
+        for (String clave : ATRIBUTOS) {
+            Object valor = original.getAttributes().get(clave);
+            if (valor != null) {
+                compactos.put(clave, valor instanceof Number || valor instanceof Boolean ? valor : valor.toString());
+            }
+        }
+        this.atributos = Map.copyOf(compactos);
+        this.autoridades = original.getAuthorities().stream()
+                .map(a -> new SimpleGrantedAuthority(a.getAuthority()))
+                .toList();
+    }
+
+    /**
+     * Reconstruye el principal a partir de los campos que guarda el serializador de sesiones;
+     * de los atributos del proveedor solo quedan el email y el nombre.
+     */
+    public UsuarioSesion(UUID usuarioId, String mail, String nombre, String proveedor, String nombrePrincipal,
+                         List<String> autoridades) {
+        this.usuarioId = usuarioId;
+        this.mail = mail;
+        this.nombre = nombre;
+        this.proveedor = proveedor;
+        this.nombrePrincipal = nombrePrincipal;
+        Map<String, Object> compactos = new HashMap<>();
+        compactos.put("email", mail);
+        if (nombre != null) {
+            compactos.put("name", nombre);
+        }
+        this.atributos = Map.copyOf(compactos);
+        this.autoridades = autoridades.stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    public UUID getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getMail() {
+        return mail;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /** "google" o "github" */
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    @Override
+    public String getName() {
+        return nombrePrincipal;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return atributos;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return autoridades;
+    }
+}
@@ -0,0 +1,56 @@
+package com.cruma.model;
+
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link UsuarioSesion} de un login con Google (OIDC). Además de los campos compactos conserva el
+ * id token, que necesita por ejemplo el logout OIDC; los claims del userinfo no se guardan.
+ */
+public class UsuarioSesionOidc extends UsuarioSesion implements OidcUser {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final OidcIdToken idToken;
+
+    public UsuarioSesionOidc(UUID usuarioId, String mail, String nombre, String proveedor, OidcUser original) {
+        super(usuarioId, mail, nombre, proveedor, original);
+        this.idToken = original.getIdToken();
+    }
+
+    /** Reconstruye el principal desde la sesión guardada, con el id token que se guardó junto a ella */
+    public UsuarioSesionOidc(UUID usuarioId, String mail, String nombre, String proveedor, String nombrePrincipal,
+                             List<String> autoridades, OidcIdToken idToken) {
+        super(usuarioId, mail, nombre, proveedor, nombrePrincipal, autoridades);
+        this.idToken = idToken;
+    }
+
+    /** El email ya resuelto en el login */
+    @Override
+    public String getEmail() {
+        return getMail();
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return idToken.getClaims();
+    }
+
+    /** Siempre null: como en {@link org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser} sin userinfo */
+    @Override
+    public OidcUserInfo getUserInfo() {
+        return null;
+    }
+
+    @Override
+    public OidcIdToken getIdToken() {
+        return idToken;
+    }
+}
@@ -10,46 +10,43 @@ import java.util.List;
 @Repository
 public interface ComisionMateriaHorarioRepository extends JpaRepository<ComisionMateriaHorario, Integer> {
 
+    /**
+     * Candidatos para resolver los bloques de un cronograma en una sola consulta: todos los horarios
+     * de las materias y comisiones pedidas, con horario y comisión-materia ya cargados.
+     * Trae el producto materias × comisiones; los pares que no interesan se descartan en memoria.
+     * El filtro va en una subconsulta sin joins para que compare las claves foráneas de comision_materia
+     * (y use su índice); con los JOIN FETCH Hibernate lo pondría sobre materia.id y comision.id.
+     */
     @Query("""
       SELECT cmh
       FROM ComisionMateriaHorario cmh
-      WHERE cmh.comisionMateria.materia.id    = :materiaId
-        AND cmh.comisionMateria.comision.id  = :comisionId
-        AND cmh.comisionMateria.periodo.id   = :periodoId
+      JOIN FETCH cmh.horario
+      JOIN FETCH cmh.comisionMateria cm
+      JOIN FETCH cm.materia
+      JOIN FETCH cm.comision
+      JOIN FETCH cm.periodo
+      WHERE cm.id IN (
+        SELECT filtro.id
+        FROM ComisionMateria filtro
+        WHERE filtro.materia.id IN :materiaIds
+          AND filtro.comision.id IN :comisionIds
+      )
     """)
-    List<ComisionMateriaHorario> findByMateriaComisionPeriodo(
-            @Param("materiaId") Integer materiaId,
-            @Param("comisionId") Integer comisionId,
-            @Param("periodoId") Integer periodoId
+    List<ComisionMateriaHorario> findCandidatosPorMateriasYComisiones(
+            @Param("materiaIds") java.util.Collection<Integer> materiaIds,
+            @Param("comisionIds") java.util.Collection<Integer> comisionIds
     );
 
+    /** Horarios por id con todo lo que hace falta para armar la respuesta de un cronograma */
     @Query("""
       SELECT cmh
       FROM ComisionMateriaHorario cmh
-      WHERE cmh.comisionMateria.materia.id = :materiaId
-        AND cmh.comisionMateria.comision.id = :comisionId
+      JOIN FETCH cmh.horario
+      JOIN FETCH cmh.comisionMateria cm
+      JOIN FETCH cm.materia
+      JOIN FETCH cm.comision
+      JOIN FETCH cm.periodo
+      WHERE cmh.id IN :ids
     """)
-    List<ComisionMateriaHorario> findByMateriaComision(
-            @Param("materiaId") Integer materiaId,
-            @Param("comisionId") Integer comisionId
-    );
-
-    @Query("""
-      SELECT cmh
-      FROM ComisionMateriaHorario cmh
-      WHERE cmh.comisionMateria.materia.id = :materiaId
-        AND cmh.comisionMateria.comision.id = :comisionId
-        AND cmh.comisionMateria.periodo.id = :periodoId
-        AND cmh.horario.diaSemana = :diaSemana
-        AND cmh.horario.horaInicio = :horaInicio
-        AND cmh.horario.horaFin = :horaFin
-    """)
-    java.util.Optional<ComisionMateriaHorario> findByMateriaComisionPeriodoHorario(
-            @Param("materiaId") Integer materiaId,
-            @Param("comisionId") Integer comisionId,
-            @Param("periodoId") Integer periodoId,
-            @Param("diaSemana") String diaSemana,
-            @Param("horaInicio") java.time.LocalTime horaInicio,
-            @Param("horaFin") java.time.LocalTime horaFin
-    );
+    List<ComisionMateriaHorario> findAllByIdInWithAll(@Param("ids") java.util.Collection<Integer> ids);
 }
@@ -2,10 +2,44 @@ package com.cruma.repository;
 
 import com.cruma.model.Cronograma;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CronogramaRepository extends JpaRepository<Cronograma, Long> {
     /** Busca todos los cronogramas de un usuario dado */
     List<Cronograma> findByUsuarioId(UUID usuarioId);
+
+    /** Cantidad de cronogramas del usuario, para validar el límite sin cargarlos */
+    long countByUsuarioId(UUID usuarioId);
+
+    /**
+     * Cronogramas del usuario con sus detalles y horarios en una sola consulta, listos para convertir a DTO.
+     * Materia y comisión quedan como proxies: de ellas solo se lee el id, que no dispara consultas.
+     */
+    @Query("""
+      SELECT DISTINCT c
+      FROM Cronograma c
+      LEFT JOIN FETCH c.detalles d
+      LEFT JOIN FETCH d.comisionMateriaHorario cmh
+      LEFT JOIN FETCH cmh.horario
+      LEFT JOIN FETCH cmh.comisionMateria
+      WHERE c.usuario.id = :usuarioId
+      ORDER BY c.id
+    """)
+    List<Cronograma> findByUsuarioIdConDetalles(@Param("usuarioId") UUID usuarioId);
+
+    /** Un cronograma con sus detalles y horarios ya cargados */
+    @Query("""
+      SELECT c
+      FROM Cronograma c
+      LEFT JOIN FETCH c.detalles d
+      LEFT JOIN FETCH d.comisionMateriaHorario cmh
+      LEFT JOIN FETCH cmh.horario
+      LEFT JOIN FETCH cmh.comisionMateria
+      WHERE c.id = :id
+    """)
+    Optional<Cronograma> findByIdConDetalles(@Param("id") Long id);
 }
@@ -3,8 +3,13 @@ package com.cruma.repository;
 import com.cruma.model.UsuarioMateriaEstado;
 import com.cruma.model.UsuarioMateriaEstadoId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,5 +19,32 @@ public interface UsuarioMateriaEstadoRepository extends JpaRepository<UsuarioMat
     List<UsuarioMateriaEstado> findByUsuario_Id(UUID usuarioId);
 
     void deleteByUsuario_Id(UUID usuarioId);
-}
 
+    /**
+     * Inserta o actualiza el estado de una materia del usuario en una sola sentencia.
+     * Si el estado guardado ya es el mismo no toca la fila.
+     *
+     * @return 1 si se escribió la fila, 0 si no había cambios
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+      INSERT INTO usuario_materia_estado (usuario_id, materia_id, estado, updated_at)
+      VALUES (:usuarioId, :materiaId, :estado, :updatedAt)
+      ON CONFLICT (usuario_id, materia_id) DO UPDATE
+        SET estado = EXCLUDED.estado, updated_at = EXCLUDED.updated_at
+        WHERE usuario_materia_estado.estado IS DISTINCT FROM EXCLUDED.estado
+    """, nativeQuery = true)
+    int upsert(@Param("usuarioId") UUID usuarioId,
+               @Param("materiaId") Integer materiaId,
+               @Param("estado") short estado,
+               @Param("updatedAt") Instant updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+      DELETE FROM UsuarioMateriaEstado e
+      WHERE e.id.usuarioId = :usuarioId
+        AND e.id.materiaId IN :materiaIds
+    """)
+    int deleteByUsuarioIdAndMateriaIdIn(@Param("usuarioId") UUID usuarioId,
+                                        @Param("materiaIds") Collection<Integer> materiaIds);
+}
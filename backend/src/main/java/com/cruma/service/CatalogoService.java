@@ -0,0 +1,91 @@
+package com.cruma.service;
+
+import com.cruma.repository.CarreraRepository;
+import com.cruma.repository.ComisionMateriaRepository;
+import com.cruma.repository.MateriaRepository;
+import com.cruma.repository.PeriodoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene en memoria el catálogo de materias, comisiones y horarios.
+ * Los datos cambian una vez por cuatrimestre, así que se cargan una vez (a demanda)
+ * y se recargan periódicamente reemplazando la foto completa de forma atómica.
+ */
+@Service
+public class CatalogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoService.class);
+
+    private final MateriaRepository materiaRepo;
+    private final CarreraRepository carreraRepo;
+    private final PeriodoRepository periodoRepo;
+    private final ComisionMateriaRepository cmRepo;
+
+    private final AtomicReference<CatalogoSnapshot> actual = new AtomicReference<>();
+
+    public CatalogoService(MateriaRepository materiaRepo,
+                           CarreraRepository carreraRepo,
+                           PeriodoRepository periodoRepo,
+                           ComisionMateriaRepository cmRepo) {
+        this.materiaRepo = materiaRepo;
+        this.carreraRepo = carreraRepo;
+        this.periodoRepo = periodoRepo;
+        this.cmRepo = cmRepo;
+    }
+
+    /** Devuelve la foto vigente, cargándola la primera vez que se pide */
+    public CatalogoSnapshot snapshot() {
+        CatalogoSnapshot snapshot = actual.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = actual.get();
+            if (snapshot == null) {
+                snapshot = cargar();
+                actual.set(snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /** Vuelve a leer el catálogo de la BD y reemplaza la foto vigente */
+    public CatalogoSnapshot recargar() {
+        CatalogoSnapshot nuevo = cargar();
+        actual.set(nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Recarga periódica. Si todavía no se cargó nunca no hace nada (la primera carga es a demanda),
+     * y si la BD falla se conserva la foto anterior.
+     */
+    @Scheduled(fixedDelayString = "${cruma.catalogo.recarga-ms:3600000}",
+            initialDelayString = "${cruma.catalogo.recarga-ms:3600000}")
+    public void recargarPeriodicamente() {
+        if (actual.get() == null) {
+            return;
+        }
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo recargar el catálogo, se mantiene la versión anterior", e);
+        }
+    }
+
+    private CatalogoSnapshot cargar() {
+        long inicio = System.nanoTime();
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(
+                materiaRepo.findAll(),
+                carreraRepo.findAll(),
+                periodoRepo.findAll(),
+                cmRepo.findAllWithAll());
+        log.info("Catálogo cargado en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        return snapshot;
+    }
+}
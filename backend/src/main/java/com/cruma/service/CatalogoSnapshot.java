@@ -0,0 +1,321 @@
+package com.cruma.service;
+
+import com.cruma.combinaciones.MatrizConflictos;
+import com.cruma.dto.CarreraDTO;
+import com.cruma.dto.ComisionDTO;
+import com.cruma.dto.ComisionInfoDTO;
+import com.cruma.dto.HorarioDTO;
+import com.cruma.dto.MateriaDTO;
+import com.cruma.dto.PeriodoDTO;
+import com.cruma.model.Carrera;
+import com.cruma.model.ComisionMateria;
+import com.cruma.model.ComisionMateriaHorario;
+import com.cruma.model.Materia;
+import com.cruma.model.Periodo;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Foto inmutable del catálogo (materias, comisiones y horarios) con índices precalculados.
+ * Se construye una sola vez a partir de las entidades y se reemplaza entera al recargar,
+ * así las lecturas no necesitan sincronización ni tocan la BD.
+ */
+public final class CatalogoSnapshot {
+
+    /** Periodo ANUAL: sus comisiones valen para ambos cuatrimestres */
+    public static final int PERIODO_ANUAL = 0;
+
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("H:mm");
+
+    /** Un horario concreto (fila de comision_materia_horario) */
+    public record Bloque(int comisionMateriaHorarioId, String diaSemana, int dia,
+                         LocalTime horaInicio, LocalTime horaFin) {
+
+        public int inicioMinutos() {
+            return horaInicio.toSecondOfDay() / 60;
+        }
+
+        public int finMinutos() {
+            return horaFin.toSecondOfDay() / 60;
+        }
+    }
+
+    /** Una comisión de una materia en un periodo, con todos sus horarios */
+    public record OpcionComision(int comisionMateriaId, int materiaId, int comisionId, String seccion,
+                                 int carreraId, String carreraNombre, int periodoId, List<Bloque> bloques) {
+    }
+
+    private record CarreraPeriodo(int carreraId, int periodoId) {
+    }
+
+    private record MateriaComisionPeriodo(int materiaId, int comisionId, int periodoId) {
+    }
+
+    private final Instant cargadoEn;
+    private final List<MateriaDTO> materias;
+    private final Map<Integer, MateriaDTO> materiaPorId;
+    private final Map<Integer, List<MateriaDTO>> materiasPorCarrera;
+    private final Map<CarreraPeriodo, List<MateriaDTO>> materiasPorCarreraPeriodo;
+    private final Map<Integer, List<OpcionComision>> opcionesPorMateria;
+    private final Map<Integer, List<ComisionInfoDTO>> comisionesInfoPorMateria;
+    private final Map<MateriaComisionPeriodo, List<HorarioDTO>> horariosPorMateriaComisionPeriodo;
+    private final Map<Integer, OpcionComision> opcionPorComisionMateriaId;
+    private final Map<Integer, ComisionInfoDTO> infoPorComisionMateriaId;
+    private final Map<Integer, OpcionComision> opcionPorHorarioId;
+    private final IndiceBloques indiceBloques;
+    /** Se arma la primera vez que se pide cada periodo y vive lo mismo que la foto */
+    private final Map<Integer, MatrizConflictos> conflictosPorPeriodo = new ConcurrentHashMap<>();
+    private final List<CarreraDTO> carreras;
+    private final List<PeriodoDTO> periodos;
+
+    /**
+     * Construye la foto. Las {@code ComisionMateria} deben venir con comisión, carrera, periodo,
+     * materia y horarios ya inicializados (JOIN FETCH), porque acá no hay sesión abierta.
+     */
+    public CatalogoSnapshot(List<Materia> materiasBD, List<Carrera> carrerasBD, List<Periodo> periodosBD,
+                            List<ComisionMateria> comisionMateriasBD) {
+        this.cargadoEn = Instant.now();
+
+        Map<Integer, MateriaDTO> porId = new LinkedHashMap<>();
+        materiasBD.stream()
+                .sorted(Comparator.comparing(Materia::getId))
+                .forEach(m -> porId.put(m.getId(), new MateriaDTO(
+                        m.getId(),
+                        m.getCodigo(),
+                        m.getNombre(),
+                        m.getAnioCarrera(),
+                        m.getElectiva())));
+        this.materiaPorId = Map.copyOf(porId);
+        this.materias = List.copyOf(porId.values());
+
+        this.carreras = carrerasBD.stream()
+                .sorted(Comparator.comparing(Carrera::getId))
+                .map(c -> new CarreraDTO(c.getId(), c.getCodigo(), c.getNombre()))
+                .toList();
+        this.periodos = periodosBD.stream()
+                .sorted(Comparator.comparing(Periodo::getId))
+                .map(p -> new PeriodoDTO(p.getId(), p.getCodigo(), p.getDescripcion()))
+                .toList();
+
+        Map<Integer, Set<Integer>> materiaIdsPorCarrera = new HashMap<>();
+        Map<CarreraPeriodo, Set<Integer>> materiaIdsPorCarreraPeriodo = new HashMap<>();
+        Map<Integer, List<OpcionComision>> opciones = new HashMap<>();
+        Map<Integer, List<ComisionInfoDTO>> infos = new HashMap<>();
+        Map<MateriaComisionPeriodo, List<HorarioDTO>> horarios = new HashMap<>();
+        Map<Integer, OpcionComision> opcionPorId = new HashMap<>();
+        Map<Integer, ComisionInfoDTO> infoPorId = new HashMap<>();
+        Map<Integer, OpcionComision> opcionPorHorario = new HashMap<>();
+
+        List<ComisionMateria> ordenadas = comisionMateriasBD.stream()
+                .sorted(Comparator.comparing((ComisionMateria cm) -> cm.getComision().getId())
+                        .thenComparing(ComisionMateria::getId))
+                .toList();
+
+        for (ComisionMateria cm : ordenadas) {
+            int materiaId = cm.getMateria().getId();
+            int comisionId = cm.getComision().getId();
+            int carreraId = cm.getComision().getCarrera().getId();
+            int periodoId = cm.getPeriodo().getId();
+
+            List<ComisionMateriaHorario> cmhs = Optional.ofNullable(cm.getComisionMateriaHorarios())
+                    .orElse(List.of())
+                    .stream()
+                    .sorted(Comparator.comparing(ComisionMateriaHorario::getId))
+                    .toList();
+
+            List<Bloque> bloques = new ArrayList<>(cmhs.size());
+            List<HorarioDTO> horariosDto = new ArrayList<>(cmhs.size());
+            for (ComisionMateriaHorario cmh : cmhs) {
+                var h = cmh.getHorario();
+                bloques.add(new Bloque(cmh.getId(), h.getDia().getNombre(), h.getDia().getNumero(),
+                        h.getHoraInicio(), h.getHoraFin()));
+                horariosDto.add(new HorarioDTO(
+                        h.getDia().getNombre(),
+                        h.getHoraInicio().format(TIME_FMT),
+                        h.getHoraFin().format(TIME_FMT),
+                        cmh.getId()));
+            }
+
+            OpcionComision opcion = new OpcionComision(cm.getId(), materiaId, comisionId,
+                    cm.getComision().getSeccion(), carreraId, cm.getComision().getCarrera().getNombre(),
+                    periodoId, List.copyOf(bloques));
+            opciones.computeIfAbsent(materiaId, k -> new ArrayList<>()).add(opcion);
+            opcionPorId.put(cm.getId(), opcion);
+            for (Bloque b : bloques) {
+                opcionPorHorario.put(b.comisionMateriaHorarioId(), opcion);
+            }
+
+            ComisionInfoDTO info = new ComisionInfoDTO(
+                    comisionId,
+                    materiaId,
+                    opcion.seccion(),
+                    opcion.carreraNombre(),
+                    periodoId,
+                    List.copyOf(horariosDto));
+            infos.computeIfAbsent(materiaId, k -> new ArrayList<>()).add(info);
+            infoPorId.put(cm.getId(), info);
+            horarios.computeIfAbsent(new MateriaComisionPeriodo(materiaId, comisionId, periodoId),
+                    k -> new ArrayList<>()).addAll(horariosDto);
+
+            materiaIdsPorCarrera.computeIfAbsent(carreraId, k -> new HashSet<>()).add(materiaId);
+            materiaIdsPorCarreraPeriodo.computeIfAbsent(new CarreraPeriodo(carreraId, periodoId),
+                    k -> new HashSet<>()).add(materiaId);
+        }
+
+        this.opcionesPorMateria = copiarListas(opciones);
+        this.comisionesInfoPorMateria = copiarListas(infos);
+        this.horariosPorMateriaComisionPeriodo = copiarListas(horarios);
+        this.opcionPorComisionMateriaId = Map.copyOf(opcionPorId);
+        this.infoPorComisionMateriaId = Map.copyOf(infoPorId);
+        this.opcionPorHorarioId = Map.copyOf(opcionPorHorario);
+        this.indiceBloques = new IndiceBloques(opcionPorId.values().stream()
+                .sorted(Comparator.comparingInt(OpcionComision::comisionMateriaId))
+                .toList());
+        this.materiasPorCarrera = resolverMaterias(materiaIdsPorCarrera);
+        this.materiasPorCarreraPeriodo = resolverMaterias(materiaIdsPorCarreraPeriodo);
+    }
+
+    public Instant getCargadoEn() {
+        return cargadoEn;
+    }
+
+    public List<MateriaDTO> materias() {
+        return materias;
+    }
+
+    public Optional<MateriaDTO> materia(Integer materiaId) {
+        return Optional.ofNullable(materiaPorId.get(materiaId));
+    }
+
+    public List<MateriaDTO> materiasPorCarrera(Integer carreraId) {
+        return materiasPorCarrera.getOrDefault(carreraId, List.of());
+    }
+
+    public List<MateriaDTO> materiasPorCarreraYPeriodo(Integer carreraId, Integer periodoId) {
+        if (carreraId == null || periodoId == null) {
+            return List.of();
+        }
+        return materiasPorCarreraPeriodo.getOrDefault(new CarreraPeriodo(carreraId, periodoId), List.of());
+    }
+
+    public List<ComisionInfoDTO> comisionesInfo(Integer materiaId) {
+        return comisionesInfoPorMateria.getOrDefault(materiaId, List.of());
+    }
+
+    public List<HorarioDTO> horarios(Integer materiaId, Integer comisionId, Integer periodoId) {
+        if (materiaId == null || comisionId == null || periodoId == null) {
+            return List.of();
+        }
+        return horariosPorMateriaComisionPeriodo.getOrDefault(
+                new MateriaComisionPeriodo(materiaId, comisionId, periodoId), List.of());
+    }
+
+    /** Comisiones distintas de una materia para una carrera y periodo dados */
+    public List<ComisionDTO> comisiones(Integer materiaId, Integer carreraId, Integer periodoId) {
+        if (carreraId == null || periodoId == null) {
+            return List.of();
+        }
+        Map<Integer, ComisionDTO> distintas = new LinkedHashMap<>();
+        for (OpcionComision o : opciones(materiaId)) {
+            if (o.carreraId() == carreraId && o.periodoId() == periodoId) {
+                distintas.putIfAbsent(o.comisionId(), new ComisionDTO(o.comisionId(), o.seccion()));
+            }
+        }
+        return List.copyOf(distintas.values());
+    }
+
+    /** Todas las comisiones de una materia, de cualquier periodo */
+    public List<OpcionComision> opciones(Integer materiaId) {
+        return opcionesPorMateria.getOrDefault(materiaId, List.of());
+    }
+
+    /**
+     * Comisiones de una materia que se cursan en el periodo pedido.
+     * Las comisiones anuales se incluyen siempre, igual que en el frontend.
+     */
+    public List<OpcionComision> opciones(Integer materiaId, Integer periodoId) {
+        List<OpcionComision> todas = opciones(materiaId);
+        if (periodoId == null) {
+            return todas;
+        }
+        return todas.stream()
+                .filter(o -> o.periodoId() == periodoId || o.periodoId() == PERIODO_ANUAL)
+                .toList();
+    }
+
+    public Optional<OpcionComision> opcion(Integer comisionMateriaId) {
+        return Optional.ofNullable(opcionPorComisionMateriaId.get(comisionMateriaId));
+    }
+
+    /** La comisión a la que pertenece un {@code comision_materia_horario} */
+    public Optional<OpcionComision> opcionDeHorario(Integer comisionMateriaHorarioId) {
+        return Optional.ofNullable(opcionPorHorarioId.get(comisionMateriaHorarioId));
+    }
+
+    /**
+     * Matriz de choques entre todas las comisiones que se cursan en el periodo (incluidas las
+     * anuales). Se calcula una vez por periodo y se reutiliza hasta la próxima recarga.
+     */
+    public MatrizConflictos conflictos(int periodoId) {
+        return conflictosPorPeriodo.computeIfAbsent(periodoId, p -> MatrizConflictos.de(
+                opcionPorComisionMateriaId.values().stream()
+                        .filter(o -> o.periodoId() == p || o.periodoId() == PERIODO_ANUAL)
+                        .sorted(Comparator.comparingInt(OpcionComision::comisionMateriaId))
+                        .toList()));
+    }
+
+    /**
+     * Comisiones cuyos horarios caen todos dentro de las franjas libres, opcionalmente filtradas por
+     * carrera y periodo (con periodo se incluyen las anuales).
+     */
+    public List<OpcionComision> opcionesDentroDe(List<IndiceBloques.Franja> franjas, Integer carreraId,
+                                                 Integer periodoId) {
+        return indiceBloques.dentroDe(franjas).stream()
+                .filter(o -> carreraId == null || o.carreraId() == carreraId)
+                .filter(o -> periodoId == null || o.periodoId() == periodoId || o.periodoId() == PERIODO_ANUAL)
+                .toList();
+    }
+
+    /** La misma comisión en el formato de {@link #comisionesInfo(Integer)} */
+    public ComisionInfoDTO comisionInfo(int comisionMateriaId) {
+        return infoPorComisionMateriaId.get(comisionMateriaId);
+    }
+
+    public List<CarreraDTO> carreras() {
+        return carreras;
+    }
+
+    public List<PeriodoDTO> periodos() {
+        return periodos;
+    }
+
+    private static <K, V> Map<K, List<V>> copiarListas(Map<K, List<V>> origen) {
+        Map<K, List<V>> copia = new HashMap<>();
+        origen.forEach((k, v) -> copia.put(k, List.copyOf(v)));
+        return Map.copyOf(copia);
+    }
+
+    private <K> Map<K, List<MateriaDTO>> resolverMaterias(Map<K, ? extends Collection<Integer>> idsPorClave) {
+        Map<K, List<MateriaDTO>> resultado = new HashMap<>();
+        idsPorClave.forEach((k, ids) -> resultado.put(k, ids.stream()
+                .sorted()
+                .map(materiaPorId::get)
+                .filter(Objects::nonNull)
+                .toList()));
+        return Map.copyOf(resultado);
+    }
+}
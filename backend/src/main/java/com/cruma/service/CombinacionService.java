@@ -0,0 +1,445 @@
+package com.cruma.service;
+
+import com.cruma.combinaciones.BusquedaParalela;
+import com.cruma.combinaciones.Candidato;
+import com.cruma.combinaciones.ContadorCombinaciones;
+import com.cruma.combinaciones.ControlBusqueda;
+import com.cruma.combinaciones.GeneradorCombinaciones;
+import com.cruma.combinaciones.MatrizConflictos;
+import com.cruma.combinaciones.OcupacionSemanal;
+import com.cruma.combinaciones.OptimizadorCombinaciones;
+import com.cruma.combinaciones.OptimizadorCombinaciones.Criterios;
+import com.cruma.combinaciones.OptimizadorCombinaciones.Solucion;
+import com.cruma.combinaciones.OptimizadorCombinaciones.Turno;
+import com.cruma.dto.CombinacionDTO;
+import com.cruma.dto.CombinacionPuntuadaDTO;
+import com.cruma.dto.CombinacionesDTO;
+import com.cruma.dto.ComisionInfoDTO;
+import com.cruma.dto.ConteoCombinacionesDTO;
+import com.cruma.dto.CriteriosCombinacionDTO;
+import com.cruma.dto.HorarioDTO;
+import com.cruma.dto.MejoresCombinacionesDTO;
+import com.cruma.exception.ComisionMateriaHorarioNotFoundException;
+import com.cruma.service.CatalogoSnapshot.Bloque;
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+import com.cruma.util.DiaSemanaHelper;
+import com.cruma.util.HoraHelper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Arma en el servidor las combinaciones de comisiones sin superposición horaria
+ * para un conjunto de materias y un periodo, a partir del catálogo en memoria.
+ */
+@Service
+public class CombinacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CombinacionService.class);
+
+    /** En streaming se envían sueltas las primeras combinaciones; después se agrupan antes de hacer flush */
+    private static final int FLUSH_INMEDIATO = 16;
+    private static final int FLUSH_CADA = 64;
+
+    private final CatalogoService catalogo;
+    private final ObjectMapper objectMapper;
+    private final BusquedaParalela busquedaParalela;
+    private final int limiteDefecto;
+    private final int limiteMaximo;
+    private final long maxNodos;
+    private final long timeoutMs;
+    private final int paraleloDesdeMaterias;
+    private final int mejoresDefecto;
+    private final double pesoDiasDefecto;
+    private final double pesoHuecosDefecto;
+    private final double pesoFueraDeTurnoDefecto;
+    private final int streamLimiteMaximo;
+    private final int conteoMaxMemo;
+
+    public CombinacionService(CatalogoService catalogo,
+                              ObjectMapper objectMapper,
+                              ForkJoinPool combinacionesPool,
+                              @Value("${cruma.combinaciones.limite-defecto:200}") int limiteDefecto,
+                              @Value("${cruma.combinaciones.limite-maximo:2000}") int limiteMaximo,
+                              @Value("${cruma.combinaciones.max-nodos:5000000}") long maxNodos,
+                              @Value("${cruma.combinaciones.timeout-ms:2000}") long timeoutMs,
+                              @Value("${cruma.combinaciones.paralelo-desde-materias:10}") int paraleloDesdeMaterias,
+                              @Value("${cruma.combinaciones.mejores-defecto:10}") int mejoresDefecto,
+                              @Value("${cruma.combinaciones.peso-dias:10}") double pesoDiasDefecto,
+                              @Value("${cruma.combinaciones.peso-huecos:2}") double pesoHuecosDefecto,
+                              @Value("${cruma.combinaciones.peso-fuera-de-turno:3}") double pesoFueraDeTurnoDefecto,
+                              @Value("${cruma.combinaciones.stream-limite-maximo:100000}") int streamLimiteMaximo,
+                              @Value("${cruma.combinaciones.conteo-max-memo:200000}") int conteoMaxMemo) {
+        this.catalogo = catalogo;
+        this.objectMapper = objectMapper;
+        this.busquedaParalela = new BusquedaParalela(combinacionesPool);
+        this.limiteDefecto = limiteDefecto;
+        this.limiteMaximo = limiteMaximo;
+        this.maxNodos = maxNodos;
+        this.timeoutMs = timeoutMs;
+        this.paraleloDesdeMaterias = paraleloDesdeMaterias;
+        this.mejoresDefecto = mejoresDefecto;
+        this.pesoDiasDefecto = pesoDiasDefecto;
+        this.pesoHuecosDefecto = pesoHuecosDefecto;
+        this.pesoFueraDeTurnoDefecto = pesoFueraDeTurnoDefecto;
+        this.streamLimiteMaximo = streamLimiteMaximo;
+        this.conteoMaxMemo = conteoMaxMemo;
+    }
+
+    /** Materias (ordenadas por id) con sus comisiones candidatas en el periodo pedido */
+    public record Problema(CatalogoSnapshot snapshot, Integer periodoId, List<Integer> materiaIds,
+                           List<List<Candidato>> candidatos, List<Integer> materiasSinComisiones) {
+
+        public boolean esFactible() {
+            return materiasSinComisiones.isEmpty();
+        }
+
+        public GeneradorCombinaciones generador() {
+            return new GeneradorCombinaciones(candidatos);
+        }
+
+        /** Convierte una elección (índice de comisión por materia) al formato de la API */
+        public CombinacionDTO aDTO(int[] eleccion) {
+            List<ComisionInfoDTO> comisiones = new ArrayList<>(eleccion.length);
+            for (int i = 0; i < eleccion.length; i++) {
+                Candidato c = candidatos.get(i).get(eleccion[i]);
+                comisiones.add(snapshot.comisionInfo(c.opcion().comisionMateriaId()));
+            }
+            return new CombinacionDTO(comisiones);
+        }
+    }
+
+    public Problema preparar(List<Integer> materiaIds, Integer periodoId) {
+        if (materiaIds == null || materiaIds.stream().noneMatch(Objects::nonNull)) {
+            throw new IllegalArgumentException("Debe indicar al menos una materia");
+        }
+        if (periodoId == null) {
+            throw new IllegalArgumentException("Debe indicar el periodo");
+        }
+        CatalogoSnapshot snapshot = catalogo.snapshot();
+        List<Integer> ids = materiaIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<List<Candidato>> candidatos = new ArrayList<>(ids.size());
+        List<Integer> sinComisiones = new ArrayList<>();
+        for (Integer materiaId : ids) {
+            List<Candidato> deMateria = snapshot.opciones(materiaId, periodoId).stream()
+                    .map(Candidato::de)
+                    .toList();
+            if (deMateria.isEmpty()) {
+                sinComisiones.add(materiaId);
+            }
+            candidatos.add(deMateria);
+        }
+        return new Problema(snapshot, periodoId, ids, candidatos, List.copyOf(sinComisiones));
+    }
+
+    /** Normaliza el límite pedido por el cliente a [1, limiteMaximo] */
+    public int limiteEfectivo(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return Math.min(limiteDefecto, limiteMaximo);
+        }
+        return Math.min(limite, limiteMaximo);
+    }
+
+    /**
+     * Genera las combinaciones. Con muchas materias (o si se pide explícitamente) la búsqueda
+     * se reparte en el pool de combinaciones; el resultado es el mismo en ambos modos.
+     *
+     * @param paralelo null para decidir según la cantidad de materias
+     */
+    public CombinacionesDTO generar(List<Integer> materiaIds, Integer periodoId, Integer limite, Boolean paralelo) {
+        Problema problema = preparar(materiaIds, periodoId);
+        if (!problema.esFactible()) {
+            return respuesta(problema, List.of(), false, false);
+        }
+
+        int maximo = limiteEfectivo(limite);
+        ControlBusqueda control = ControlBusqueda.conPresupuesto(maxNodos);
+        boolean usarParalelo = paralelo != null ? paralelo : problema.materiaIds().size() >= paraleloDesdeMaterias;
+        if (usarParalelo) {
+            BusquedaParalela.Resultado r = busquedaParalela.buscar(problema.generador(), maximo, control, timeoutMs);
+            return respuesta(problema, r.elecciones(), r.truncado(), r.incompleto());
+        }
+
+        List<int[]> encontradas = new ArrayList<>();
+        // Se busca una más que el límite para saber si la lista quedó truncada
+        problema.generador().recorrer(eleccion -> {
+            encontradas.add(eleccion.clone());
+            return encontradas.size() <= maximo;
+        }, control);
+        boolean truncado = encontradas.size() > maximo;
+        List<int[]> devueltas = truncado ? encontradas.subList(0, maximo) : encontradas;
+        return respuesta(problema, devueltas, truncado, !truncado && control.isAgotada());
+    }
+
+    /**
+     * Para cada materia, las comisiones del periodo que no chocan con los horarios fijados.
+     * Los horarios fijados de la misma materia no cuentan para esa materia, porque elegir otra
+     * comisión reemplaza a la fijada.
+     *
+     * @param horarioIds ids de {@code comision_materia_horario} fijados por el usuario
+     */
+    public Map<Integer, List<ComisionInfoDTO>> compatibles(Integer periodoId, List<Integer> horarioIds,
+                                                           List<Integer> materiaIds) {
+        if (materiaIds == null || materiaIds.stream().noneMatch(Objects::nonNull)) {
+            throw new IllegalArgumentException("Debe indicar al menos una materia");
+        }
+        if (periodoId == null) {
+            throw new IllegalArgumentException("Debe indicar el periodo");
+        }
+        CatalogoSnapshot snapshot = catalogo.snapshot();
+        MatrizConflictos matriz = snapshot.conflictos(periodoId);
+
+        // Horarios fijados agrupados por comisión
+        Map<Integer, List<Bloque>> fijadosPorComision = new LinkedHashMap<>();
+        Map<Integer, OpcionComision> opcionesFijadas = new LinkedHashMap<>();
+        for (Integer horarioId : horarioIds == null ? List.<Integer>of() : horarioIds) {
+            if (horarioId == null) {
+                continue;
+            }
+            OpcionComision opcion = snapshot.opcionDeHorario(horarioId)
+                    .orElseThrow(() -> new ComisionMateriaHorarioNotFoundException(
+                            "No se encontró el horario de comisión con id " + horarioId));
+            opcionesFijadas.put(opcion.comisionMateriaId(), opcion);
+            opcion.bloques().stream()
+                    .filter(b -> b.comisionMateriaHorarioId() == horarioId)
+                    .forEach(b -> fijadosPorComision.computeIfAbsent(opcion.comisionMateriaId(),
+                            k -> new ArrayList<>()).add(b));
+        }
+
+        // Si la comisión está fijada entera y es del periodo se usa su fila de la matriz;
+        // si solo hay algunos de sus horarios se compara contra la ocupación de esos horarios
+        List<OpcionComision> completas = new ArrayList<>();
+        List<OpcionComision> parciales = new ArrayList<>();
+        List<OcupacionSemanal> ocupacionesParciales = new ArrayList<>();
+        for (OpcionComision opcion : opcionesFijadas.values()) {
+            List<Bloque> fijados = fijadosPorComision.get(opcion.comisionMateriaId());
+            if (matriz.fila(opcion.comisionMateriaId()) >= 0 && fijados.size() == opcion.bloques().size()) {
+                completas.add(opcion);
+            } else {
+                parciales.add(opcion);
+                ocupacionesParciales.add(OcupacionSemanal.de(fijados));
+            }
+        }
+
+        Map<Integer, List<ComisionInfoDTO>> resultado = new LinkedHashMap<>();
+        for (Integer materiaId : materiaIds.stream().filter(Objects::nonNull).distinct().toList()) {
+            long[] choques = matriz.nuevaFila();
+            for (OpcionComision fijada : completas) {
+                if (fijada.materiaId() != materiaId) {
+                    matriz.acumular(matriz.fila(fijada.comisionMateriaId()), choques);
+                }
+            }
+            List<ComisionInfoDTO> libres = new ArrayList<>();
+            for (OpcionComision opcion : snapshot.opciones(materiaId, periodoId)) {
+                int fila = matriz.fila(opcion.comisionMateriaId());
+                if (MatrizConflictos.tieneBit(choques, fila)) {
+                    continue;
+                }
+                boolean chocaConParcial = false;
+                for (int p = 0; p < parciales.size() && !chocaConParcial; p++) {
+                    chocaConParcial = parciales.get(p).materiaId() != materiaId
+                            && matriz.candidato(fila).ocupacion().chocaCon(ocupacionesParciales.get(p));
+                }
+                if (!chocaConParcial) {
+                    libres.add(snapshot.comisionInfo(opcion.comisionMateriaId()));
+                }
+            }
+            resultado.put(materiaId, libres);
+        }
+        return resultado;
+    }
+
+    /** Cantidad de combinaciones posibles, sin generarlas */
+    public ConteoCombinacionesDTO contar(List<Integer> materiaIds, Integer periodoId) {
+        Problema problema = preparar(materiaIds, periodoId);
+        ContadorCombinaciones.Conteo conteo = new ContadorCombinaciones(problema.candidatos(), conteoMaxMemo)
+                .contar(ControlBusqueda.conPresupuesto(maxNodos));
+        Long cantidad = conteo.incompleto() ? null : conteo.cantidad();
+        return new ConteoCombinacionesDTO(problema.materiaIds(), problema.periodoId(), cantidad,
+                conteo.componentes(), conteo.incompleto(), conteo.desborde(), problema.materiasSinComisiones());
+    }
+
+    /**
+     * Escribe las combinaciones como NDJSON a medida que se encuentran: una línea
+     * {@code {"comisiones":[...]}} por combinación y al final una línea de resumen
+     * {@code {"fin":true,"cantidad":N,"truncado":..,"incompleto":..,"materiasSinComisiones":[..]}}.
+     * La escritura es bloqueante, así que si el cliente lee lento la búsqueda espera; si el cliente
+     * se desconecta la escritura falla y la búsqueda se corta.
+     */
+    public void transmitir(Problema problema, Integer limite, OutputStream salida) throws IOException {
+        transmitir(problema, limite, salida, ControlBusqueda.conPresupuesto(maxNodos));
+    }
+
+    /** Igual que {@link #transmitir(Problema, Integer, OutputStream)} con el control de la búsqueda a la vista */
+    void transmitir(Problema problema, Integer limite, OutputStream salida, ControlBusqueda control) throws IOException {
+        int maximo = limite == null || limite <= 0 ? streamLimiteMaximo : Math.min(limite, streamLimiteMaximo);
+        ObjectWriter escritor = objectMapper.writerFor(CombinacionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(salida)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+
+            int[] enviadas = {0};
+            boolean truncado = false;
+            if (problema.esFactible()) {
+                try {
+                    boolean completa = problema.generador().recorrer(eleccion -> {
+                        if (enviadas[0] == maximo) {
+                            return false;
+                        }
+                        escribirLinea(gen, escritor, problema.aDTO(eleccion));
+                        enviadas[0]++;
+                        if (enviadas[0] <= FLUSH_INMEDIATO || enviadas[0] % FLUSH_CADA == 0) {
+                            flush(gen);
+                        }
+                        return true;
+                    }, control);
+                    // El visitante solo corta la búsqueda cuando ya llegó al límite y aparece una más
+                    truncado = !completa && !control.isAgotada();
+                } catch (UncheckedIOException e) {
+                    control.cancelar();
+                    log.debug("Cliente desconectado durante el streaming de combinaciones tras {} resultados",
+                            enviadas[0]);
+                    throw e.getCause();
+                }
+            }
+
+            gen.writeStartObject();
+            gen.writeBooleanField("fin", true);
+            gen.writeNumberField("cantidad", enviadas[0]);
+            gen.writeBooleanField("truncado", truncado);
+            gen.writeBooleanField("incompleto", control.isAgotada());
+            gen.writeArrayFieldStart("materiasSinComisiones");
+            for (Integer id : problema.materiasSinComisiones()) {
+                gen.writeNumber(id);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+    }
+
+    private static void escribirLinea(JsonGenerator gen, ObjectWriter escritor, CombinacionDTO dto) {
+        try {
+            escritor.writeValue(gen, dto);
+            gen.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(JsonGenerator gen) {
+        try {
+            gen.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Devuelve las mejores combinaciones según los criterios del usuario (menos días, menos huecos,
+     * turno preferido) respetando las franjas bloqueadas, sin enumerar todas las combinaciones.
+     */
+    public MejoresCombinacionesDTO mejores(CriteriosCombinacionDTO pedido) {
+        if (pedido == null) {
+            throw new IllegalArgumentException("Debe indicar los criterios de búsqueda");
+        }
+        Problema problema = preparar(pedido.getMateriaIds(), pedido.getPeriodoId());
+        Criterios criterios = criterios(pedido);
+        int cantidad = pedido.getCantidad() != null && pedido.getCantidad() > 0
+                ? Math.min(pedido.getCantidad(), limiteMaximo)
+                : Math.min(mejoresDefecto, limiteMaximo);
+
+        if (!problema.esFactible()) {
+            return new MejoresCombinacionesDTO(problema.materiaIds(), problema.periodoId(), false,
+                    problema.materiasSinComisiones(), List.of());
+        }
+
+        ControlBusqueda control = ControlBusqueda.conPresupuesto(maxNodos);
+        List<Solucion> soluciones = new OptimizadorCombinaciones(problema.candidatos(), criterios)
+                .mejores(cantidad, control);
+        List<CombinacionPuntuadaDTO> combinaciones = soluciones.stream()
+                .map(s -> new CombinacionPuntuadaDTO(s.costo(), s.dias(), s.minutosHueco(), s.minutosFueraTurno(),
+                        problema.aDTO(s.eleccion()).getComisiones()))
+                .toList();
+        return new MejoresCombinacionesDTO(problema.materiaIds(), problema.periodoId(), control.isAgotada(),
+                problema.materiasSinComisiones(), combinaciones);
+    }
+
+    private Criterios criterios(CriteriosCombinacionDTO pedido) {
+        Turno turno = null;
+        if (pedido.getTurno() != null && !pedido.getTurno().isBlank()) {
+            try {
+                turno = Turno.valueOf(pedido.getTurno().trim().toUpperCase(Locale.ROOT).replace('Ñ', 'N'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Turno inválido: " + pedido.getTurno());
+            }
+        }
+
+        // Las franjas bloqueadas y los límites de horario son restricciones duras
+        List<Bloque> bloqueos = new ArrayList<>();
+        LocalTime noAntesDe = HoraHelper.parsear(pedido.getNoAntesDe());
+        LocalTime noDespuesDe = HoraHelper.parsear(pedido.getNoDespuesDe());
+        for (int dia = 1; dia <= OcupacionSemanal.DIAS; dia++) {
+            if (noAntesDe != null) {
+                bloqueos.add(new Bloque(0, String.valueOf(dia), dia, LocalTime.MIDNIGHT, noAntesDe));
+            }
+            if (noDespuesDe != null) {
+                bloqueos.add(new Bloque(0, String.valueOf(dia), dia, noDespuesDe, LocalTime.MAX));
+            }
+        }
+        if (pedido.getBloqueos() != null) {
+            for (HorarioDTO h : pedido.getBloqueos()) {
+                int dia = DiaSemanaHelper.aNumero(h.getDia());
+                if (dia == DiaSemanaHelper.DESCONOCIDO) {
+                    throw new IllegalArgumentException("Día inválido en bloqueo: " + h.getDia());
+                }
+                LocalTime desde = HoraHelper.parsear(h.getHoraEntrada());
+                LocalTime hasta = HoraHelper.parsear(h.getHoraSalida());
+                if (desde == null || hasta == null) {
+                    throw new IllegalArgumentException("Cada bloqueo debe indicar hora de entrada y salida");
+                }
+                bloqueos.add(new Bloque(0, h.getDia(), dia, desde, hasta));
+            }
+        }
+
+        return new Criterios(
+                pedido.getPesoDias() != null ? pedido.getPesoDias() : pesoDiasDefecto,
+                pedido.getPesoHuecos() != null ? pedido.getPesoHuecos() : pesoHuecosDefecto,
+                pedido.getPesoFueraDeTurno() != null ? pedido.getPesoFueraDeTurno() : pesoFueraDeTurnoDefecto,
+                turno,
+                OcupacionSemanal.de(bloqueos));
+    }
+
+    private CombinacionesDTO respuesta(Problema problema, List<int[]> elecciones, boolean truncado,
+                                       boolean incompleto) {
+        List<CombinacionDTO> combinaciones = elecciones.stream()
+                .map(problema::aDTO)
+                .toList();
+        return new CombinacionesDTO(problema.materiaIds(), problema.periodoId(), combinaciones.size(),
+                truncado, incompleto, problema.materiasSinComisiones(), combinaciones);
+    }
+}
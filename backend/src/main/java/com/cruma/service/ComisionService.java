@@ -1,77 +1,69 @@
 package com.cruma.service;
 
+import com.cruma.dto.BusquedaFranjasDTO;
 import com.cruma.dto.ComisionDTO;
 import com.cruma.dto.ComisionInfoDTO;
 import com.cruma.dto.HorarioDTO;
-import com.cruma.model.Comision;
-import com.cruma.model.ComisionMateria;
-import com.cruma.repository.ComisionMateriaHorarioRepository;
-import com.cruma.repository.ComisionMateriaRepository;
+import com.cruma.util.DiaSemanaHelper;
+import com.cruma.util.HoraHelper;
 import org.springframework.stereotype.Service;
 
-import java.time.format.DateTimeFormatter;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ComisionService {
 
-    private final ComisionMateriaRepository cmRepo;
-    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("H:mm");
-    private final ComisionMateriaHorarioRepository cmhRepo;
+    private final CatalogoService catalogo;
 
-    public ComisionService(ComisionMateriaRepository cmRepo, ComisionMateriaHorarioRepository cmhRepo) {
-        this.cmRepo = cmRepo;
-        this.cmhRepo = cmhRepo;
+    public ComisionService(CatalogoService catalogo) {
+        this.catalogo = catalogo;
     }
 
     public List<ComisionDTO> listarPorMateriaCarreraPeriodo(
             Integer materiaId, Integer carreraId, Integer periodoId) {
-
-        return cmRepo
-                .findDistinctComisionByMateriaAndCarreraAndPeriodo(materiaId, carreraId, periodoId)
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-    }
-
-    private ComisionDTO toDto(Comision comision) {
-        return new ComisionDTO(comision.getId(), comision.getSeccion());
+        return catalogo.snapshot().comisiones(materiaId, carreraId, periodoId);
     }
 
     public List<ComisionInfoDTO> listarInfoPorMateria(Integer materiaId) {
-        List<ComisionMateria> cms = cmRepo.findByMateriaIdWithAll(materiaId);
+        return catalogo.snapshot().comisionesInfo(materiaId);
+    }
 
-        return cms.stream()
-                .map(cm -> {
-                    Comision c = cm.getComision();
-                    // iteramos sobre COMISION_MATERIA_HORARIO, no sobre un campo directo de horarios
-                    List<HorarioDTO> hs = Optional.ofNullable(cm.getComisionMateriaHorarios())
-                            .orElse(List.of())
-                            .stream()
-                            .map(cmh -> {
-                                var h = cmh.getHorario();
-                                return new HorarioDTO(
-                                        h.getDiaSemana(),
-                                        h.getHoraInicio().format(TIME_FMT),
-                                        h.getHoraFin().format(TIME_FMT)
-                                );
-                            })
-                            .collect(Collectors.toList());
+    /** Comisiones de varias materias en una sola llamada, agrupadas por materia y en el orden pedido */
+    public Map<Integer, List<ComisionInfoDTO>> listarInfoPorMaterias(List<Integer> materiaIds) {
+        CatalogoSnapshot snapshot = catalogo.snapshot();
+        Map<Integer, List<ComisionInfoDTO>> resultado = new LinkedHashMap<>();
+        for (Integer materiaId : materiaIds) {
+            if (materiaId != null) {
+                resultado.putIfAbsent(materiaId, snapshot.comisionesInfo(materiaId));
+            }
+        }
+        return resultado;
+    }
 
-                    Integer periodo = cm.getPeriodo().getId();
+    /** Comisiones que se pueden cursar enteras dentro de las franjas libres indicadas */
+    public List<ComisionInfoDTO> buscarPorFranjas(BusquedaFranjasDTO busqueda) {
+        if (busqueda == null || busqueda.getFranjas() == null || busqueda.getFranjas().isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una franja horaria");
+        }
+        List<IndiceBloques.Franja> franjas = new ArrayList<>(busqueda.getFranjas().size());
+        for (HorarioDTO f : busqueda.getFranjas()) {
+            int dia = DiaSemanaHelper.aNumero(f.getDia());
+            LocalTime desde = HoraHelper.parsear(f.getHoraEntrada());
+            LocalTime hasta = HoraHelper.parsear(f.getHoraSalida());
+            if (dia == DiaSemanaHelper.DESCONOCIDO || desde == null || hasta == null) {
+                throw new IllegalArgumentException("Cada franja debe indicar día, hora de entrada y hora de salida");
+            }
+            franjas.add(new IndiceBloques.Franja(dia, desde.toSecondOfDay() / 60, hasta.toSecondOfDay() / 60));
+        }
 
-                    return new ComisionInfoDTO(
-                            c.getId(),
-                            cm.getMateria().getId(),
-                            c.getSeccion(),
-                            c.getCarrera().getNombre(),
-                            periodo,
-                            hs
-                    );
-                })
-                .collect(Collectors.toList());
+        CatalogoSnapshot snapshot = catalogo.snapshot();
+        return snapshot.opcionesDentroDe(franjas, busqueda.getCarreraId(), busqueda.getPeriodoId()).stream()
+                .map(o -> snapshot.comisionInfo(o.comisionMateriaId()))
+                .toList();
     }
 
     public List<HorarioDTO> listarHorariosPorMateriaComisionPeriodo(
@@ -79,18 +71,7 @@ public class ComisionService {
             Integer comisionId,
             Integer periodoId
     ) {
-        return cmhRepo
-                .findByMateriaComisionPeriodo(materiaId, comisionId, periodoId)
-                .stream()
-                .map(cmh -> {
-                    var h = cmh.getHorario();
-                    return new HorarioDTO(
-                            h.getDiaSemana(),
-                            h.getHoraInicio().format(TIME_FMT),
-                            h.getHoraFin().format(TIME_FMT)
-                    );
-                })
-                .collect(Collectors.toList());
+        return catalogo.snapshot().horarios(materiaId, comisionId, periodoId);
     }
 
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.cruma.service;
 
 import com.cruma.dto.BloqueCronogramaDTO;
 import com.cruma.dto.CrearCronogramaDTO;
+import com.cruma.dto.CrearCronogramaV2DTO;
 import com.cruma.exception.AccessDeniedException;
 import com.cruma.exception.ComisionMateriaHorarioNotFoundException;
 import com.cruma.exception.CronogramaNotFoundException;
@@ -13,57 +14,50 @@ import com.cruma.model.DetalleEstadoEnum;
 import com.cruma.model.Usuario;
 import com.cruma.repository.ComisionMateriaHorarioRepository;
 import com.cruma.repository.CronogramaRepository;
-import com.cruma.repository.UsuarioRepository;
-import com.cruma.util.OAuth2UserHelper;
+import com.cruma.util.DiaSemanaHelper;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CronogramaService {
 
     private final CronogramaRepository repo;
-    private final UsuarioRepository usuarioRepository;
     private final ComisionMateriaHorarioRepository cmhRepository;
-    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final UsuarioAutenticadoService usuarioAutenticado;
 
     // Mapeo de día numérico a nombre de día en español (mayúsculas)
     private static final String[] DIAS_SEMANA = {"", "LUNES", "MARTES", "MIÉRCOLES", "JUEVES", "VIERNES", "SÁBADO"};
 
-    public CronogramaService(CronogramaRepository repo, UsuarioRepository usuarioRepository, 
+    public CronogramaService(CronogramaRepository repo,
                              ComisionMateriaHorarioRepository cmhRepository,
-                             OAuth2AuthorizedClientService authorizedClientService) {
+                             UsuarioAutenticadoService usuarioAutenticado) {
         this.repo = repo;
-        this.usuarioRepository = usuarioRepository;
         this.cmhRepository = cmhRepository;
-        this.authorizedClientService = authorizedClientService;
+        this.usuarioAutenticado = usuarioAutenticado;
     }
 
-    /** Obtiene el usuario autenticado desde la sesión */
+    /** Obtiene el usuario autenticado desde la sesión (una referencia, sin consultar la BD) */
     private Usuario obtenerUsuarioAutenticado(Authentication authentication) {
-        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User oAuth2User)) {
-            throw new org.springframework.security.authentication.BadCredentialsException("No autenticado");
-        }
-        String email = OAuth2UserHelper.extractEmail(oAuth2User, authentication, authorizedClientService);
-        if (email == null || email.isBlank()) {
-            throw new org.springframework.security.authentication.BadCredentialsException("No se pudo obtener el email del usuario");
-        }
-        return usuarioRepository.findByMail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        return usuarioAutenticado.obtenerReferencia(authentication);
     }
 
     /** Lista todos los cronogramas del usuario autenticado */
     @Transactional(readOnly = true)
     public List<Cronograma> listByUsuarioAutenticado(Authentication authentication) {
         Usuario usuario = obtenerUsuarioAutenticado(authentication);
-        return repo.findByUsuarioId(usuario.getId());
+        return repo.findByUsuarioIdConDetalles(usuario.getId());
     }
 
     /** Crea o actualiza un cronograma asociado al usuario autenticado */
@@ -74,172 +68,188 @@ public class CronogramaService {
         return repo.save(c);
     }
 
-    /** Crea un cronograma desde un DTO con bloques */
+    /**
+     * Crea un cronograma desde un DTO con bloques (día y horas como texto).
+     * Se mantiene por compatibilidad: cada bloque se resuelve a su ComisionMateriaHorario y se
+     * sigue el mismo camino que {@link #crearDesdeHorarios}.
+     */
     @Transactional
     public Cronograma crearDesdeDTO(CrearCronogramaDTO dto, Authentication authentication) {
         Usuario usuario = obtenerUsuarioAutenticado(authentication);
-        
-        // Validar límite de cronogramas por usuario (máximo 3)
-        List<Cronograma> cronogramasExistentes = repo.findByUsuarioId(usuario.getId());
-        final int LIMITE_CRONOGRAMAS = 3;
-        if (cronogramasExistentes.size() >= LIMITE_CRONOGRAMAS) {
-            throw new LimiteCronogramasExcedidoException(LIMITE_CRONOGRAMAS, cronogramasExistentes.size());
+        validarLimite(usuario);
+        return crear(usuario, dto.getNombre(), resolverBloques(dto));
+    }
+
+    /**
+     * Actualiza en el lugar un cronograma desde un DTO con bloques: el id no cambia y solo se
+     * insertan o borran los detalles que difieren de los guardados.
+     */
+    @Transactional
+    public Cronograma actualizarDesdeDTO(Long id, CrearCronogramaDTO dto, Authentication authentication) {
+        Cronograma cronograma = buscarPropio(id, obtenerUsuarioAutenticado(authentication));
+        return actualizar(cronograma, dto.getNombre(), resolverBloques(dto));
+    }
+
+    /** Igual que {@link #actualizarDesdeDTO} pero a partir de ids de {@code comision_materia_horario} */
+    @Transactional
+    public Cronograma actualizarDesdeHorarios(Long id, CrearCronogramaV2DTO dto, Authentication authentication) {
+        Cronograma cronograma = buscarPropio(id, obtenerUsuarioAutenticado(authentication));
+        return actualizar(cronograma, dto.getNombre(), buscarHorarios(dto.getComisionMateriaHorarioIds()));
+    }
+
+    /** Resuelve cada bloque del DTO a su ComisionMateriaHorario */
+    private List<ComisionMateriaHorario> resolverBloques(CrearCronogramaDTO dto) {
+        List<ComisionMateriaHorario> horarios = new ArrayList<>();
+        List<BloqueCronogramaDTO> bloques = dto.getBloques() != null ? dto.getBloques() : List.of();
+
+        // Una sola consulta con todos los horarios candidatos de los pares (materia, comisión) del DTO
+        Set<Integer> materiaIds = new HashSet<>();
+        Set<Integer> comisionIds = new HashSet<>();
+        for (BloqueCronogramaDTO bloque : bloques) {
+            materiaIds.add(bloque.getMateriaId());
+            comisionIds.add(bloque.getComisionId());
         }
-        
-        Cronograma cronograma = new Cronograma();
-        cronograma.setNombre(dto.getNombre());
-        cronograma.setUsuario(usuario);
-        
-        List<DetalleCronograma> detalles = new ArrayList<>();
-        
-        for (BloqueCronogramaDTO bloque : dto.getBloques()) {
+        IndiceHorariosCronograma indice = new IndiceHorariosCronograma(bloques.isEmpty()
+                ? List.of()
+                : cmhRepository.findCandidatosPorMateriasYComisiones(materiaIds, comisionIds));
+
+        for (BloqueCronogramaDTO bloque : bloques) {
             // Convertir día numérico a nombre de día
             String diaSemana = convertirDiaANombre(bloque.getDia());
             if (diaSemana == null) {
                 throw new RuntimeException("Día inválido: " + bloque.getDia());
             }
-            
+            int dia = DiaSemanaHelper.aNumero(diaSemana);
+
             // Convertir horas String a LocalTime
             // Normalizar formato: asegurar que tenga formato HH:mm (dos dígitos)
             String horaEntradaNormalizada = normalizarHora(bloque.getHoraEntrada());
             String horaSalidaNormalizada = normalizarHora(bloque.getHoraSalida());
             LocalTime horaInicio = LocalTime.parse(horaEntradaNormalizada);
             LocalTime horaFin = LocalTime.parse(horaSalidaNormalizada);
-            
-            // Primero intentar búsqueda exacta
-            var cmhOpt = cmhRepository.findByMateriaComisionPeriodoHorario(
-                    bloque.getMateriaId(),
-                    bloque.getComisionId(),
-                    dto.getPeriodoId(),
-                    diaSemana,
-                    horaInicio,
-                    horaFin
-            );
-            
-            // Si no se encuentra exacto, buscar todos los horarios y filtrar por solapamiento
-            if (cmhOpt.isEmpty()) {
-                List<ComisionMateriaHorario> todosLosHorarios = cmhRepository.findByMateriaComisionPeriodo(
-                        bloque.getMateriaId(),
-                        bloque.getComisionId(),
-                        dto.getPeriodoId()
-                );
-                
-                // Filtrar por día y solapamiento de horarios
-                cmhOpt = todosLosHorarios.stream()
-                        .filter(cmh -> {
-                            var horario = cmh.getHorario();
-                            String diaBD = horario.getDiaSemana();
-                            // Comparar día: puede ser número o nombre
-                            boolean diaCoincide = diaBD.equalsIgnoreCase(diaSemana) 
-                                    || diaBD.equals(bloque.getDia()); // También comparar con el número original
-                            if (!diaCoincide) {
-                                return false;
-                            }
-                            // Verificar solapamiento de horarios
-                            // Dos intervalos se solapan si: inicio1 < fin2 && inicio2 < fin1
-                            LocalTime hInicio = horario.getHoraInicio();
-                            LocalTime hFin = horario.getHoraFin();
-                            return horaInicio.isBefore(hFin) && hInicio.isBefore(horaFin);
-                        })
-                        .findFirst();
-            }
-            
-            if (cmhOpt.isEmpty()) {
-                // Intentar buscar sin restricción de horario exacto, solo por día
-                List<ComisionMateriaHorario> todosLosHorarios = cmhRepository.findByMateriaComisionPeriodo(
-                        bloque.getMateriaId(),
-                        bloque.getComisionId(),
-                        dto.getPeriodoId()
-                );
-                
-                cmhOpt = todosLosHorarios.stream()
-                        .filter(cmh -> {
-                            String diaBD = cmh.getHorario().getDiaSemana();
-                            // Comparar día: puede ser número o nombre
-                            return diaBD.equalsIgnoreCase(diaSemana) 
-                                    || diaBD.equals(bloque.getDia()); // También comparar con el número original
-                        })
-                        .findFirst();
-            }
-            
-            if (cmhOpt.isEmpty()) {
-                // Último intento: buscar sin restricción de periodo
-                // Esto puede ser necesario si el periodoId del frontend (0 o 1) no coincide con los IDs reales
-                List<ComisionMateriaHorario> todosLosHorarios = cmhRepository.findByMateriaComision(
-                        bloque.getMateriaId(),
-                        bloque.getComisionId()
-                );
-                
-                // Primero intentar búsqueda exacta de horario
-                // Nota: dia_semana en BD puede estar como "1", "2", etc. o como "LUNES", "MARTES", etc.
-                cmhOpt = todosLosHorarios.stream()
-                        .filter(cmh -> {
-                            var horario = cmh.getHorario();
-                            String diaBD = horario.getDiaSemana();
-                            // Comparar día: puede ser número o nombre
-                            boolean diaCoincide = diaBD.equalsIgnoreCase(diaSemana) 
-                                    || diaBD.equals(bloque.getDia()); // También comparar con el número original
-                            return diaCoincide
-                                    && horario.getHoraInicio().equals(horaInicio)
-                                    && horario.getHoraFin().equals(horaFin);
-                        })
-                        .findFirst();
-                
-                // Si no encuentra exacto, buscar por solapamiento
-                if (cmhOpt.isEmpty()) {
-                    cmhOpt = todosLosHorarios.stream()
-                            .filter(cmh -> {
-                                var horario = cmh.getHorario();
-                                String diaBD = horario.getDiaSemana();
-                                // Comparar día: puede ser número o nombre
-                                boolean diaCoincide = diaBD.equalsIgnoreCase(diaSemana) 
-                                        || diaBD.equals(bloque.getDia()); // También comparar con el número original
-                                if (!diaCoincide) {
-                                    return false;
-                                }
-                                // Verificar solapamiento
-                                LocalTime hInicio = horario.getHoraInicio();
-                                LocalTime hFin = horario.getHoraFin();
-                                return horaInicio.isBefore(hFin) && hInicio.isBefore(horaFin);
-                            })
-                            .findFirst();
-                }
-            }
-            
+
+            var cmhOpt = indice.resolver(bloque.getMateriaId(), bloque.getComisionId(), dto.getPeriodoId(),
+                    dia, horaInicio, horaFin);
+
             if (cmhOpt.isEmpty()) {
-                // Construir mensaje de error más informativo
-                // Buscar en todos los periodos para mostrar qué hay disponible
-                List<ComisionMateriaHorario> todosLosHorarios = cmhRepository.findByMateriaComision(
-                        bloque.getMateriaId(),
-                        bloque.getComisionId()
-                );
-                
-                String horariosEncontrados = todosLosHorarios.stream()
+                // Construir mensaje de error más informativo con lo que hay en todos los periodos
+                String horariosEncontrados = indice.horarios(bloque.getMateriaId(), bloque.getComisionId()).stream()
                         .map(cmh -> {
                             var h = cmh.getHorario();
                             var periodo = cmh.getComisionMateria().getPeriodo();
-                            return String.format("%s %s-%s (periodoId=%d)", h.getDiaSemana(), h.getHoraInicio(), h.getHoraFin(), periodo.getId());
+                            return String.format("%s %s-%s (periodoId=%d)", h.getDia().getNombre(), h.getHoraInicio(), h.getHoraFin(), periodo.getId());
                         })
                         .collect(Collectors.joining(", "));
-                
+
                 throw new ComisionMateriaHorarioNotFoundException(
                         String.format("No se encontró ComisionMateriaHorario para materiaId=%d, comisionId=%d, periodoId=%d, dia=%s, hora=%s-%s. Horarios disponibles en BD (todos los periodos): [%s]",
                                 bloque.getMateriaId(), bloque.getComisionId(), dto.getPeriodoId(), diaSemana, horaInicio, horaFin,
                                 horariosEncontrados.isEmpty() ? "ninguno" : horariosEncontrados)
                 );
             }
-            
+
+            horarios.add(cmhOpt.get());
+        }
+        return horarios;
+    }
+
+    /**
+     * Crea un cronograma a partir de ids de {@code comision_materia_horario}. Los ids se validan
+     * con una sola consulta; no hay que interpretar días ni horas.
+     */
+    @Transactional
+    public Cronograma crearDesdeHorarios(CrearCronogramaV2DTO dto, Authentication authentication) {
+        Usuario usuario = obtenerUsuarioAutenticado(authentication);
+        validarLimite(usuario);
+        return crear(usuario, dto.getNombre(), buscarHorarios(dto.getComisionMateriaHorarioIds()));
+    }
+
+    /** Valida el límite de cronogramas por usuario (máximo 3) */
+    private void validarLimite(Usuario usuario) {
+        long cantidad = repo.countByUsuarioId(usuario.getId());
+        final int LIMITE_CRONOGRAMAS = 3;
+        if (cantidad >= LIMITE_CRONOGRAMAS) {
+            throw new LimiteCronogramasExcedidoException(LIMITE_CRONOGRAMAS, (int) cantidad);
+        }
+    }
+
+    /** Carga los horarios pedidos, en el mismo orden, fallando si alguno no existe */
+    private List<ComisionMateriaHorario> buscarHorarios(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Los ids de horario no pueden ser nulos");
+        }
+        Map<Integer, ComisionMateriaHorario> porId = cmhRepository.findAllByIdInWithAll(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(ComisionMateriaHorario::getId, Function.identity()));
+        List<Integer> faltantes = ids.stream().filter(id -> !porId.containsKey(id)).distinct().toList();
+        if (!faltantes.isEmpty()) {
+            throw new ComisionMateriaHorarioNotFoundException(
+                    "No se encontraron ComisionMateriaHorario con ids " + faltantes);
+        }
+        // Un mismo horario repetido se guarda una sola vez
+        return ids.stream().distinct().map(porId::get).toList();
+    }
+
+    private Cronograma crear(Usuario usuario, String nombre, List<ComisionMateriaHorario> horarios) {
+        Cronograma cronograma = new Cronograma();
+        cronograma.setNombre(nombre);
+        cronograma.setUsuario(usuario);
+
+        List<DetalleCronograma> detalles = new ArrayList<>(horarios.size());
+        for (ComisionMateriaHorario cmh : horarios) {
             DetalleCronograma detalle = new DetalleCronograma();
             detalle.setCronograma(cronograma);
-            detalle.setComisionMateriaHorario(cmhOpt.get());
+            detalle.setComisionMateriaHorario(cmh);
             detalle.setEstado(DetalleEstadoEnum.SELECCIONADO);
             detalles.add(detalle);
         }
-        
+
         cronograma.setDetalles(detalles);
         return repo.save(cronograma);
     }
 
+    /**
+     * Lleva los detalles del cronograma al conjunto de horarios pedido comparando por id de horario.
+     * Los que siguen se dejan como están (con su estado), así guardar sin cambios no escribe nada.
+     */
+    private Cronograma actualizar(Cronograma cronograma, String nombre, List<ComisionMateriaHorario> horarios) {
+        if (!Objects.equals(cronograma.getNombre(), nombre)) {
+            cronograma.setNombre(nombre);
+        }
+
+        Map<Integer, ComisionMateriaHorario> pedidos = new LinkedHashMap<>();
+        for (ComisionMateriaHorario cmh : horarios) {
+            pedidos.putIfAbsent(cmh.getId(), cmh);
+        }
+
+        List<DetalleCronograma> detalles = cronograma.getDetalles();
+        if (detalles == null) {
+            detalles = new ArrayList<>();
+            cronograma.setDetalles(detalles);
+        }
+        // Se queda con un detalle por horario pedido; el resto lo borra orphanRemoval
+        Set<Integer> presentes = new HashSet<>();
+        detalles.removeIf(d -> {
+            Integer cmhId = d.getComisionMateriaHorario().getId();
+            return !pedidos.containsKey(cmhId) || !presentes.add(cmhId);
+        });
+        for (ComisionMateriaHorario cmh : pedidos.values()) {
+            if (!presentes.contains(cmh.getId())) {
+                DetalleCronograma detalle = new DetalleCronograma();
+                detalle.setCronograma(cronograma);
+                detalle.setComisionMateriaHorario(cmh);
+                detalle.setEstado(DetalleEstadoEnum.SELECCIONADO);
+                detalles.add(detalle);
+            }
+        }
+
+        // Los detalles nuevos necesitan su id para la respuesta; sin cambios el flush no emite SQL
+        repo.flush();
+        return cronograma;
+    }
+
     /** Convierte un día numérico (String "1"-"6") a nombre de día en mayúsculas */
     private String convertirDiaANombre(String diaStr) {
         try {
@@ -274,8 +284,12 @@ public class CronogramaService {
     /** Obtiene un cronograma solo si pertenece al usuario autenticado */
     @Transactional(readOnly = true)
     public Cronograma getOne(Long id, Authentication authentication) {
-        Usuario usuario = obtenerUsuarioAutenticado(authentication);
-        Cronograma cronograma = repo.findById(id)
+        return buscarPropio(id, obtenerUsuarioAutenticado(authentication));
+    }
+
+    /** Carga el cronograma con sus detalles, fallando si no existe o es de otro usuario */
+    private Cronograma buscarPropio(Long id, Usuario usuario) {
+        Cronograma cronograma = repo.findByIdConDetalles(id)
                 .orElseThrow(() -> new CronogramaNotFoundException(id));
         
         // Verificar que el cronograma pertenezca al usuario autenticado
@@ -3,91 +3,130 @@ package com.cruma.service;
 import com.cruma.dto.EstadoCorrelativasResponseDTO;
 import com.cruma.dto.MateriaEstadoDTO;
 import com.cruma.dto.ResumenCorrelativasDTO;
+import com.cruma.exception.MateriaNotFoundException;
 import com.cruma.model.Materia;
-import com.cruma.model.Usuario;
 import com.cruma.model.UsuarioMateriaEstado;
-import com.cruma.model.UsuarioMateriaEstadoId;
+import com.cruma.repository.MateriaRepository;
 import com.cruma.repository.UsuarioMateriaEstadoRepository;
-import com.cruma.repository.UsuarioRepository;
-import com.cruma.util.OAuth2UserHelper;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class EstadoCorrelativasService {
 
     private final UsuarioMateriaEstadoRepository estadoRepository;
-    private final UsuarioRepository usuarioRepository;
-    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final MateriaRepository materiaRepository;
+    private final UsuarioAutenticadoService usuarioAutenticado;
 
     public EstadoCorrelativasService(UsuarioMateriaEstadoRepository estadoRepository,
-                                     UsuarioRepository usuarioRepository,
-                                     OAuth2AuthorizedClientService authorizedClientService) {
+                                     MateriaRepository materiaRepository,
+                                     UsuarioAutenticadoService usuarioAutenticado) {
         this.estadoRepository = estadoRepository;
-        this.usuarioRepository = usuarioRepository;
-        this.authorizedClientService = authorizedClientService;
+        this.materiaRepository = materiaRepository;
+        this.usuarioAutenticado = usuarioAutenticado;
     }
 
     @Transactional(readOnly = true)
     public EstadoCorrelativasResponseDTO obtener(Authentication authentication) {
-        Usuario usuario = obtenerUsuarioAutenticado(authentication);
-        List<UsuarioMateriaEstado> registros = estadoRepository.findByUsuario_Id(usuario.getId());
+        UUID usuarioId = usuarioAutenticado.obtenerId(authentication);
+        List<UsuarioMateriaEstado> registros = estadoRepository.findByUsuario_Id(usuarioId);
         return construirRespuesta(registros);
     }
 
+    /**
+     * Reemplaza los estados del usuario por los recibidos, escribiendo solo lo que cambió:
+     * upsert de las materias nuevas o con otro estado y borrado de las que ya no vienen.
+     */
     @Transactional
     public EstadoCorrelativasResponseDTO guardar(List<MateriaEstadoDTO> estados, Authentication authentication) {
-        Usuario usuario = obtenerUsuarioAutenticado(authentication);
-        estadoRepository.deleteByUsuario_Id(usuario.getId());
+        UUID usuarioId = usuarioAutenticado.obtenerId(authentication);
+
+        Map<Integer, UsuarioMateriaEstado> guardados = new HashMap<>();
+        for (UsuarioMateriaEstado registro : estadoRepository.findByUsuario_Id(usuarioId)) {
+            guardados.put(registro.getId().getMateriaId(), registro);
+        }
 
-        if (estados == null || estados.isEmpty()) {
-            return new EstadoCorrelativasResponseDTO(null, List.of(), new ResumenCorrelativasDTO(0, 0, 0, 0, 0));
+        // Si una materia viene repetida gana el último estado, como cuando se guardaba la lista entera
+        Map<Integer, Short> pedidos = new LinkedHashMap<>();
+        if (estados != null) {
+            for (MateriaEstadoDTO estadoDTO : estados) {
+                if (estadoDTO.getMateriaId() == null) {
+                    continue;
+                }
+                pedidos.put(estadoDTO.getMateriaId(), OptionalIntValue.of(estadoDTO.getEstado()).orElse((short) 0));
+            }
+        }
+
+        // Las materias que no estaban guardadas se validan antes de escribir: un id inexistente
+        // violaría la FK del upsert y terminaría en un 500
+        List<Integer> nuevas = pedidos.keySet().stream()
+                .filter(materiaId -> !guardados.containsKey(materiaId))
+                .toList();
+        if (!nuevas.isEmpty()) {
+            Set<Integer> existentes = materiaRepository.findAllById(nuevas).stream()
+                    .map(Materia::getId)
+                    .collect(Collectors.toSet());
+            for (Integer materiaId : nuevas) {
+                if (!existentes.contains(materiaId)) {
+                    throw new IllegalArgumentException("Materia no encontrada: " + materiaId);
+                }
+            }
+        }
+
+        List<Integer> sobrantes = guardados.keySet().stream()
+                .filter(materiaId -> !pedidos.containsKey(materiaId))
+                .toList();
+        if (!sobrantes.isEmpty()) {
+            estadoRepository.deleteByUsuarioIdAndMateriaIdIn(usuarioId, sobrantes);
         }
 
         Instant ahora = Instant.now();
-        List<UsuarioMateriaEstado> entidades = new ArrayList<>();
-        for (MateriaEstadoDTO estadoDTO : estados) {
-            if (estadoDTO.getMateriaId() == null) {
-                continue;
+        List<MateriaEstadoDTO> resultado = new ArrayList<>(pedidos.size());
+        Instant ultimaActualizacion = null;
+        for (Map.Entry<Integer, Short> pedido : pedidos.entrySet()) {
+            UsuarioMateriaEstado guardado = guardados.get(pedido.getKey());
+            Instant actualizado;
+            if (guardado != null && pedido.getValue().equals(guardado.getEstado())) {
+                actualizado = guardado.getUpdatedAt();
+            } else {
+                estadoRepository.upsert(usuarioId, pedido.getKey(), pedido.getValue(), ahora);
+                actualizado = ahora;
+            }
+            resultado.add(new MateriaEstadoDTO(pedido.getKey(), pedido.getValue().intValue()));
+            if (actualizado != null && (ultimaActualizacion == null || actualizado.isAfter(ultimaActualizacion))) {
+                ultimaActualizacion = actualizado;
             }
-            UsuarioMateriaEstado entidad = new UsuarioMateriaEstado();
-            entidad.setId(new UsuarioMateriaEstadoId(usuario.getId(), estadoDTO.getMateriaId()));
-            entidad.setUsuario(usuario);
-
-            Materia materiaRef = new Materia();
-            materiaRef.setId(estadoDTO.getMateriaId());
-            entidad.setMateria(materiaRef);
-
-            short estadoNormalizado = OptionalIntValue.of(estadoDTO.getEstado()).orElse((short) 0);
-            entidad.setEstado(estadoNormalizado);
-            entidad.setUpdatedAt(ahora);
-            entidades.add(entidad);
         }
 
-        List<UsuarioMateriaEstado> guardados = estadoRepository.saveAll(entidades);
-        return construirRespuesta(guardados);
+        return new EstadoCorrelativasResponseDTO(ultimaActualizacion, resultado, construirResumen(resultado));
     }
 
-    private Usuario obtenerUsuarioAutenticado(Authentication authentication) {
-        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User oAuth2User)) {
-            throw new org.springframework.security.authentication.BadCredentialsException("No autenticado");
-        }
-        String email = OAuth2UserHelper.extractEmail(oAuth2User, authentication, authorizedClientService);
-        if (email == null || email.isBlank()) {
-            throw new org.springframework.security.authentication.BadCredentialsException("No se pudo obtener el email del usuario");
+    /**
+     * Cambia el estado de una sola materia con un upsert, sin tocar el resto.
+     *
+     * @throws MateriaNotFoundException si la materia no existe (404)
+     */
+    @Transactional
+    public EstadoCorrelativasResponseDTO actualizarUno(Integer materiaId, Integer estado, Authentication authentication) {
+        UUID usuarioId = usuarioAutenticado.obtenerId(authentication);
+        if (!materiaRepository.existsById(materiaId)) {
+            throw new MateriaNotFoundException(materiaId);
         }
-        return usuarioRepository.findByMail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        estadoRepository.upsert(usuarioId, materiaId, OptionalIntValue.of(estado).orElse((short) 0), Instant.now());
+        return construirRespuesta(estadoRepository.findByUsuario_Id(usuarioId));
     }
 
     private EstadoCorrelativasResponseDTO construirRespuesta(List<UsuarioMateriaEstado> registros) {
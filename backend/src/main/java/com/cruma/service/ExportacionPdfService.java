@@ -0,0 +1,176 @@
+package com.cruma.service;
+
+import com.cruma.dto.BloqueCronogramaExportDTO;
+import com.cruma.exception.ExportacionSaturadaException;
+import com.lowagie.text.DocumentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exportación del cronograma a PDF escribiendo directo en la respuesta, sin armar el archivo en memoria.
+ * Los PDFs se renderizan en un pool propio y acotado (hilos fijos y cola con tope), así una ráfaga de
+ * exportaciones no ocupa los hilos de Tomcat ni el executor asíncrono que comparten los demás streams.
+ * Cada pedido aceptado reserva uno de los {@code hilos + cola} lugares antes de escribir cabeceras; sin
+ * lugar se rechaza enseguida con {@link ExportacionSaturadaException} (503 + Retry-After). La reserva es
+ * atómica, así pedidos que llegan a la vez no pasan el tope, y se devuelve al terminar el PDF o, si el
+ * cuerpo nunca llega a correr, cuando el pedido vence o falla (ver {@link Exportacion}).
+ */
+@Service
+public class ExportacionPdfService {
+
+    private final RenderizadorCronogramaPdf renderizador;
+    private final ThreadPoolTaskExecutor executor;
+    private final int hilos;
+    private final int cola;
+    private final long retryAfterSegundos;
+    private final Semaphore lugares;
+    private final Timer renders;
+    private final Counter rechazadas;
+
+    public ExportacionPdfService(RenderizadorCronogramaPdf renderizador,
+                                 @Value("${cruma.exportacion.hilos}") int hilos,
+                                 @Value("${cruma.exportacion.cola}") int cola,
+                                 @Value("${cruma.exportacion.retry-after-segundos}") long retryAfterSegundos,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.renderizador = renderizador;
+        this.hilos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.cola = cola;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.lugares = new Semaphore(this.hilos + Math.max(0, cola));
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.hilos);
+        executor.setMaxPoolSize(this.hilos);
+        executor.setThreadNamePrefix("exportacion-pdf-");
+        executor.initialize();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("cruma.exportacion.cola", executor, ThreadPoolTaskExecutor::getQueueSize)
+                    .description("Exportaciones a PDF esperando un hilo del pool")
+                    .register(registry);
+            Gauge.builder("cruma.exportacion.activas", executor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("Exportaciones a PDF renderizándose")
+                    .register(registry);
+            this.renders = Timer.builder("cruma.exportacion.render")
+                    .description("Tiempo de renderizar un PDF y escribirlo en la respuesta")
+                    .register(registry);
+            this.rechazadas = Counter.builder("cruma.exportacion.rechazadas")
+                    .description("Exportaciones a PDF rechazadas con 503 por tener la cola llena")
+                    .register(registry);
+        } else {
+            this.renders = null;
+            this.rechazadas = null;
+        }
+    }
+
+    /**
+     * Valida los bloques y reserva un lugar en el pool; el PDF se genera recién cuando Spring MVC
+     * ejecuta el cuerpo en {@link #getExecutor()}.
+     * @throws IllegalArgumentException si algún bloque trae una hora mal formada o fuera de rango
+     * @throws ExportacionSaturadaException si no queda lugar entre los hilos y la cola
+     */
+    public Exportacion preparar(List<BloqueCronogramaExportDTO> bloques) {
+        RenderizadorCronogramaPdf.Preparado cronograma = renderizador.preparar(bloques);
+        if (!lugares.tryAcquire()) {
+            if (rechazadas != null) {
+                rechazadas.increment();
+            }
+            throw new ExportacionSaturadaException(retryAfterSegundos);
+        }
+        return new Exportacion(cronograma);
+    }
+
+    /** Executor en el que Spring MVC debe escribir los cuerpos devueltos por {@link #preparar} */
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Cuerpo de una exportación aceptada, dueño de su lugar en el pool. El lugar se devuelve una sola vez:
+     * al terminar de escribir el PDF o, si el cuerpo todavía no empezó, cuando Spring MVC avisa que el
+     * pedido venció, falló o terminó. Para eso hay que registrarlo como interceptor del
+     * {@link org.springframework.web.context.request.async.WebAsyncManager} de la request.
+     */
+    public final class Exportacion implements StreamingResponseBody, CallableProcessingInterceptor {
+
+        private static final int RESERVADA = 0;
+        private static final int ESCRIBIENDO = 1;
+        private static final int LIBERADA = 2;
+
+        private final RenderizadorCronogramaPdf.Preparado cronograma;
+        private final AtomicInteger estado = new AtomicInteger(RESERVADA);
+
+        private Exportacion(RenderizadorCronogramaPdf.Preparado cronograma) {
+            this.cronograma = cronograma;
+        }
+
+        @Override
+        public void writeTo(OutputStream salida) throws IOException {
+            // Si el pedido ya venció mientras esperaba en la cola, la respuesta está cerrada y el lugar devuelto
+            if (!estado.compareAndSet(RESERVADA, ESCRIBIENDO)) {
+                return;
+            }
+            long inicio = System.nanoTime();
+            try {
+                renderizador.renderizar(cronograma, salida);
+            } catch (DocumentException e) {
+                throw new IOException("No se pudo generar el PDF", e);
+            } finally {
+                if (renders != null) {
+                    renders.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+                estado.set(LIBERADA);
+                lugares.release();
+            }
+        }
+
+        /** Devuelve el lugar si el cuerpo no llegó a empezar; si ya está escribiendo lo devuelve él al terminar */
+        public void liberar() {
+            if (estado.compareAndSet(RESERVADA, LIBERADA)) {
+                lugares.release();
+            }
+        }
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+            liberar();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+            liberar();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            liberar();
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        executor.shutdown();
+    }
+}
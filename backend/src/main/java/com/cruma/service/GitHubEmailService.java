@@ -0,0 +1,90 @@
+package com.cruma.service;
+
+import com.cruma.util.CacheAcotada;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Consulta el email de un usuario de GitHub en /user/emails, para quienes lo tienen privado.
+ * Usa un único cliente HTTP (el de la JDK, que reutiliza conexiones) con timeouts, y guarda el
+ * resultado por nombre de principal en una caché acotada para no volver a GitHub en cada login.
+ */
+@Service
+public class GitHubEmailService {
+
+    private final RestClient restClient;
+    private final CacheAcotada<String, String> cache;
+
+    public GitHubEmailService(@Value("${cruma.github.api-url}") String apiUrl,
+                              @Value("${cruma.github.connect-timeout-ms}") long connectTimeoutMs,
+                              @Value("${cruma.github.read-timeout-ms}") long readTimeoutMs,
+                              @Value("${cruma.github.cache-max-entradas}") int cacheMaxEntradas,
+                              @Value("${cruma.github.cache-ttl-minutos}") long cacheTtlMinutos) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(apiUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader("Accept", "application/vnd.github.v3+json")
+                .build();
+        this.cache = new CacheAcotada<>(cacheMaxEntradas, Duration.ofMinutes(cacheTtlMinutos));
+    }
+
+    /**
+     * @param principal nombre del principal de GitHub (su id), clave de la caché
+     * @param accessToken token del login, con scope user:email; si es null solo se mira la caché
+     * @return el email primario, si no el primero verificado, si no el primero; null si falla o no hay
+     */
+    public String obtenerEmail(String principal, String accessToken) {
+        if (accessToken == null) {
+            return cache.get(principal);
+        }
+        return cache.obtener(principal, () -> consultar(accessToken));
+    }
+
+    private String consultar(String accessToken) {
+        EmailInfo[] emails;
+        try {
+            emails = restClient.get()
+                    .uri("/user/emails")
+                    .header("Authorization", "Bearer " + accessToken)
+                    .retrieve()
+                    .body(EmailInfo[].class);
+        } catch (RestClientException | CancellationException e) {
+            // Si falla, se sigue con el fallback del login. Al vencer el read timeout el cliente
+            // de la JDK cancela el pedido y la CancellationException llega sin envolver
+            return null;
+        }
+        if (emails == null) {
+            return null;
+        }
+        // Buscar el email primario
+        for (EmailInfo emailInfo : emails) {
+            if (Boolean.TRUE.equals(emailInfo.primary()) && emailInfo.email() != null) {
+                return emailInfo.email();
+            }
+        }
+        // Si no hay primario, buscar el primero verificado
+        for (EmailInfo emailInfo : emails) {
+            if (Boolean.TRUE.equals(emailInfo.verified()) && emailInfo.email() != null) {
+                return emailInfo.email();
+            }
+        }
+        // Si no hay verificado, usar el primero
+        return emails.length > 0 ? emails[0].email() : null;
+    }
+
+    /** Un elemento de la respuesta de GitHub /user/emails */
+    private record EmailInfo(String email, Boolean primary, Boolean verified) {
+    }
+}
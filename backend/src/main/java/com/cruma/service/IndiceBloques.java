@@ -0,0 +1,105 @@
+package com.cruma.service;
+
+import com.cruma.service.CatalogoSnapshot.Bloque;
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice de los bloques horarios por día, ordenados por hora de inicio.
+ * Para saber qué comisiones entran completas en un conjunto de franjas libres se busca con
+ * búsqueda binaria el primer bloque de cada franja y se recorren solo los que empiezan adentro.
+ */
+final class IndiceBloques {
+
+    /** Una franja libre de un día (1 = lunes ... 7 = domingo), en minutos desde las 00:00 */
+    record Franja(int dia, int inicioMinutos, int finMinutos) {
+    }
+
+    private static final int DIAS = 7;
+
+    private final List<OpcionComision> opciones;
+    /** Por día: inicio y fin de cada bloque y a qué opción pertenece, ordenados por inicio */
+    private final int[][] inicios = new int[DIAS + 1][];
+    private final int[][] fines = new int[DIAS + 1][];
+    private final int[][] opcionDe = new int[DIAS + 1][];
+
+    private record Entrada(int inicio, int fin, int opcion) {
+    }
+
+    IndiceBloques(List<OpcionComision> opciones) {
+        this.opciones = opciones;
+        List<List<Entrada>> porDia = new ArrayList<>(DIAS + 1);
+        for (int d = 0; d <= DIAS; d++) {
+            porDia.add(new ArrayList<>());
+        }
+        for (int i = 0; i < opciones.size(); i++) {
+            for (Bloque b : opciones.get(i).bloques()) {
+                // Un bloque de día desconocido nunca entra en una franja: su opción queda afuera
+                if (b.dia() >= 1 && b.dia() <= DIAS) {
+                    porDia.get(b.dia()).add(new Entrada(b.inicioMinutos(), b.finMinutos(), i));
+                }
+            }
+        }
+        for (int d = 1; d <= DIAS; d++) {
+            List<Entrada> entradas = porDia.get(d);
+            entradas.sort(Comparator.comparingInt(Entrada::inicio));
+            inicios[d] = entradas.stream().mapToInt(Entrada::inicio).toArray();
+            fines[d] = entradas.stream().mapToInt(Entrada::fin).toArray();
+            opcionDe[d] = entradas.stream().mapToInt(Entrada::opcion).toArray();
+        }
+    }
+
+    /** Opciones con al menos un bloque y todos sus bloques dentro de alguna de las franjas */
+    List<OpcionComision> dentroDe(List<Franja> franjas) {
+        int[] contenidos = new int[opciones.size()];
+        for (Franja f : unir(franjas)) {
+            int[] ini = inicios[f.dia()];
+            int desde = Arrays.binarySearch(ini, f.inicioMinutos());
+            if (desde < 0) {
+                desde = -desde - 1;
+            } else {
+                // binarySearch no garantiza el primero entre iguales
+                while (desde > 0 && ini[desde - 1] == f.inicioMinutos()) {
+                    desde--;
+                }
+            }
+            for (int k = desde; k < ini.length && ini[k] < f.finMinutos(); k++) {
+                if (fines[f.dia()][k] <= f.finMinutos()) {
+                    contenidos[opcionDe[f.dia()][k]]++;
+                }
+            }
+        }
+
+        List<OpcionComision> resultado = new ArrayList<>();
+        for (int i = 0; i < opciones.size(); i++) {
+            int bloques = opciones.get(i).bloques().size();
+            if (bloques > 0 && contenidos[i] == bloques) {
+                resultado.add(opciones.get(i));
+            }
+        }
+        return resultado;
+    }
+
+    /** Ordena y une las franjas que se tocan o superponen, así cada bloque cae en una sola */
+    private static List<Franja> unir(List<Franja> franjas) {
+        List<Franja> ordenadas = franjas.stream()
+                .filter(f -> f.dia() >= 1 && f.dia() <= DIAS && f.finMinutos() > f.inicioMinutos())
+                .sorted(Comparator.comparingInt(Franja::dia).thenComparingInt(Franja::inicioMinutos))
+                .toList();
+        List<Franja> unidas = new ArrayList<>();
+        for (Franja f : ordenadas) {
+            Franja ultima = unidas.isEmpty() ? null : unidas.get(unidas.size() - 1);
+            if (ultima != null && ultima.dia() == f.dia() && f.inicioMinutos() <= ultima.finMinutos()) {
+                unidas.set(unidas.size() - 1, new Franja(f.dia(), ultima.inicioMinutos(),
+                        Math.max(ultima.finMinutos(), f.finMinutos())));
+            } else {
+                unidas.add(f);
+            }
+        }
+        return unidas;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cruma.service;
+
+import com.cruma.model.ComisionMateria;
+import com.cruma.model.ComisionMateriaHorario;
+import com.cruma.model.Horario;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Índice en memoria de los {@code ComisionMateriaHorario} candidatos de un cronograma.
+ * Se arma con una sola consulta para todos los pares (materia, comisión) del DTO y resuelve
+ * cada bloque con el mismo orden de búsqueda que antes se hacía con varias consultas:
+ * exacto → solapado → mismo día (en el periodo) → exacto → solapado (en cualquier periodo).
+ */
+final class IndiceHorariosCronograma {
+
+    // Ids como Integer, igual que en el DTO: un bloque sin materia o comisión no encuentra nada y
+    // termina en ComisionMateriaHorarioNotFoundException (400), como con las consultas por bloque
+    private record MateriaComision(Integer materiaId, Integer comisionId) {
+    }
+
+    private record MateriaComisionPeriodo(Integer materiaId, Integer comisionId, Integer periodoId) {
+    }
+
+    private record Exacto(Integer materiaId, Integer comisionId, Integer periodoId, int dia, LocalTime inicio, LocalTime fin) {
+    }
+
+    private final Map<Exacto, ComisionMateriaHorario> exactos = new HashMap<>();
+    private final Map<MateriaComisionPeriodo, List<ComisionMateriaHorario>> porPeriodo = new HashMap<>();
+    private final Map<MateriaComision, List<ComisionMateriaHorario>> porMateriaComision = new HashMap<>();
+
+    /** Los horarios deben venir con horario y comisión-materia (con su periodo) inicializados */
+    IndiceHorariosCronograma(Collection<ComisionMateriaHorario> candidatos) {
+        List<ComisionMateriaHorario> ordenados = candidatos.stream()
+                .sorted(Comparator.comparing(ComisionMateriaHorario::getId))
+                .toList();
+        for (ComisionMateriaHorario cmh : ordenados) {
+            ComisionMateria cm = cmh.getComisionMateria();
+            Horario h = cmh.getHorario();
+            int materiaId = cm.getMateria().getId();
+            int comisionId = cm.getComision().getId();
+            int periodoId = cm.getPeriodo().getId();
+            exactos.putIfAbsent(new Exacto(materiaId, comisionId, periodoId,
+                    h.getDia().getNumero(), h.getHoraInicio(), h.getHoraFin()), cmh);
+            porPeriodo.computeIfAbsent(new MateriaComisionPeriodo(materiaId, comisionId, periodoId),
+                    k -> new ArrayList<>()).add(cmh);
+            porMateriaComision.computeIfAbsent(new MateriaComision(materiaId, comisionId),
+                    k -> new ArrayList<>()).add(cmh);
+        }
+    }
+
+    /**
+     * @param dia día normalizado (1 = lunes ... 7 = domingo)
+     */
+    Optional<ComisionMateriaHorario> resolver(Integer materiaId, Integer comisionId, Integer periodoId, int dia,
+                                              LocalTime inicio, LocalTime fin) {
+        Predicate<ComisionMateriaHorario> mismoDia = cmh -> cmh.getHorario().getDia().getNumero() == dia;
+        Predicate<ComisionMateriaHorario> solapado = mismoDia.and(cmh ->
+                inicio.isBefore(cmh.getHorario().getHoraFin()) && cmh.getHorario().getHoraInicio().isBefore(fin));
+        Predicate<ComisionMateriaHorario> exacto = mismoDia.and(cmh ->
+                cmh.getHorario().getHoraInicio().equals(inicio) && cmh.getHorario().getHoraFin().equals(fin));
+
+        if (periodoId != null) {
+            ComisionMateriaHorario encontrado = exactos.get(new Exacto(materiaId, comisionId, periodoId, dia, inicio, fin));
+            if (encontrado != null) {
+                return Optional.of(encontrado);
+            }
+            List<ComisionMateriaHorario> delPeriodo = porPeriodo.getOrDefault(
+                    new MateriaComisionPeriodo(materiaId, comisionId, periodoId), List.of());
+            Optional<ComisionMateriaHorario> resultado = primero(delPeriodo, solapado)
+                    .or(() -> primero(delPeriodo, mismoDia));
+            if (resultado.isPresent()) {
+                return resultado;
+            }
+        }
+
+        // Último intento sin restricción de periodo, por si el periodoId del frontend no coincide con la BD
+        List<ComisionMateriaHorario> todos = horarios(materiaId, comisionId);
+        return primero(todos, exacto).or(() -> primero(todos, solapado));
+    }
+
+    /** Todos los horarios de la materia en esa comisión, de cualquier periodo */
+    List<ComisionMateriaHorario> horarios(Integer materiaId, Integer comisionId) {
+        return porMateriaComision.getOrDefault(new MateriaComision(materiaId, comisionId), List.of());
+    }
+
+    private static Optional<ComisionMateriaHorario> primero(List<ComisionMateriaHorario> lista,
+                                                            Predicate<ComisionMateriaHorario> condicion) {
+        return lista.stream().filter(condicion).findFirst();
+    }
+}
@@ -1,56 +1,38 @@
 package com.cruma.service;
 
 import com.cruma.dto.MateriaDTO;
-import com.cruma.model.Materia;
-import com.cruma.repository.ComisionMateriaRepository;
-import com.cruma.repository.MateriaRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 public class MateriaService {
 
-    private final MateriaRepository materiaRepo;
-    private final ComisionMateriaRepository cmRepo;
+    private final CatalogoService catalogo;
 
-    public MateriaService(MateriaRepository materiaRepo,
-            ComisionMateriaRepository cmRepo) {
-        this.materiaRepo = materiaRepo;
-        this.cmRepo = cmRepo;
+    public MateriaService(CatalogoService catalogo) {
+        this.catalogo = catalogo;
     }
 
     public List<MateriaDTO> listarTodas() {
-        return materiaRepo.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return catalogo.snapshot().materias();
     }
 
     public List<MateriaDTO> listarPorCarreraId(Integer carreraId) {
-        return cmRepo.findDistinctMateriaByCarreraId(carreraId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return catalogo.snapshot().materiasPorCarrera(carreraId);
     }
 
     public List<MateriaDTO> listarPorCarreraYPeriodo(Integer carreraId, Integer periodoId) {
-        return cmRepo.findDistinctMateriaByCarreraIdAndPeriodoId(carreraId, periodoId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-    }
-
-    private MateriaDTO toDto(Materia m) {
-        return new MateriaDTO(
-                m.getId(),
-                m.getCodigo(),
-                m.getNombre(),
-                m.getAnioCarrera(),
-                m.getElectiva());
+        return catalogo.snapshot().materiasPorCarreraYPeriodo(carreraId, periodoId);
     }
 
     public List<MateriaDTO> listarPorIds(List<Integer> ids) {
-        return materiaRepo.findAllById(ids).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        CatalogoSnapshot snapshot = catalogo.snapshot();
+        return new LinkedHashSet<>(ids).stream()
+                .map(snapshot::materia)
+                .flatMap(Optional::stream)
+                .toList();
     }
-}
\ No newline at end of file
+}
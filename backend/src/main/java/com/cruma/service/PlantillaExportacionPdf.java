@@ -0,0 +1,192 @@
+package com.cruma.service;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.BaseFont;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Recursos fijos del PDF del cronograma, preparados una sola vez al arrancar: la fuente PT Sans ya
+ * parseada, los logos reducidos a la resolución con la que se imprimen y con los píxeles ya
+ * comprimidos, las fuentes y colores, y las etiquetas "HH:mm" de cada franja de 5 minutos del día.
+ * Es inmutable y se comparte entre exportaciones concurrentes: la fuente base no guarda estado por
+ * documento (los glifos usados los registra cada PdfWriter) y las imágenes se entregan como copias,
+ * que comparten los bytes ya comprimidos, así ningún PdfWriter vuelve a comprimirlos.
+ */
+@Component
+public class PlantillaExportacionPdf {
+
+    /** Rango horario que se muestra siempre, aunque el cronograma no lo ocupe entero */
+    public static final int HORA_INICIO = 8;
+    public static final int HORA_FIN = 23;
+    public static final int PASO_MINUTOS = 5;
+
+    /** Píxeles de los logos por punto impreso (unos 290 dpi) */
+    private static final int PIXELES_POR_PUNTO = 4;
+
+    private static final List<String> ENCABEZADOS =
+            List.of("Hora", "Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado");
+    private static final float[] ANCHOS = {1.4f, 2.1f, 2.1f, 2.1f, 2.1f, 2.1f, 2.1f};
+
+    private final BaseFont ptsans;
+    private final Font fontHeader;
+    private final Font fontBody;
+    private final Font fontFooter;
+    private final Color colorEncabezado = new Color(12, 192, 223);
+    private final Color colorHora = new Color(235, 245, 250);
+    private final Color colorBloque = new Color(221, 246, 255);
+    private final Color colorLinea = new Color(200, 222, 232);
+    private final Image linkedin;
+    private final Image logo;
+    private final String[] etiquetas;
+
+    public PlantillaExportacionPdf() {
+        try {
+            this.ptsans = BaseFont.createFont("PTSans-Regular.ttf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED,
+                    false, leer("/static/PTSans-Regular.ttf"), null);
+            // Cada PDF comprime el subconjunto de glifos que usa; con el nivel por defecto eso era la
+            // mayor parte del tiempo de exportar, y BEST_SPEED agrega solo ~2% al tamaño del PDF
+            ptsans.setCompressionLevel(Deflater.BEST_SPEED);
+            this.linkedin = logoComprimido("/static/linkedin.png", 16);
+            this.logo = logoComprimido("/static/CRUMA.png", 30);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron cargar los recursos del PDF", e);
+        } catch (DocumentException e) {
+            throw new IllegalStateException("No se pudieron preparar los logos del PDF", e);
+        }
+        this.fontHeader = new Font(ptsans, 8, Font.BOLD, Color.WHITE);
+        this.fontBody = new Font(ptsans, 6);
+        this.fontFooter = new Font(ptsans, 9, Font.UNDERLINE, new Color(10, 110, 200));
+
+        this.etiquetas = new String[24 * 60 / PASO_MINUTOS];
+        for (int i = 0; i < etiquetas.length; i++) {
+            int minuto = i * PASO_MINUTOS;
+            etiquetas[i] = String.format("%02d:%02d", minuto / 60, minuto % 60);
+        }
+    }
+
+    private static byte[] leer(String recurso) throws IOException {
+        try (InputStream in = PlantillaExportacionPdf.class.getResourceAsStream(recurso)) {
+            if (in == null) {
+                throw new IOException("No existe el recurso " + recurso);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Reduce el PNG al tamaño con el que se imprime y deja el color y la transparencia comprimidos,
+     * listos para copiarse tal cual en cada PDF.
+     */
+    private static Image logoComprimido(String recurso, float lado) throws IOException, DocumentException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(leer(recurso)));
+        double escala = Math.min(1, lado * PIXELES_POR_PUNTO / Math.max(original.getWidth(), original.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(original.getWidth() * escala));
+        int alto = Math.max(1, (int) Math.round(original.getHeight() * escala));
+        BufferedImage reducida = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = reducida.createGraphics();
+        g.drawImage(original.getScaledInstance(ancho, alto, java.awt.Image.SCALE_AREA_AVERAGING), 0, 0, null);
+        g.dispose();
+
+        byte[] rgb = new byte[ancho * alto * 3];
+        byte[] alfa = new byte[ancho * alto];
+        int i = 0;
+        for (int y = 0; y < alto; y++) {
+            for (int x = 0; x < ancho; x++, i++) {
+                int argb = reducida.getRGB(x, y);
+                alfa[i] = (byte) (argb >>> 24);
+                rgb[i * 3] = (byte) (argb >> 16);
+                rgb[i * 3 + 1] = (byte) (argb >> 8);
+                rgb[i * 3 + 2] = (byte) argb;
+            }
+        }
+        Image mascara = Image.getInstance(ancho, alto, 1, 8, comprimir(alfa));
+        mascara.setDeflated(true);
+        mascara.makeMask();
+        Image imagen = Image.getInstance(ancho, alto, 3, 8, comprimir(rgb));
+        imagen.setDeflated(true);
+        imagen.setImageMask(mascara);
+        imagen.scaleToFit(lado, lado);
+        return imagen;
+    }
+
+    private static byte[] comprimir(byte[] datos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(datos.length / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(datos);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    public List<String> getEncabezados() {
+        return ENCABEZADOS;
+    }
+
+    public float[] getAnchos() {
+        return ANCHOS.clone();
+    }
+
+    public BaseFont getPtsans() {
+        return ptsans;
+    }
+
+    public Font getFontHeader() {
+        return fontHeader;
+    }
+
+    public Font getFontBody() {
+        return fontBody;
+    }
+
+    public Font getFontFooter() {
+        return fontFooter;
+    }
+
+    public Color getColorEncabezado() {
+        return colorEncabezado;
+    }
+
+    public Color getColorHora() {
+        return colorHora;
+    }
+
+    public Color getColorBloque() {
+        return colorBloque;
+    }
+
+    public Color getColorLinea() {
+        return colorLinea;
+    }
+
+    /** Copia del logo de LinkedIn ya escalado; cada documento usa la suya */
+    public Image linkedin() {
+        return Image.getInstance(linkedin);
+    }
+
+    /** Copia del logo de CRUMA ya escalado; cada documento usa la suya */
+    public Image logo() {
+        return Image.getInstance(logo);
+    }
+
+    /** @return "HH:mm" de un minuto del día múltiplo de {@link #PASO_MINUTOS} */
+    public String etiquetaDeMinuto(int minuto) {
+        return etiquetas[minuto / PASO_MINUTOS];
+    }
+}
@@ -0,0 +1,347 @@
+package com.cruma.service;
+
+import com.cruma.dto.BloqueCronogramaExportDTO;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfAction;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dibuja el cronograma semanal en una hoja A4 apaisada directamente sobre el PdfContentByte: el
+ * encabezado, las líneas de la grilla y cada bloque como un único rectángulo ubicado por sus minutos
+ * de entrada y salida, sin armar una tabla de una fila por franja de 5 minutos.
+ * La escala vertical se ajusta al rango horario del cronograma (como mínimo 08:00 a 23:30) y las
+ * etiquetas de la columna "Hora" van cada 15, 30, 60 o 120 minutos según el alto disponible.
+ */
+@Component
+public class RenderizadorCronogramaPdf {
+
+    private static final float MARGEN = 8f;
+    private static final float ALTO_PIE = 44f;
+    private static final float ALTO_ENCABEZADO = 12f;
+    private static final float ALTO_MINIMO_ETIQUETA = 13f;
+    private static final int[] PASOS_ETIQUETA = {15, 30, 60, 120};
+    private static final float TAMANIO_ENCABEZADO = 8f;
+    private static final float TAMANIO_TEXTO = 6f;
+    private static final float INTERLINEADO = 7f;
+    private static final int DIAS = 6;
+    private static final String SEPARADOR_PIE = "   |   ";
+
+    private final PlantillaExportacionPdf plantilla;
+
+    public RenderizadorCronogramaPdf(PlantillaExportacionPdf plantilla) {
+        this.plantilla = plantilla;
+    }
+
+    /**
+     * Valida y convierte las horas de los bloques a minutos, antes de empezar a escribir la respuesta.
+     * @throws IllegalArgumentException si algún bloque trae una hora sin formato HH:mm o fuera de 00:00 a 24:00
+     */
+    public Preparado preparar(List<BloqueCronogramaExportDTO> bloques) {
+        int[] entradas = new int[bloques.size()];
+        int[] salidas = new int[bloques.size()];
+        int inicio = PlantillaExportacionPdf.HORA_INICIO * 60;
+        int fin = PlantillaExportacionPdf.HORA_FIN * 60 + 30;
+        for (int i = 0; i < bloques.size(); i++) {
+            entradas[i] = aMinutos(bloques.get(i).getHoraEntrada());
+            salidas[i] = aMinutos(bloques.get(i).getHoraSalida());
+            inicio = Math.min(inicio, entradas[i] / 60 * 60);
+            fin = Math.max(fin, Math.min(24 * 60, (salidas[i] + 29) / 30 * 30));
+        }
+        return new Preparado(List.copyOf(bloques), entradas, salidas, inicio, fin);
+    }
+
+    /** Bloques con sus horas ya en minutos y el rango horario que va a mostrar la grilla */
+    public record Preparado(List<BloqueCronogramaExportDTO> bloques, int[] entradas, int[] salidas,
+                            int inicio, int fin) {
+    }
+
+    /**
+     * Escribe el PDF en {@code salida} sin cerrarla.
+     * @throws IllegalArgumentException si algún bloque trae una hora sin formato HH:mm o fuera de 00:00 a 24:00
+     */
+    public void renderizar(List<BloqueCronogramaExportDTO> bloques, OutputStream salida) throws DocumentException {
+        renderizar(preparar(bloques), salida);
+    }
+
+    /** Escribe el PDF en {@code salida} sin cerrarla */
+    public void renderizar(Preparado cronograma, OutputStream salida) throws DocumentException {
+        List<BloqueCronogramaExportDTO> bloques = cronograma.bloques();
+        int[] entradas = cronograma.entradas();
+        int[] salidas = cronograma.salidas();
+
+        Document document = new Document(PageSize.A4.rotate(), MARGEN, MARGEN, MARGEN, MARGEN);
+        PdfWriter writer = PdfWriter.getInstance(document, salida);
+        writer.setCloseStream(false);
+        document.open();
+        PdfContentByte cb = writer.getDirectContent();
+
+        Grilla grilla = new Grilla(document, plantilla.getAnchos(), cronograma.inicio(), cronograma.fin());
+        dibujarFondo(cb, grilla);
+        cb.setColorFill(plantilla.getColorBloque());
+        for (int i = 0; i < bloques.size(); i++) {
+            if (seDibuja(bloques.get(i), entradas[i], salidas[i])) {
+                cb.rectangle(grilla.columnas[bloques.get(i).getDia()] + 0.5f, grilla.y(salidas[i]),
+                        grilla.ancho(bloques.get(i).getDia()) - 1f, grilla.y(entradas[i]) - grilla.y(salidas[i]));
+            }
+        }
+        cb.fill();
+        dibujarBordes(cb, grilla);
+
+        cb.beginText();
+        dibujarTextosFijos(cb, grilla);
+        for (int i = 0; i < bloques.size(); i++) {
+            if (seDibuja(bloques.get(i), entradas[i], salidas[i])) {
+                dibujarTextoBloque(cb, grilla, bloques.get(i), entradas[i], salidas[i]);
+            }
+        }
+        cb.endText();
+        dibujarPie(cb, document);
+
+        document.close();
+    }
+
+    private static boolean seDibuja(BloqueCronogramaExportDTO b, int entrada, int salida) {
+        return b.getDia() >= 1 && b.getDia() <= DIAS && salida > entrada;
+    }
+
+    /** Posiciones de la hoja: bordes de cada columna y la escala de minutos a puntos */
+    private static final class Grilla {
+        final float[] columnas;
+        final float arriba;
+        final float abajo;
+        final int inicio;
+        final int fin;
+        final float puntosPorMinuto;
+        final int pasoEtiqueta;
+
+        Grilla(Document document, float[] anchos, int inicio, int fin) {
+            float total = 0;
+            for (float a : anchos) {
+                total += a;
+            }
+            columnas = new float[anchos.length + 1];
+            columnas[0] = document.left();
+            float ancho = document.right() - document.left();
+            for (int i = 0; i < anchos.length; i++) {
+                columnas[i + 1] = columnas[i] + ancho * anchos[i] / total;
+            }
+            this.arriba = document.top();
+            this.abajo = document.bottom() + ALTO_PIE;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.puntosPorMinuto = (arriba - ALTO_ENCABEZADO - abajo) / (fin - inicio);
+            int paso = PASOS_ETIQUETA[PASOS_ETIQUETA.length - 1];
+            for (int p : PASOS_ETIQUETA) {
+                if (p * puntosPorMinuto >= ALTO_MINIMO_ETIQUETA) {
+                    paso = p;
+                    break;
+                }
+            }
+            this.pasoEtiqueta = paso;
+        }
+
+        /** @return la altura en la hoja de un minuto del día, recortada al rango de la grilla */
+        float y(int minuto) {
+            int m = Math.max(inicio, Math.min(fin, minuto));
+            return arriba - ALTO_ENCABEZADO - (m - inicio) * puntosPorMinuto;
+        }
+
+        float ancho(int columna) {
+            return columnas[columna + 1] - columnas[columna];
+        }
+
+        float centro(int columna) {
+            return (columnas[columna] + columnas[columna + 1]) / 2;
+        }
+    }
+
+    /** Banda del encabezado, fondo de la columna "Hora" y líneas horizontales en cada etiqueta */
+    private void dibujarFondo(PdfContentByte cb, Grilla g) {
+        float[] col = g.columnas;
+        float izquierda = col[0];
+        float derecha = col[col.length - 1];
+        cb.setColorFill(plantilla.getColorEncabezado());
+        cb.rectangle(izquierda, g.arriba - ALTO_ENCABEZADO, derecha - izquierda, ALTO_ENCABEZADO);
+        cb.fill();
+        cb.setColorFill(plantilla.getColorHora());
+        cb.rectangle(izquierda, g.abajo, g.ancho(0), g.y(g.inicio) - g.abajo);
+        cb.fill();
+
+        cb.setLineWidth(0.3f);
+        cb.setColorStroke(plantilla.getColorLinea());
+        for (int m = g.inicio + g.pasoEtiqueta; m < g.fin; m += g.pasoEtiqueta) {
+            cb.moveTo(izquierda, g.y(m));
+            cb.lineTo(derecha, g.y(m));
+        }
+        cb.stroke();
+    }
+
+    /** Separadores de columna y marco, por encima de los bloques */
+    private void dibujarBordes(PdfContentByte cb, Grilla g) {
+        float[] col = g.columnas;
+        cb.setLineWidth(0.5f);
+        cb.setColorStroke(plantilla.getColorEncabezado());
+        for (float x : col) {
+            cb.moveTo(x, g.arriba);
+            cb.lineTo(x, g.abajo);
+        }
+        cb.moveTo(col[0], g.arriba);
+        cb.lineTo(col[col.length - 1], g.arriba);
+        cb.moveTo(col[0], g.abajo);
+        cb.lineTo(col[col.length - 1], g.abajo);
+        cb.stroke();
+    }
+
+    /** Nombres de los días (en negrita simulada, como hace OpenPDF con Font.BOLD) y etiquetas de hora */
+    private void dibujarTextosFijos(PdfContentByte cb, Grilla g) {
+        BaseFont fuente = plantilla.getPtsans();
+        cb.setColorFill(Color.WHITE);
+        cb.setColorStroke(Color.WHITE);
+        cb.setLineWidth(TAMANIO_ENCABEZADO / 30f);
+        cb.setTextRenderingMode(PdfContentByte.TEXT_RENDER_MODE_FILL_STROKE);
+        cb.setFontAndSize(fuente, TAMANIO_ENCABEZADO);
+        List<String> encabezados = plantilla.getEncabezados();
+        for (int i = 0; i < encabezados.size(); i++) {
+            cb.showTextAligned(PdfContentByte.ALIGN_CENTER, encabezados.get(i), g.centro(i),
+                    g.arriba - ALTO_ENCABEZADO + 3f, 0);
+        }
+
+        cb.setTextRenderingMode(PdfContentByte.TEXT_RENDER_MODE_FILL);
+        cb.setColorFill(Color.BLACK);
+        cb.setFontAndSize(fuente, TAMANIO_TEXTO);
+        for (int m = g.inicio; m < g.fin; m += g.pasoEtiqueta) {
+            cb.showTextAligned(PdfContentByte.ALIGN_CENTER, plantilla.etiquetaDeMinuto(m), g.centro(0),
+                    g.y(m) - INTERLINEADO, 0);
+        }
+    }
+
+    /** Materia, sección y horario centrados en el rectángulo; si no entran, se omiten las últimas líneas */
+    private void dibujarTextoBloque(PdfContentByte cb, Grilla g, BloqueCronogramaExportDTO b, int entrada,
+                                    int salida) {
+        String materia = b.getNombreMateria() + (b.getSeccion() != null ? " (" + b.getSeccion() + ")" : "");
+        List<String> lineas = partirEnLineas(materia, g.ancho(b.getDia()) - 3f);
+        lineas.add(b.getHoraEntrada() + " - " + b.getHoraSalida());
+
+        float arriba = g.y(entrada);
+        float abajo = g.y(salida);
+        int entran = Math.max(1, Math.min(lineas.size(), (int) ((arriba - abajo - 1f) / INTERLINEADO)));
+        float base = (arriba + abajo) / 2 + entran * INTERLINEADO / 2 - TAMANIO_TEXTO;
+        for (int i = 0; i < entran; i++) {
+            cb.showTextAligned(PdfContentByte.ALIGN_CENTER, lineas.get(i), g.centro(b.getDia()),
+                    base - i * INTERLINEADO, 0);
+        }
+    }
+
+    /** Corta el texto por espacios para que cada línea entre en el ancho con la fuente del cuerpo */
+    private List<String> partirEnLineas(String texto, float ancho) {
+        BaseFont fuente = plantilla.getPtsans();
+        float espacio = fuente.getWidthPoint(' ', TAMANIO_TEXTO);
+        List<String> lineas = new ArrayList<>(3);
+        StringBuilder linea = new StringBuilder();
+        float anchoLinea = 0;
+        for (String palabra : texto.split(" ")) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            float anchoPalabra = fuente.getWidthPoint(palabra, TAMANIO_TEXTO);
+            if (!linea.isEmpty() && anchoLinea + espacio + anchoPalabra > ancho) {
+                lineas.add(linea.toString());
+                linea.setLength(0);
+                anchoLinea = 0;
+            }
+            if (!linea.isEmpty()) {
+                linea.append(' ');
+                anchoLinea += espacio;
+            }
+            linea.append(palabra);
+            anchoLinea += anchoPalabra;
+        }
+        lineas.add(linea.toString());
+        return lineas;
+    }
+
+    /** Logos y links a los autores, al pie de la hoja */
+    void dibujarPie(PdfContentByte cb, Document document) throws DocumentException {
+        float izquierda = document.left() + 12f;
+        float centro = document.bottom() + 21f;
+        Image logo = plantilla.logo();
+        cb.addImage(logo, logo.getScaledWidth(), 0, 0, logo.getScaledHeight(),
+                izquierda, centro - logo.getScaledHeight() / 2);
+        Image linkedin = plantilla.linkedin();
+        cb.addImage(linkedin, linkedin.getScaledWidth(), 0, 0, linkedin.getScaledHeight(),
+                izquierda + 58f, centro - linkedin.getScaledHeight() / 2);
+
+        Font font = plantilla.getFontFooter();
+        float base = centro - font.getSize() / 3;
+        float x = izquierda + 116f;
+        x = dibujarLink(cb, "Francisco López Mora", "https://www.linkedin.com/in/franciscolopezmora/", x, base);
+        cb.beginText();
+        cb.setColorFill(Color.BLACK);
+        cb.setFontAndSize(plantilla.getPtsans(), font.getSize());
+        cb.showTextAligned(PdfContentByte.ALIGN_LEFT, SEPARADOR_PIE, x, base, 0);
+        cb.endText();
+        x += plantilla.getPtsans().getWidthPoint(SEPARADOR_PIE, font.getSize());
+        dibujarLink(cb, "Nicolás Soto Garay", "https://www.linkedin.com/in/franconicolassotogaray/", x, base);
+    }
+
+    /** Texto subrayado con un link; devuelve dónde termina */
+    private float dibujarLink(PdfContentByte cb, String texto, String url, float x, float base) {
+        Font font = plantilla.getFontFooter();
+        float ancho = plantilla.getPtsans().getWidthPoint(texto, font.getSize());
+        cb.beginText();
+        cb.setColorFill(font.getColor());
+        cb.setFontAndSize(plantilla.getPtsans(), font.getSize());
+        cb.showTextAligned(PdfContentByte.ALIGN_LEFT, texto, x, base, 0);
+        cb.endText();
+        cb.setColorStroke(font.getColor());
+        cb.setLineWidth(0.5f);
+        cb.moveTo(x, base - 1.5f);
+        cb.lineTo(x + ancho, base - 1.5f);
+        cb.stroke();
+        cb.setAction(new PdfAction(url), x, base - 3f, x + ancho, base + font.getSize());
+        return x + ancho;
+    }
+
+    /**
+     * "HH:mm" (o "H:mm") a minutos desde medianoche, entre 00:00 y 24:00. Acepta también "HH:mm:ss"
+     * (como escribe LocalTime con segundos) e ignora los segundos.
+     */
+    static int aMinutos(String hora) {
+        int dosPuntos = hora == null ? -1 : hora.indexOf(':');
+        if (dosPuntos < 1) {
+            throw new IllegalArgumentException("Hora inválida: " + hora);
+        }
+        int finMinutos = hora.indexOf(':', dosPuntos + 1);
+        if (finMinutos < 0) {
+            finMinutos = hora.length();
+        }
+        int horas;
+        int minutos;
+        int segundos;
+        try {
+            horas = Integer.parseInt(hora, 0, dosPuntos, 10);
+            minutos = Integer.parseInt(hora, dosPuntos + 1, finMinutos, 10);
+            segundos = finMinutos < hora.length() ? Integer.parseInt(hora, finMinutos + 1, hora.length(), 10) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Hora inválida: " + hora);
+        }
+        int total = horas * 60 + minutos;
+        if (horas < 0 || minutos < 0 || minutos >= 60 || segundos < 0 || segundos >= 60
+                || total > 24 * 60 || (total == 24 * 60 && segundos > 0)) {
+            throw new IllegalArgumentException("Hora fuera de rango: " + hora);
+        }
+        return total;
+    }
+}
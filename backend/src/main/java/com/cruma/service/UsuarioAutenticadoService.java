@@ -0,0 +1,75 @@
+package com.cruma.service;
+
+import com.cruma.model.Usuario;
+import com.cruma.model.UsuarioSesion;
+import com.cruma.repository.UsuarioRepository;
+import com.cruma.util.OAuth2UserHelper;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Resuelve el usuario de la request. Con el principal del login ({@link UsuarioSesion}) el id sale
+ * de la sesión sin ir a la BD; las sesiones abiertas antes de ese cambio siguen buscando por email.
+ */
+@Service
+public class UsuarioAutenticadoService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final GitHubEmailService gitHubEmailService;
+
+    public UsuarioAutenticadoService(UsuarioRepository usuarioRepository,
+                                     OAuth2AuthorizedClientService authorizedClientService,
+                                     GitHubEmailService gitHubEmailService) {
+        this.usuarioRepository = usuarioRepository;
+        this.authorizedClientService = authorizedClientService;
+        this.gitHubEmailService = gitHubEmailService;
+    }
+
+    /** Id del usuario autenticado */
+    public UUID obtenerId(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User oAuth2User)) {
+            throw new BadCredentialsException("No autenticado");
+        }
+        if (oAuth2User instanceof UsuarioSesion sesion) {
+            return sesion.getUsuarioId();
+        }
+        String email = obtenerEmail(authentication);
+        if (email == null || email.isBlank()) {
+            throw new BadCredentialsException("No se pudo obtener el email del usuario");
+        }
+        return usuarioRepository.findByMail(email)
+                .map(Usuario::getId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+
+    /** Email del usuario autenticado, o null si no se puede obtener */
+    public String obtenerEmail(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User oAuth2User)) {
+            return null;
+        }
+        if (!(authentication instanceof OAuth2AuthenticationToken token)) {
+            return OAuth2UserHelper.extractEmail(oAuth2User, null, () -> null);
+        }
+        return OAuth2UserHelper.extractEmail(oAuth2User, token.getAuthorizedClientRegistrationId(),
+                () -> gitHubEmailService.obtenerEmail(token.getName(), accessToken(token)));
+    }
+
+    private String accessToken(OAuth2AuthenticationToken token) {
+        OAuth2AuthorizedClient cliente = authorizedClientService.loadAuthorizedClient(
+                token.getAuthorizedClientRegistrationId(), token.getName());
+        return cliente != null && cliente.getAccessToken() != null ? cliente.getAccessToken().getTokenValue() : null;
+    }
+
+    /** Referencia al usuario autenticado para asociarlo a otras entidades, sin cargarlo */
+    public Usuario obtenerReferencia(Authentication authentication) {
+        return usuarioRepository.getReferenceById(obtenerId(authentication));
+    }
+}
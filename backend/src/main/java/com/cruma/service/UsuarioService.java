@@ -3,8 +3,10 @@ package com.cruma.service;
 import com.cruma.model.Usuario;
 import com.cruma.repository.UsuarioRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -23,4 +25,30 @@ public class UsuarioService {
     public void delete(UUID id) {
         repo.deleteById(id);
     }
+
+    /**
+     * Crea el usuario si no existe o actualiza su nombre y proveedores.
+     * Se llama una vez por login; después la sesión ya tiene el id.
+     */
+    @Transactional
+    public Usuario registrarLogin(String email, String nombre, String proveedor) {
+        Optional<Usuario> existente = repo.findByMailWithProveedores(email);
+        Usuario usuario;
+
+        if (existente.isPresent()) {
+            usuario = existente.get();
+            // Entidad administrada: si el proveedor ya estaba y el nombre no cambió, no se escribe nada
+            usuario.agregarProveedor(proveedor);
+            if (nombre != null && !nombre.isBlank() && !nombre.equals(usuario.getNombre())) {
+                usuario.setNombre(nombre);
+            }
+        } else {
+            usuario = new Usuario();
+            usuario.setId(UUID.randomUUID());
+            usuario.setMail(email);
+            usuario.setNombre(nombre != null && !nombre.isBlank() ? nombre : email);
+            usuario.agregarProveedor(proveedor);
+        }
+        return repo.save(usuario);
+    }
 }
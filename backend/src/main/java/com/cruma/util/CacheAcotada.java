@@ -0,0 +1,111 @@
+package com.cruma.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria con tope de entradas y vencimiento por tiempo.
+ * Cuando se llena descarta la entrada usada hace más tiempo (LRU); las vencidas se descartan al leerlas
+ * o al insertar. Es sincronizada: pensada para pocos accesos por request, no para caminos calientes.
+ */
+public class CacheAcotada<K, V> {
+
+    private record Entrada<V>(V valor, long venceEn) {
+    }
+
+    private final int maxEntradas;
+    private final long ttlMillis;
+    private final Clock reloj;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    private long desalojos;
+
+    public CacheAcotada(int maxEntradas, Duration ttl) {
+        this(maxEntradas, ttl, Clock.systemUTC());
+    }
+
+    public CacheAcotada(int maxEntradas, Duration ttl, Clock reloj) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("maxEntradas debe ser mayor a 0");
+        }
+        this.maxEntradas = maxEntradas;
+        this.ttlMillis = ttl.toMillis();
+        this.reloj = reloj;
+        // Orden de acceso: la primera entrada es la usada hace más tiempo
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** @return el valor guardado, o null si no está o ya venció */
+    public synchronized V get(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceEn() <= reloj.millis()) {
+            entradas.remove(clave);
+            desalojos++;
+            return null;
+        }
+        return entrada.valor();
+    }
+
+    public synchronized void put(K clave, V valor) {
+        entradas.put(clave, new Entrada<>(valor, reloj.millis() + ttlMillis));
+        if (entradas.size() > maxEntradas) {
+            purgarVencidas();
+        }
+        Iterator<K> masViejas = entradas.keySet().iterator();
+        while (entradas.size() > maxEntradas) {
+            masViejas.next();
+            masViejas.remove();
+            desalojos++;
+        }
+    }
+
+    /**
+     * Devuelve el valor guardado o lo calcula. El cálculo corre fuera del lock, así una llamada lenta
+     * no frena al resto; dos pedidos simultáneos de la misma clave pueden calcularlo los dos.
+     * Los null no se guardan.
+     */
+    public V obtener(K clave, Supplier<V> calcular) {
+        V valor = get(clave);
+        if (valor != null) {
+            return valor;
+        }
+        valor = calcular.get();
+        if (valor != null) {
+            put(clave, valor);
+        }
+        return valor;
+    }
+
+    /** @return el valor que había, o null */
+    public synchronized V remove(K clave) {
+        Entrada<V> entrada = entradas.remove(clave);
+        return entrada != null ? entrada.valor() : null;
+    }
+
+    /** Entradas guardadas, incluidas las vencidas que todavía no se descartaron */
+    public synchronized int size() {
+        return entradas.size();
+    }
+
+    /** Entradas descartadas por tope o por vencimiento desde que se creó la caché */
+    public synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    private void purgarVencidas() {
+        long ahora = reloj.millis();
+        Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().venceEn() <= ahora) {
+                it.remove();
+                desalojos++;
+            }
+        }
+    }
+}
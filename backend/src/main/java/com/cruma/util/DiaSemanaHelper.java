@@ -0,0 +1,37 @@
+package com.cruma.util;
+
+/**
+ * Utilidad para normalizar el día de la semana que manda el cliente.
+ * Puede venir como número ("1") o como nombre ("LUNES", "MIÉRCOLES").
+ */
+public class DiaSemanaHelper {
+
+    /** Día desconocido o no parseable */
+    public static final int DESCONOCIDO = 0;
+
+    private DiaSemanaHelper() {
+    }
+
+    /**
+     * Convierte el día a número (1 = lunes ... 7 = domingo), igual que {@code horario.dia} en la BD.
+     *
+     * @param dia el día como número o nombre, con o sin tildes
+     * @return el número de día, o {@link #DESCONOCIDO} si no se reconoce
+     */
+    public static int aNumero(String dia) {
+        if (dia == null || dia.isBlank()) {
+            return DESCONOCIDO;
+        }
+        String valor = dia.trim().toUpperCase();
+        return switch (valor) {
+            case "1", "LUNES" -> 1;
+            case "2", "MARTES" -> 2;
+            case "3", "MIÉRCOLES", "MIERCOLES" -> 3;
+            case "4", "JUEVES" -> 4;
+            case "5", "VIERNES" -> 5;
+            case "6", "SÁBADO", "SABADO" -> 6;
+            case "7", "DOMINGO" -> 7;
+            default -> DESCONOCIDO;
+        };
+    }
+}
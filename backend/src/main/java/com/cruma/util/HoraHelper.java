@@ -0,0 +1,31 @@
+package com.cruma.util;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utilidad para leer las horas que manda el frontend ("8:30" o "08:30").
+ */
+public class HoraHelper {
+
+    private static final DateTimeFormatter HORA_FMT = DateTimeFormatter.ofPattern("H:mm");
+
+    private HoraHelper() {
+    }
+
+    /**
+     * @return la hora, o null si viene vacía
+     * @throws IllegalArgumentException si no tiene formato H:mm
+     */
+    public static LocalTime parsear(String hora) {
+        if (hora == null || hora.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(hora.trim(), HORA_FMT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Hora inválida: " + hora);
+        }
+    }
+}
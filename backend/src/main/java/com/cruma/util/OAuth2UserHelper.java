@@ -1,15 +1,12 @@
 package com.cruma.util;
 
+import com.cruma.model.UsuarioSesion;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
-import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
-import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Utilidad para extraer información de usuarios OAuth2.
@@ -17,18 +14,20 @@ import java.util.Map;
  */
 public class OAuth2UserHelper {
 
-    private static final String GITHUB_EMAILS_API = "https://api.github.com/user/emails";
-
     /**
      * Extrae el email del usuario OAuth2.
-     * 
+     *
      * @param user el usuario OAuth2
-     * @param authentication la autenticación actual
-     * @param authorizedClientService servicio para obtener tokens de acceso
+     * @param registrationId "google" o "github"
+     * @param emailDeGitHub consulta a la API de GitHub; se llama solo si el perfil no trae el email
      * @return el email del usuario, o null si no se puede obtener
      */
-    public static String extractEmail(OAuth2User user, Authentication authentication, 
-                                     OAuth2AuthorizedClientService authorizedClientService) {
+    public static String extractEmail(OAuth2User user, String registrationId, Supplier<String> emailDeGitHub) {
+        // Principal armado en el login: el email ya está resuelto
+        if (user instanceof UsuarioSesion sesion) {
+            return sesion.getMail();
+        }
+
         // Google OIDC
         if (user instanceof OidcUser oidcUser) {
             return oidcUser.getEmail();
@@ -42,13 +41,10 @@ public class OAuth2UserHelper {
         }
         
         // Si no hay email en atributos, intentar obtenerlo de la API de GitHub
-        if (authentication instanceof OAuth2AuthenticationToken token) {
-            String registrationId = token.getAuthorizedClientRegistrationId();
-            if ("github".equals(registrationId)) {
-                String githubEmail = obtenerEmailDeGitHub(token, authorizedClientService);
-                if (githubEmail != null) {
-                    return githubEmail;
-                }
+        if ("github".equals(registrationId)) {
+            String githubEmail = emailDeGitHub.get();
+            if (githubEmail != null) {
+                return githubEmail;
             }
         }
         
@@ -67,6 +63,9 @@ public class OAuth2UserHelper {
      * @return el nombre del usuario, o null si no se puede obtener
      */
     public static String extractName(OAuth2User user) {
+        if (user instanceof UsuarioSesion sesion) {
+            return sesion.getNombre();
+        }
         if (user instanceof OidcUser oidcUser) {
             String name = oidcUser.getFullName();
             if (name != null && !name.isBlank()) {
@@ -92,6 +91,9 @@ public class OAuth2UserHelper {
      * @return "google" o "github"
      */
     public static String determinarProveedor(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UsuarioSesion sesion) {
+            return sesion.getProveedor();
+        }
         if (authentication.getPrincipal() instanceof OidcUser) {
             return "google";
         }
@@ -103,73 +105,4 @@ public class OAuth2UserHelper {
         }
         return "google";
     }
-
-    /**
-     * Obtiene el email de GitHub haciendo una llamada a la API /user/emails
-     */
-    private static String obtenerEmailDeGitHub(OAuth2AuthenticationToken token, 
-                                              OAuth2AuthorizedClientService authorizedClientService) {
-        try {
-            OAuth2AuthorizedClient authorizedClient = authorizedClientService.loadAuthorizedClient(
-                token.getAuthorizedClientRegistrationId(),
-                token.getName()
-            );
-            
-            if (authorizedClient == null) {
-                return null;
-            }
-            
-            OAuth2AccessToken accessTokenObj = authorizedClient.getAccessToken();
-            if (accessTokenObj == null) {
-                return null;
-            }
-            
-            String accessToken = accessTokenObj.getTokenValue();
-            
-            RestTemplate restTemplate = new RestTemplate();
-            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-            headers.set("Authorization", "Bearer " + accessToken);
-            headers.set("Accept", "application/vnd.github.v3+json");
-            
-            org.springframework.http.HttpEntity<?> entity = new org.springframework.http.HttpEntity<>(headers);
-            org.springframework.http.ResponseEntity<EmailInfo[]> response = restTemplate.exchange(
-                GITHUB_EMAILS_API,
-                org.springframework.http.HttpMethod.GET,
-                entity,
-                EmailInfo[].class
-            );
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                // Buscar el email primario
-                for (EmailInfo emailInfo : response.getBody()) {
-                    if (emailInfo.primary != null && emailInfo.primary) {
-                        return emailInfo.email;
-                    }
-                }
-                // Si no hay primario, buscar el primero verificado
-                for (EmailInfo emailInfo : response.getBody()) {
-                    if (emailInfo.verified != null && emailInfo.verified && emailInfo.email != null) {
-                        return emailInfo.email;
-                    }
-                }
-                // Si no hay verificado, usar el primero
-                if (response.getBody().length > 0 && response.getBody()[0].email != null) {
-                    return response.getBody()[0].email;
-                }
-            }
-        } catch (Exception e) {
-            // Si falla, continuar con el fallback silenciosamente
-        }
-        return null;
-    }
-    
-    /**
-     * Clase auxiliar para deserializar la respuesta de GitHub /user/emails
-     */
-    private static class EmailInfo {
-        public String email;
-        public Boolean primary;
-        public Boolean verified;
-    }
 }
-
@@ -0,0 +1,97 @@
+-- Esquema inicial de CRUMA, tal como estaba antes de usar migraciones.
+-- En una base existente no se ejecuta: Flyway la toma como versión 1 (baseline-on-migrate).
+
+CREATE TYPE detalle_estado_enum AS ENUM ('SELECCIONABLE', 'SELECCIONADO', 'SUPERPUESTO');
+
+CREATE TABLE carrera (
+    id     serial PRIMARY KEY,
+    codigo varchar(50)  NOT NULL UNIQUE,
+    nombre varchar(255) NOT NULL
+);
+
+CREATE TABLE periodo (
+    id          serial PRIMARY KEY,
+    codigo      varchar(10)  NOT NULL UNIQUE,
+    descripcion varchar(255) NOT NULL
+);
+
+CREATE TABLE materia (
+    id           serial PRIMARY KEY,
+    codigo       varchar(50)  NOT NULL UNIQUE,
+    nombre       varchar(255) NOT NULL,
+    anio_carrera smallint     NOT NULL,
+    electiva     boolean      NOT NULL
+);
+
+CREATE TABLE comision (
+    id         serial PRIMARY KEY,
+    seccion    varchar(10) NOT NULL,
+    carrera_id integer     NOT NULL REFERENCES carrera (id)
+);
+
+CREATE TABLE comision_materia (
+    id          serial PRIMARY KEY,
+    comision_id integer NOT NULL REFERENCES comision (id),
+    materia_id  integer NOT NULL REFERENCES materia (id),
+    periodo_id  integer NOT NULL REFERENCES periodo (id)
+);
+
+CREATE TABLE horario (
+    id          serial PRIMARY KEY,
+    dia_semana  varchar(9) NOT NULL,
+    hora_inicio time       NOT NULL,
+    hora_fin    time       NOT NULL
+);
+
+CREATE TABLE comision_materia_horario (
+    id                  serial PRIMARY KEY,
+    comision_materia_id integer NOT NULL REFERENCES comision_materia (id) ON DELETE CASCADE,
+    horario_id          integer NOT NULL REFERENCES horario (id) ON DELETE CASCADE
+);
+
+CREATE TABLE correlativa_regular (
+    materia_id         integer NOT NULL REFERENCES materia (id),
+    materia_regular_id integer NOT NULL REFERENCES materia (id),
+    PRIMARY KEY (materia_id, materia_regular_id)
+);
+
+CREATE TABLE correlativa_aprobada (
+    materia_id          integer NOT NULL REFERENCES materia (id),
+    materia_aprobada_id integer NOT NULL REFERENCES materia (id),
+    PRIMARY KEY (materia_id, materia_aprobada_id)
+);
+
+CREATE TABLE usuario (
+    id     uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    nombre varchar(255) NOT NULL,
+    mail   varchar(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE usuario_proveedor (
+    usuario_id uuid        NOT NULL REFERENCES usuario (id) ON DELETE CASCADE,
+    proveedor  varchar(50) NOT NULL,
+    PRIMARY KEY (usuario_id, proveedor)
+);
+
+-- estado: 0 = bloqueada / pendiente, 1 = habilitada, 2 = regular, 3 = aprobada
+CREATE TABLE usuario_materia_estado (
+    usuario_id uuid                     NOT NULL REFERENCES usuario (id) ON DELETE CASCADE,
+    materia_id integer                  NOT NULL REFERENCES materia (id),
+    estado     smallint                 NOT NULL,
+    updated_at timestamp with time zone NOT NULL DEFAULT now(),
+    PRIMARY KEY (usuario_id, materia_id)
+);
+
+CREATE TABLE cronograma (
+    id             bigserial PRIMARY KEY,
+    nombre         varchar(255)             NOT NULL,
+    fecha_creacion timestamp with time zone NOT NULL DEFAULT now(),
+    usuario_id     uuid                     NOT NULL REFERENCES usuario (id) ON DELETE CASCADE
+);
+
+CREATE TABLE detalle_cronograma (
+    id                          bigserial PRIMARY KEY,
+    cronograma_id               bigint              NOT NULL REFERENCES cronograma (id) ON DELETE CASCADE,
+    estado                      detalle_estado_enum NOT NULL DEFAULT 'SELECCIONABLE',
+    comision_materia_horario_id integer             NOT NULL REFERENCES comision_materia_horario (id)
+);
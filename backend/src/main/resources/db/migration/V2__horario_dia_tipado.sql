@@ -0,0 +1,33 @@
+-- Día de la semana tipado en horario: 1 = lunes ... 7 = domingo.
+-- dia_semana podía tener "1" o el nombre ("LUNES", "MIÉRCOLES", con o sin tilde).
+
+ALTER TABLE horario ADD COLUMN dia smallint;
+
+UPDATE horario
+SET dia = CASE upper(trim(dia_semana))
+    WHEN '1' THEN 1 WHEN 'LUNES' THEN 1
+    WHEN '2' THEN 2 WHEN 'MARTES' THEN 2
+    WHEN '3' THEN 3 WHEN 'MIÉRCOLES' THEN 3 WHEN 'MIERCOLES' THEN 3
+    WHEN '4' THEN 4 WHEN 'JUEVES' THEN 4
+    WHEN '5' THEN 5 WHEN 'VIERNES' THEN 5
+    WHEN '6' THEN 6 WHEN 'SÁBADO' THEN 6 WHEN 'SABADO' THEN 6
+    WHEN '7' THEN 7 WHEN 'DOMINGO' THEN 7
+END;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM horario WHERE dia IS NULL) THEN
+        RAISE EXCEPTION 'Hay horarios con dia_semana no reconocido; corregirlos antes de migrar';
+    END IF;
+END $$;
+
+ALTER TABLE horario ALTER COLUMN dia SET NOT NULL;
+ALTER TABLE horario ADD CONSTRAINT horario_dia_check CHECK (dia BETWEEN 1 AND 7);
+
+-- La aplicación ya no escribe dia_semana; queda por compatibilidad con cargas externas
+ALTER TABLE horario ALTER COLUMN dia_semana DROP NOT NULL;
+
+-- Búsqueda exacta de un bloque (día, inicio, fin) y de comisión-materia por (materia, comisión, periodo)
+CREATE INDEX IF NOT EXISTS idx_horario_dia_horas ON horario (dia, hora_inicio, hora_fin);
+CREATE INDEX IF NOT EXISTS idx_comision_materia_materia_comision_periodo
+    ON comision_materia (materia_id, comision_id, periodo_id);
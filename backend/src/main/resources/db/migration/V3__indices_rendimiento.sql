@@ -0,0 +1,25 @@
+-- Índices para las consultas frecuentes de los repositorios.
+-- comision_materia(materia_id) ya lo cubre el prefijo de idx_comision_materia_materia_comision_periodo (V2).
+-- Los de usuario_materia_estado y correlativa_* repiten el prefijo de la clave primaria del esquema
+-- inicial, pero en bases anteriores a las migraciones no se sabe en qué orden quedó esa clave.
+
+CREATE INDEX IF NOT EXISTS idx_comision_materia_comision_periodo
+    ON comision_materia (comision_id, periodo_id);
+
+CREATE INDEX IF NOT EXISTS idx_comision_materia_horario_comision_materia
+    ON comision_materia_horario (comision_materia_id);
+
+CREATE INDEX IF NOT EXISTS idx_cronograma_usuario
+    ON cronograma (usuario_id);
+
+CREATE INDEX IF NOT EXISTS idx_detalle_cronograma_cronograma
+    ON detalle_cronograma (cronograma_id);
+
+CREATE INDEX IF NOT EXISTS idx_usuario_materia_estado_usuario
+    ON usuario_materia_estado (usuario_id);
+
+CREATE INDEX IF NOT EXISTS idx_correlativa_regular_materia
+    ON correlativa_regular (materia_id);
+
+CREATE INDEX IF NOT EXISTS idx_correlativa_aprobada_materia
+    ON correlativa_aprobada (materia_id);
@@ -0,0 +1,5 @@
+-- Cronograma y detalle_cronograma toman ids de a bloques de 50 (optimizador "pooled" de Hibernate),
+-- así los INSERT se pueden mandar en lote. nextval devuelve el tope de cada bloque, por lo que un
+-- INSERT que use el DEFAULT de la columna consume un bloque entero y no choca con los de la app.
+ALTER SEQUENCE cronograma_id_seq INCREMENT BY 50;
+ALTER SEQUENCE detalle_cronograma_id_seq INCREMENT BY 50;
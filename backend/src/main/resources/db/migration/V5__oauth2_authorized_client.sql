@@ -0,0 +1,17 @@
+-- Tabla de JdbcOAuth2AuthorizedClientService (esquema de Spring Security, con bytea en lugar de blob).
+-- Solo se usa con cruma.oauth2.clientes.jdbc=true; las filas más viejas que el TTL se purgan periódicamente.
+CREATE TABLE IF NOT EXISTS oauth2_authorized_client (
+    client_registration_id  varchar(100)  NOT NULL,
+    principal_name          varchar(200)  NOT NULL,
+    access_token_type       varchar(100)  NOT NULL,
+    access_token_value      bytea         NOT NULL,
+    access_token_issued_at  timestamp     NOT NULL,
+    access_token_expires_at timestamp     NOT NULL,
+    access_token_scopes     varchar(1000) DEFAULT NULL,
+    refresh_token_value     bytea         DEFAULT NULL,
+    refresh_token_issued_at timestamp     DEFAULT NULL,
+    created_at              timestamp     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (client_registration_id, principal_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorized_client_created_at ON oauth2_authorized_client (created_at);
@@ -0,0 +1,4 @@
+-- La purga de oauth2_authorized_client mira access_token_issued_at: JdbcOAuth2AuthorizedClientService
+-- lo actualiza en cada login, mientras que created_at queda con la fecha del primero.
+DROP INDEX IF EXISTS idx_oauth2_authorized_client_created_at;
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorized_client_emision ON oauth2_authorized_client (access_token_issued_at);
@@ -0,0 +1,36 @@
+-- V2 dejó dia_semana sin mantener: dia es NOT NULL sin default, así que una carga que escribe solo
+-- dia_semana fallaba, y las filas que inserta la aplicación quedaban con dia_semana en NULL.
+-- Este trigger mantiene las dos columnas iguales: si viene solo dia_semana (o cambia solo ella)
+-- se calcula dia, y dia_semana siempre se reescribe con el nombre del día que quedó en dia.
+
+CREATE OR REPLACE FUNCTION horario_sincronizar_dia() RETURNS trigger AS $$
+BEGIN
+    IF NEW.dia IS NULL
+       OR (TG_OP = 'UPDATE' AND NEW.dia_semana IS DISTINCT FROM OLD.dia_semana AND NEW.dia = OLD.dia) THEN
+        NEW.dia := CASE upper(trim(NEW.dia_semana))
+            WHEN '1' THEN 1 WHEN 'LUNES' THEN 1
+            WHEN '2' THEN 2 WHEN 'MARTES' THEN 2
+            WHEN '3' THEN 3 WHEN 'MIÉRCOLES' THEN 3 WHEN 'MIERCOLES' THEN 3
+            WHEN '4' THEN 4 WHEN 'JUEVES' THEN 4
+            WHEN '5' THEN 5 WHEN 'VIERNES' THEN 5
+            WHEN '6' THEN 6 WHEN 'SÁBADO' THEN 6 WHEN 'SABADO' THEN 6
+            WHEN '7' THEN 7 WHEN 'DOMINGO' THEN 7
+        END;
+        IF NEW.dia IS NULL THEN
+            RAISE EXCEPTION 'dia_semana no reconocido: %', NEW.dia_semana;
+        END IF;
+    END IF;
+    -- Con dia fuera de 1..7 queda NULL y el CHECK de dia rechaza la fila
+    NEW.dia_semana := (ARRAY['LUNES', 'MARTES', 'MIÉRCOLES', 'JUEVES', 'VIERNES', 'SÁBADO', 'DOMINGO'])[NEW.dia];
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER horario_sincronizar_dia
+    BEFORE INSERT OR UPDATE OF dia, dia_semana ON horario
+    FOR EACH ROW EXECUTE FUNCTION horario_sincronizar_dia();
+
+-- Filas escritas desde V2 sin dia_semana, o con el formato viejo ("1", sin tilde)
+UPDATE horario
+SET dia_semana = (ARRAY['LUNES', 'MARTES', 'MIÉRCOLES', 'JUEVES', 'VIERNES', 'SÁBADO', 'DOMINGO'])[dia]
+WHERE dia_semana IS DISTINCT FROM (ARRAY['LUNES', 'MARTES', 'MIÉRCOLES', 'JUEVES', 'VIERNES', 'SÁBADO', 'DOMINGO'])[dia];
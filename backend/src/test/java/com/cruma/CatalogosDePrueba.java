@@ -0,0 +1,70 @@
+package com.cruma;
+
+import com.cruma.model.Carrera;
+import com.cruma.model.Comision;
+import com.cruma.model.ComisionMateria;
+import com.cruma.model.ComisionMateriaHorario;
+import com.cruma.model.DiaSemana;
+import com.cruma.model.Horario;
+import com.cruma.model.Materia;
+import com.cruma.model.Periodo;
+import com.cruma.service.CatalogoService;
+import com.cruma.service.CatalogoSnapshot;
+import com.cruma.service.CombinacionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Catálogos armados en memoria, sin BD, para los tests de combinaciones y de búsqueda por franjas */
+public final class CatalogosDePrueba {
+
+    public static final int CARRERA_ID = 1;
+    public static final int PERIODO_ID = 1;
+
+    private CatalogosDePrueba() {
+    }
+
+    /**
+     * Materias con ids 1..materias, cada una con {@code comisionesPorMateria} comisiones del periodo
+     * {@link #PERIODO_ID}; cada comisión tiene uno o dos bloques de 90 minutos al azar entre lunes y viernes.
+     */
+    public static CatalogoSnapshot catalogo(Random random, int materias, int comisionesPorMateria) {
+        Carrera carrera = new Carrera(CARRERA_ID, "ISI", "Ingeniería en Sistemas", null);
+        Periodo periodo = new Periodo(PERIODO_ID, "1C", "Primer cuatrimestre", null);
+        List<Materia> materiasBD = new ArrayList<>();
+        List<ComisionMateria> comisionMaterias = new ArrayList<>();
+        int horarioId = 0;
+        for (int m = 1; m <= materias; m++) {
+            Materia materia = new Materia(m, "M" + m, "Materia " + m, (short) 1, false, null);
+            materiasBD.add(materia);
+            for (int c = 1; c <= comisionesPorMateria; c++) {
+                Comision comision = new Comision(c, "1K" + c, carrera, null);
+                ComisionMateria cm = new ComisionMateria(comisionMaterias.size() + 1, comision, materia, periodo,
+                        new ArrayList<>());
+                for (int b = 0; b < 1 + random.nextInt(2); b++) {
+                    LocalTime inicio = LocalTime.of(8, 0).plusMinutes(30L * random.nextInt(24));
+                    Horario horario = new Horario(++horarioId, DiaSemana.deNumero(1 + random.nextInt(5)),
+                            inicio, inicio.plusMinutes(90), null);
+                    cm.getComisionMateriaHorarios().add(new ComisionMateriaHorario(horarioId, cm, horario, null));
+                }
+                comisionMaterias.add(cm);
+            }
+        }
+        return new CatalogoSnapshot(materiasBD, List.of(carrera), List.of(periodo), comisionMaterias);
+    }
+
+    /** Servicio de combinaciones sobre el catálogo dado, con los valores por defecto salvo el presupuesto de nodos */
+    public static CombinacionService combinaciones(CatalogoSnapshot snapshot, long maxNodos) {
+        CatalogoService catalogo = mock(CatalogoService.class);
+        when(catalogo.snapshot()).thenReturn(snapshot);
+        return new CombinacionService(catalogo, new ObjectMapper(), ForkJoinPool.commonPool(),
+                200, 2000, maxNodos, 2000, 10, 10, 10, 2, 3, 100000, 200000);
+    }
+}
@@ -0,0 +1,36 @@
+package com.cruma;
+
+import com.cruma.dto.BloqueCronogramaExportDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Bloques de cronograma para los tests y benchmarks de la exportación a PDF */
+public final class CronogramasDePrueba {
+
+    private CronogramasDePrueba() {
+    }
+
+    public static BloqueCronogramaExportDTO bloque(int dia, String entrada, String salida, String materia) {
+        BloqueCronogramaExportDTO b = new BloqueCronogramaExportDTO();
+        b.setDia(dia);
+        b.setHoraEntrada(entrada);
+        b.setHoraSalida(salida);
+        b.setNombreMateria(materia);
+        b.setSeccion("2K3");
+        return b;
+    }
+
+    /** Una semana típica: dos o tres materias por día, una con nombre largo que ocupa varias líneas */
+    public static List<BloqueCronogramaExportDTO> semana() {
+        List<BloqueCronogramaExportDTO> bloques = new ArrayList<>();
+        for (int dia = 1; dia <= 6; dia++) {
+            bloques.add(bloque(dia, "08:00", "09:30", "Análisis Matemático II"));
+            bloques.add(bloque(dia, "10:15", "12:30", "Sintaxis y Semántica de los Lenguajes"));
+            if (dia % 2 == 0) {
+                bloques.add(bloque(dia, "19:00", "22:15", "Física II"));
+            }
+        }
+        return bloques;
+    }
+}
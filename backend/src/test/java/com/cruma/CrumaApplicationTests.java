@@ -3,7 +3,8 @@ package com.cruma;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Sin base de datos en los tests: las migraciones no se ejecutan
+@SpringBootTest(properties = "spring.flyway.enabled=false")
 class CrumaApplicationTests {
 
 	@Test
@@ -0,0 +1,47 @@
+package com.cruma;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Medición para los benchmarks ({@code @Tag("benchmark")}, se corren con {@code mvn test -Pbenchmark}):
+ * mediana del tiempo por llamada, más estable que el promedio con el JIT y el GC de por medio, y bytes
+ * asignados por llamada en el hilo actual.
+ */
+public final class Medidor {
+
+    @FunctionalInterface
+    public interface Tarea {
+        /** Devuelve algo que dependa del trabajo hecho, para que el JIT no lo descarte */
+        Object ejecutar() throws Exception;
+    }
+
+    public record Medicion(long nanos, long bytes) {
+    }
+
+    private Medidor() {
+    }
+
+    public static Medicion medir(Tarea tarea, int iteraciones) throws Exception {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        Object sumidero = null;
+        // Calentamiento para que el JIT compile antes de medir
+        for (int i = 0; i < iteraciones * 3; i++) {
+            sumidero = tarea.ejecutar();
+        }
+        long[] tiempos = new long[iteraciones];
+        long asignadosInicio = hilos.getThreadAllocatedBytes(id);
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            sumidero = tarea.ejecutar();
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        long asignados = (hilos.getThreadAllocatedBytes(id) - asignadosInicio) / iteraciones;
+        if (sumidero == null) {
+            throw new IllegalStateException("La tarea medida no devolvió nada");
+        }
+        Arrays.sort(tiempos);
+        return new Medicion(tiempos[iteraciones / 2], asignados);
+    }
+}
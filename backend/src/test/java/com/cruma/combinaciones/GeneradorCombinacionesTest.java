@@ -0,0 +1,286 @@
+package com.cruma.combinaciones;
+
+import com.cruma.service.CatalogoSnapshot.Bloque;
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorCombinacionesTest {
+
+    private static int siguienteId = 1;
+
+    private static Candidato comision(int materiaId, int comisionId, int[]... bloques) {
+        List<Bloque> lista = new ArrayList<>();
+        for (int[] b : bloques) {
+            lista.add(new Bloque(siguienteId++, String.valueOf(b[0]), b[0],
+                    LocalTime.of(b[1] / 60, b[1] % 60), LocalTime.of(b[2] / 60, b[2] % 60)));
+        }
+        return Candidato.de(new OpcionComision(siguienteId++, materiaId, comisionId, "K" + comisionId,
+                1, "Sistemas", 1, lista));
+    }
+
+    private static int[] bloque(int dia, String desde, String hasta) {
+        LocalTime d = LocalTime.parse(desde);
+        LocalTime h = LocalTime.parse(hasta);
+        return new int[]{dia, d.getHour() * 60 + d.getMinute(), h.getHour() * 60 + h.getMinute()};
+    }
+
+    @Test
+    void detectaSuperposicionYToleraBloquesContiguos() {
+        OcupacionSemanal a = OcupacionSemanal.rango(1, 8 * 60, 9 * 60 + 30);
+        OcupacionSemanal contigua = OcupacionSemanal.rango(1, 9 * 60 + 30, 11 * 60);
+        OcupacionSemanal solapada = OcupacionSemanal.rango(1, 9 * 60 + 25, 10 * 60);
+        OcupacionSemanal otroDia = OcupacionSemanal.rango(2, 8 * 60, 9 * 60 + 30);
+
+        assertFalse(a.chocaCon(contigua));
+        assertTrue(a.chocaCon(solapada));
+        assertFalse(a.chocaCon(otroDia));
+
+        long[] ocupado = OcupacionSemanal.nuevaDensa();
+        a.marcarEn(ocupado);
+        assertTrue(solapada.chocaCon(ocupado));
+        a.desmarcarEn(ocupado);
+        assertFalse(solapada.chocaCon(ocupado));
+    }
+
+    @Test
+    void enumeraSoloCombinacionesSinChoque() {
+        List<List<Candidato>> candidatos = List.of(
+                List.of(comision(1, 1, bloque(1, "08:00", "10:00")),
+                        comision(1, 2, bloque(3, "18:00", "20:00"))),
+                List.of(comision(2, 3, bloque(1, "09:00", "11:00")),
+                        comision(2, 4, bloque(2, "08:00", "10:00"))),
+                List.of(comision(3, 5, bloque(3, "19:00", "21:00"))));
+
+        List<int[]> encontradas = new ArrayList<>();
+        assertTrue(new GeneradorCombinaciones(candidatos).recorrer(e -> encontradas.add(e.clone())));
+
+        // Materia 3 obliga a descartar la comisión 2 de la materia 1; la 1 choca con la 3 de la materia 2
+        assertEquals(1, encontradas.size());
+        assertArrayEquals(new int[]{0, 1, 0}, encontradas.get(0));
+    }
+
+    @Test
+    void coincideConFuerzaBrutaEnInstanciasAleatorias() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 20; caso++) {
+            List<List<Candidato>> candidatos = new ArrayList<>();
+            int materias = 3 + random.nextInt(4);
+            for (int m = 0; m < materias; m++) {
+                List<Candidato> deMateria = new ArrayList<>();
+                int comisiones = 1 + random.nextInt(4);
+                for (int c = 0; c < comisiones; c++) {
+                    int dia = 1 + random.nextInt(3);
+                    int inicio = 8 * 60 + 5 * random.nextInt(120);
+                    deMateria.add(comision(m, c, new int[]{dia, inicio, inicio + 90}));
+                }
+                candidatos.add(deMateria);
+            }
+
+            Set<String> esperadas = new HashSet<>();
+            fuerzaBruta(candidatos, 0, new int[materias], esperadas);
+
+            Set<String> obtenidas = new HashSet<>();
+            new GeneradorCombinaciones(candidatos).recorrer(e -> obtenidas.add(Arrays.toString(e)));
+
+            assertEquals(esperadas, obtenidas, "caso " + caso);
+        }
+    }
+
+    @Test
+    void elVisitantePuedeCortarLaBusqueda() {
+        List<List<Candidato>> candidatos = new ArrayList<>();
+        for (int m = 0; m < 10; m++) {
+            List<Candidato> deMateria = new ArrayList<>();
+            for (int c = 0; c < 5; c++) {
+                deMateria.add(comision(m, c, new int[]{1 + c, (8 + m) * 60, (8 + m) * 60 + 45}));
+            }
+            candidatos.add(deMateria);
+        }
+        int[] vistas = {0};
+        assertFalse(new GeneradorCombinaciones(candidatos).recorrer(e -> ++vistas[0] < 100));
+        assertEquals(100, vistas[0]);
+    }
+
+    @Test
+    void laBusquedaParalelaDevuelveLoMismoYEnElMismoOrden() {
+        Random random = new Random(7);
+        List<List<Candidato>> candidatos = new ArrayList<>();
+        for (int m = 0; m < 8; m++) {
+            List<Candidato> deMateria = new ArrayList<>();
+            for (int c = 0; c < 5; c++) {
+                int dia = 1 + random.nextInt(6);
+                int inicio = 8 * 60 + 15 * random.nextInt(50);
+                deMateria.add(comision(m, c, new int[]{dia, inicio, inicio + 90}));
+            }
+            candidatos.add(deMateria);
+        }
+        GeneradorCombinaciones generador = new GeneradorCombinaciones(candidatos);
+
+        List<int[]> secuencial = new ArrayList<>();
+        generador.recorrer(e -> secuencial.add(e.clone()));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BusquedaParalela paralela = new BusquedaParalela(pool);
+            BusquedaParalela.Resultado todo = paralela.buscar(generador, Integer.MAX_VALUE - 1,
+                    ControlBusqueda.sinLimite(), 10_000);
+            assertEquals(secuencial.size(), todo.elecciones().size());
+            for (int i = 0; i < secuencial.size(); i++) {
+                assertArrayEquals(secuencial.get(i), todo.elecciones().get(i));
+            }
+
+            BusquedaParalela.Resultado primeras = paralela.buscar(generador, 10, ControlBusqueda.sinLimite(), 10_000);
+            assertTrue(primeras.truncado());
+            for (int i = 0; i < 10; i++) {
+                assertArrayEquals(secuencial.get(i), primeras.elecciones().get(i));
+            }
+
+            BusquedaParalela.Resultado sinPresupuesto = paralela.buscar(generador, Integer.MAX_VALUE - 1,
+                    ControlBusqueda.conPresupuesto(1_000), 10_000);
+            assertTrue(sinPresupuesto.incompleto());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void laMatrizDeConflictosCoincideConLasOcupaciones() {
+        Random random = new Random(5);
+        List<Candidato> candidatos = new ArrayList<>();
+        for (int c = 0; c < 150; c++) {
+            int dia = 1 + random.nextInt(6);
+            int inicio = 8 * 60 + 15 * random.nextInt(50);
+            candidatos.add(comision(c % 10, c, new int[]{dia, inicio, inicio + 90}));
+        }
+        MatrizConflictos matriz = MatrizConflictos.de(candidatos.stream().map(Candidato::opcion).toList());
+
+        assertEquals(candidatos.size(), matriz.tamanio());
+        for (int i = 0; i < candidatos.size(); i++) {
+            int fila = matriz.fila(candidatos.get(i).opcion().comisionMateriaId());
+            assertEquals(i, fila);
+            for (int j = 0; j < candidatos.size(); j++) {
+                boolean esperado = i != j && candidatos.get(i).ocupacion().chocaCon(candidatos.get(j).ocupacion());
+                assertEquals(esperado, matriz.chocan(i, j), i + " vs " + j);
+            }
+        }
+        assertEquals(-1, matriz.fila(-5));
+    }
+
+    @Test
+    void elContadorCoincideConFuerzaBruta() {
+        Random random = new Random(3);
+        for (int caso = 0; caso < 20; caso++) {
+            List<List<Candidato>> candidatos = new ArrayList<>();
+            int materias = 3 + random.nextInt(6);
+            for (int m = 0; m < materias; m++) {
+                List<Candidato> deMateria = new ArrayList<>();
+                for (int c = 0; c < 1 + random.nextInt(5); c++) {
+                    int dia = 1 + random.nextInt(6);
+                    int inicio = 8 * 60 + 30 * random.nextInt(24);
+                    deMateria.add(comision(m, c, new int[]{dia, inicio, inicio + 90}));
+                }
+                candidatos.add(deMateria);
+            }
+
+            Set<String> esperadas = new HashSet<>();
+            fuerzaBruta(candidatos, 0, new int[materias], esperadas);
+
+            // Con memo de tamaño 0 se verifica también el recorrido sin memoización
+            for (int memo : new int[]{0, 1_000}) {
+                ContadorCombinaciones.Conteo conteo = new ContadorCombinaciones(candidatos, memo)
+                        .contar(ControlBusqueda.sinLimite());
+                assertEquals(esperadas.size(), conteo.cantidad(), "caso " + caso);
+                assertFalse(conteo.incompleto());
+            }
+        }
+    }
+
+    @Test
+    void elOptimizadorDevuelveLasMejoresSegunFuerzaBruta() {
+        Random random = new Random(11);
+        OcupacionSemanal bloqueo = OcupacionSemanal.rango(2, 8 * 60, 12 * 60);
+        OptimizadorCombinaciones.Criterios criterios = new OptimizadorCombinaciones.Criterios(
+                10, 2, 3, OptimizadorCombinaciones.Turno.TARDE, bloqueo);
+        for (int caso = 0; caso < 15; caso++) {
+            List<List<Candidato>> candidatos = new ArrayList<>();
+            int materias = 3 + random.nextInt(3);
+            for (int m = 0; m < materias; m++) {
+                List<Candidato> deMateria = new ArrayList<>();
+                for (int c = 0; c < 2 + random.nextInt(4); c++) {
+                    int dia = 1 + random.nextInt(4);
+                    int inicio = 8 * 60 + 30 * random.nextInt(24);
+                    deMateria.add(comision(m, c, new int[]{dia, inicio, inicio + 90}));
+                }
+                candidatos.add(deMateria);
+            }
+
+            Set<String> factibles = new HashSet<>();
+            fuerzaBruta(candidatos, 0, new int[materias], factibles);
+            List<Double> esperados = new ArrayList<>();
+            for (String f : factibles) {
+                int[] eleccion = Arrays.stream(f.substring(1, f.length() - 1).split(", "))
+                        .mapToInt(Integer::parseInt).toArray();
+                long[] ocupado = OcupacionSemanal.nuevaDensa();
+                int fueraTurno = 0;
+                for (int i = 0; i < materias; i++) {
+                    OcupacionSemanal o = candidatos.get(i).get(eleccion[i]).ocupacion();
+                    o.marcarEn(ocupado);
+                    fueraTurno += o.franjas() - o.franjasEntre(13 * 60, 18 * 60);
+                }
+                if (!bloqueo.chocaCon(ocupado)) {
+                    esperados.add(10.0 * Integer.bitCount(OcupacionSemanal.mascaraDias(ocupado))
+                            + 2.0 * OcupacionSemanal.franjasHueco(ocupado) / 12
+                            + 3.0 * fueraTurno / 12);
+                }
+            }
+            esperados.sort(null);
+
+            List<OptimizadorCombinaciones.Solucion> mejores = new OptimizadorCombinaciones(candidatos, criterios)
+                    .mejores(5, ControlBusqueda.sinLimite());
+            assertEquals(Math.min(5, esperados.size()), mejores.size(), "caso " + caso);
+            for (int i = 0; i < mejores.size(); i++) {
+                assertEquals(esperados.get(i), mejores.get(i).costo(), 1e-9, "caso " + caso);
+            }
+        }
+
+        // Con pesos negativos o no finitos la poda por cota dejaría afuera a las mejores: se rechazan
+        for (double peso : new double[]{-1, Double.NaN, Double.POSITIVE_INFINITY}) {
+            assertThrows(IllegalArgumentException.class, () -> new OptimizadorCombinaciones.Criterios(
+                    peso, 2, 3, OptimizadorCombinaciones.Turno.TARDE, bloqueo), "pesoDia " + peso);
+            assertThrows(IllegalArgumentException.class, () -> new OptimizadorCombinaciones.Criterios(
+                    10, peso, 3, OptimizadorCombinaciones.Turno.TARDE, bloqueo), "pesoHoraHueco " + peso);
+            assertThrows(IllegalArgumentException.class, () -> new OptimizadorCombinaciones.Criterios(
+                    10, 2, peso, null, bloqueo), "pesoHoraFueraTurno " + peso);
+        }
+    }
+
+    private static void fuerzaBruta(List<List<Candidato>> candidatos, int materia, int[] eleccion, Set<String> salida) {
+        if (materia == candidatos.size()) {
+            for (int i = 0; i < eleccion.length; i++) {
+                for (int j = i + 1; j < eleccion.length; j++) {
+                    if (candidatos.get(i).get(eleccion[i]).ocupacion()
+                            .chocaCon(candidatos.get(j).get(eleccion[j]).ocupacion())) {
+                        return;
+                    }
+                }
+            }
+            salida.add(Arrays.toString(eleccion));
+            return;
+        }
+        for (int c = 0; c < candidatos.get(materia).size(); c++) {
+            eleccion[materia] = c;
+            fuerzaBruta(candidatos, materia + 1, eleccion, salida);
+        }
+    }
+}
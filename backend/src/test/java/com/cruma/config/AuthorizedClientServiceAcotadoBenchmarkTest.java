@@ -0,0 +1,71 @@
+package com.cruma.config;
+
+import com.cruma.Medidor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.cruma.config.AuthorizedClientServiceAcotadoTest.GITHUB;
+import static com.cruma.config.AuthorizedClientServiceAcotadoTest.login;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Memoria retenida después de cien mil logins, con tope contra el servicio en memoria de Spring, y costo
+ * de cada login. Depende del GC, por eso solo corre con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AuthorizedClientServiceAcotadoBenchmarkTest {
+
+    private static final int TOPE = 1_000;
+    private static final int LOGINS = 100_000;
+
+    @Test
+    void cienMilLoginsNoHacenCrecerLaMemoria() throws Exception {
+        AuthorizedClientServiceAcotado acotado = new AuthorizedClientServiceAcotado(TOPE, Duration.ofHours(8), null);
+        AtomicInteger siguiente = new AtomicInteger();
+        // El calentamiento de Medidor llena la caché; lo que se mide después es cuánto crece
+        Medidor.Medicion porLogin = Medidor.medir(() -> {
+            login(acotado, "calentamiento-" + siguiente.getAndIncrement());
+            return acotado;
+        }, TOPE);
+        long crecimientoAcotado = crecimiento(acotado);
+
+        OAuth2AuthorizedClientService sinTope =
+                new InMemoryOAuth2AuthorizedClientService(new InMemoryClientRegistrationRepository(GITHUB));
+        long crecimientoSinTope = crecimiento(sinTope);
+
+        System.out.printf("%d logins: con tope crece %d KB, sin tope %d KB | %d ns y %d bytes asignados por login%n",
+                LOGINS, crecimientoAcotado / 1024, crecimientoSinTope / 1024, porLogin.nanos(), porLogin.bytes());
+        // Sin tope, 100k clientes retenidos ocupan decenas de MB; con tope el crecimiento es ruido del GC
+        assertTrue(crecimientoAcotado < 16L * 1024 * 1024,
+                () -> "La memoria creció " + crecimientoAcotado / 1024 + " KB");
+        assertTrue(crecimientoAcotado < crecimientoSinTope / 4,
+                () -> "Con tope creció " + crecimientoAcotado / 1024 + " KB contra " + crecimientoSinTope / 1024 + " KB");
+    }
+
+    /** Memoria retenida tras cien mil logins de usuarios distintos */
+    private static long crecimiento(OAuth2AuthorizedClientService servicio) {
+        long antes = memoriaUsada();
+        for (int i = 0; i < LOGINS; i++) {
+            login(servicio, "usuario-" + i);
+        }
+        long despues = memoriaUsada();
+        // Que el servicio siga vivo hasta después de medir
+        assertNotNull(servicio.loadAuthorizedClient("github", "usuario-" + (LOGINS - 1)));
+        return despues - antes;
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,114 @@
+package com.cruma.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuthorizedClientServiceAcotadoTest {
+
+    static final ClientRegistration GITHUB = ClientRegistration.withRegistrationId("github")
+            .clientId("cliente")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("http://localhost/login/oauth2/code/github")
+            .authorizationUri("http://localhost/authorize")
+            .tokenUri("http://localhost/token")
+            .build();
+
+    /** Reloj que avanza solo cuando el test lo pide */
+    private static final class RelojManual extends Clock {
+        private Instant ahora = Instant.parse("2025-03-01T10:00:00Z");
+
+        void avanzar(Duration d) {
+            ahora = ahora.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+
+    static void login(OAuth2AuthorizedClientService servicio, String principal) {
+        Instant emitido = Instant.now();
+        OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "token-" + principal, emitido, emitido.plusSeconds(3600));
+        servicio.saveAuthorizedClient(new OAuth2AuthorizedClient(GITHUB, principal, token),
+                new TestingAuthenticationToken(principal, null));
+    }
+
+    /** El crecimiento de la memoria con los mismos logins se mide en {@link AuthorizedClientServiceAcotadoBenchmarkTest} */
+    @Test
+    void cienMilLoginsRespetanElTope() {
+        final int tope = 1_000;
+        final int logins = 100_000;
+        AuthorizedClientServiceAcotado servicio = new AuthorizedClientServiceAcotado(tope, Duration.ofHours(8), null);
+
+        for (int i = 0; i < logins; i++) {
+            login(servicio, "usuario-" + i);
+        }
+
+        assertEquals(tope, servicio.getEntradas());
+        assertEquals(logins - tope, servicio.getDesalojos());
+        assertNotNull(servicio.loadAuthorizedClient("github", "usuario-" + (logins - 1)));
+        assertNotNull(servicio.loadAuthorizedClient("github", "usuario-" + (logins - tope)));
+        assertNull(servicio.loadAuthorizedClient("github", "usuario-" + (logins - tope - 1)));
+        assertNull(servicio.loadAuthorizedClient("github", "usuario-0"));
+    }
+
+    @Test
+    void lasEntradasVencenPorTiempo() {
+        RelojManual reloj = new RelojManual();
+        AuthorizedClientServiceAcotado servicio =
+                new AuthorizedClientServiceAcotado(10, Duration.ofHours(1), null, reloj);
+        login(servicio, "42");
+
+        reloj.avanzar(Duration.ofMinutes(59));
+        assertNotNull(servicio.loadAuthorizedClient("github", "42"));
+        reloj.avanzar(Duration.ofMinutes(2));
+        assertNull(servicio.loadAuthorizedClient("github", "42"));
+        assertEquals(0, servicio.getEntradas());
+    }
+
+    @Test
+    void loDescartadoSeRecuperaDelSegundoNivel() {
+        InMemoryOAuth2AuthorizedClientService persistente =
+                new InMemoryOAuth2AuthorizedClientService(new InMemoryClientRegistrationRepository(GITHUB));
+        AuthorizedClientServiceAcotado servicio = new AuthorizedClientServiceAcotado(1, Duration.ofHours(1), persistente);
+        login(servicio, "1");
+        login(servicio, "2");
+
+        OAuth2AuthorizedClient recuperado = servicio.loadAuthorizedClient("github", "1");
+        assertNotNull(recuperado);
+        assertEquals("token-1", recuperado.getAccessToken().getTokenValue());
+
+        servicio.removeAuthorizedClient("github", "1");
+        assertNull(servicio.loadAuthorizedClient("github", "1"));
+        assertNull(persistente.loadAuthorizedClient("github", "1"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.cruma.config;
+
+import com.cruma.Medidor;
+import com.cruma.model.UsuarioSesion;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import static com.cruma.config.SerializadorSesionTest.USUARIO_ID;
+import static com.cruma.config.SerializadorSesionTest.contextoDe;
+import static com.cruma.config.SerializadorSesionTest.perfilGitHub;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Costo de leer la sesión de un usuario de GitHub en cada request: contexto completo con serialización
+ * de Java contra el formato compacto. Solo corre con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SerializadorSesionBenchmarkTest {
+
+    @Test
+    void lecturaPorRequest() throws Exception {
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader(), null);
+        OAuth2User original = perfilGitHub();
+        byte[] antes = new SerializingConverter().convert(contextoDe(original));
+        byte[] despues = serializador.serializar(contextoDe(
+                new UsuarioSesion(USUARIO_ID, "estudiante@mail.com", "Estudiante UTN", "github", original)));
+
+        DeserializingConverter java = new DeserializingConverter(getClass().getClassLoader());
+        Medidor.Medicion lecturaJava = Medidor.medir(() -> java.convert(antes), 20_000);
+        Medidor.Medicion lecturaCompacta = Medidor.medir(() -> serializador.deserializar(despues), 20_000);
+
+        System.out.printf("Sesión GitHub: Java %d bytes, %d ns y %d bytes asignados por lectura | "
+                        + "compacta %d bytes, %d ns y %d bytes asignados por lectura%n",
+                antes.length, lecturaJava.nanos(), lecturaJava.bytes(),
+                despues.length, lecturaCompacta.nanos(), lecturaCompacta.bytes());
+        assertTrue(lecturaCompacta.nanos() < lecturaJava.nanos(),
+                () -> "La lectura compacta tardó " + lecturaCompacta.nanos() + " ns contra " + lecturaJava.nanos());
+    }
+}
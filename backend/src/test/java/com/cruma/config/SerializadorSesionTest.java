@@ -0,0 +1,152 @@
+package com.cruma.config;
+
+import com.cruma.model.UsuarioSesion;
+import com.cruma.model.UsuarioSesionOidc;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato compacto del contexto de seguridad en la sesión: qué conserva y cuánto ocupa contra el contexto
+ * completo con serialización de Java. El costo de leerlo está en {@link SerializadorSesionBenchmarkTest}.
+ */
+class SerializadorSesionTest {
+
+    static final UUID USUARIO_ID = UUID.fromString("3f1c2a9e-5b7d-4e21-9c3a-0d8e6f4b2a17");
+
+    /** Perfil parecido al que devuelve api.github.com/user */
+    static OAuth2User perfilGitHub() {
+        Map<String, Object> atributos = new HashMap<>();
+        atributos.put("id", 1234567);
+        atributos.put("login", "estudiante");
+        atributos.put("name", "Estudiante UTN");
+        atributos.put("email", null);
+        atributos.put("node_id", "MDQ6VXNlcjEyMzQ1Njc=");
+        atributos.put("avatar_url", "https://avatars.githubusercontent.com/u/1234567?v=4");
+        atributos.put("gravatar_id", "");
+        for (String url : List.of("url", "html_url", "followers_url", "following_url", "gists_url", "starred_url",
+                "subscriptions_url", "organizations_url", "repos_url", "events_url", "received_events_url")) {
+            atributos.put(url, "https://api.github.com/users/estudiante/" + url);
+        }
+        atributos.put("type", "User");
+        atributos.put("site_admin", false);
+        atributos.put("company", "UTN FRC");
+        atributos.put("blog", "");
+        atributos.put("location", "Córdoba, Argentina");
+        atributos.put("bio", "Estudiante de Ingeniería en Sistemas");
+        atributos.put("public_repos", 12);
+        atributos.put("followers", 5);
+        atributos.put("following", 3);
+        atributos.put("created_at", "2019-03-11T14:22:31Z");
+        atributos.put("updated_at", "2025-02-20T10:05:12Z");
+        atributos.values().removeIf(v -> v == null);
+        return new DefaultOAuth2User(List.of(new OAuth2UserAuthority(atributos),
+                new SimpleGrantedAuthority("SCOPE_user:email")), atributos, "id");
+    }
+
+    static SecurityContext contextoDe(OAuth2User usuario) {
+        return contextoDe(usuario, "github");
+    }
+
+    private static SecurityContext contextoDe(OAuth2User usuario, String proveedor) {
+        return new SecurityContextImpl(new OAuth2AuthenticationToken(usuario, usuario.getAuthorities(), proveedor));
+    }
+
+    /** Login de Google con un id token con la forma de un JWT (la firma no se valida al leer la sesión) */
+    private static OidcUser perfilGoogle() {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String claims = "{\"iss\":\"https://accounts.google.com\",\"sub\":\"109876543210\",\"aud\":\"cruma\","
+                + "\"email\":\"estudiante@gmail.com\",\"name\":\"Estudiante UTN\",\"iat\":1760000000,\"exp\":1760003600}";
+        String jwt = base64.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + base64.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".firma";
+        OidcIdToken idToken = new OidcIdToken(jwt, Instant.ofEpochSecond(1760000000), Instant.ofEpochSecond(1760003600),
+                Map.of("iss", "https://accounts.google.com", "sub", "109876543210", "email", "estudiante@gmail.com"));
+        return new DefaultOidcUser(List.of(new OidcUserAuthority(idToken)), idToken);
+    }
+
+    @Test
+    void elContextoCompactoConservaLoQueUsaCruma() {
+        OAuth2User original = perfilGitHub();
+        UsuarioSesion sesion = new UsuarioSesion(USUARIO_ID, "estudiante@mail.com", "Estudiante UTN", "github", original);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader(), registry);
+
+        byte[] bytes = serializador.serializar(contextoDe(sesion));
+        SecurityContext leido = (SecurityContext) serializador.deserializar(bytes);
+
+        OAuth2AuthenticationToken token = assertInstanceOf(OAuth2AuthenticationToken.class, leido.getAuthentication());
+        UsuarioSesion reconstruida = assertInstanceOf(UsuarioSesion.class, token.getPrincipal());
+        // Sin OIDC no hay id token: el principal de GitHub no se hace pasar por OidcUser
+        assertFalse(reconstruida instanceof OidcUser);
+        assertEquals(USUARIO_ID, reconstruida.getUsuarioId());
+        assertEquals("estudiante@mail.com", reconstruida.getMail());
+        assertEquals("Estudiante UTN", reconstruida.getNombre());
+        assertEquals("github", reconstruida.getProveedor());
+        assertEquals("1234567", reconstruida.getName());
+        assertEquals("github", token.getAuthorizedClientRegistrationId());
+        assertTrue(token.isAuthenticated());
+        assertEquals(List.of("OAUTH2_USER", "SCOPE_user:email"),
+                token.getAuthorities().stream().map(a -> a.getAuthority()).toList());
+        assertEquals(1, registry.get("cruma.sesiones.atributo.bytes").tag("formato", "compacto").summary().count());
+
+        // Los demás atributos siguen con serialización de Java
+        Object otro = serializador.deserializar(serializador.serializar(new HashMap<>(Map.of("clave", "valor"))));
+        assertEquals(Map.of("clave", "valor"), otro);
+    }
+
+    @Test
+    void laSesionDeGoogleConservaElIdToken() {
+        OidcUser original = perfilGoogle();
+        UsuarioSesionOidc sesion = new UsuarioSesionOidc(USUARIO_ID, "estudiante@gmail.com", "Estudiante UTN", "google",
+                original);
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader(), null);
+
+        SecurityContext leido = (SecurityContext) serializador.deserializar(
+                serializador.serializar(contextoDe(sesion, "google")));
+
+        UsuarioSesionOidc reconstruida = assertInstanceOf(UsuarioSesionOidc.class, leido.getAuthentication().getPrincipal());
+        assertEquals(original.getIdToken().getTokenValue(), reconstruida.getIdToken().getTokenValue());
+        assertEquals("109876543210", reconstruida.getSubject());
+        assertEquals("109876543210", reconstruida.getName());
+        assertEquals(Instant.ofEpochSecond(1760003600), reconstruida.getIdToken().getExpiresAt());
+        assertEquals(List.of("cruma"), reconstruida.getIdToken().getAudience());
+        assertEquals("estudiante@gmail.com", reconstruida.getEmail());
+        assertEquals("google", reconstruida.getProveedor());
+    }
+
+    @Test
+    void laSesionCompactaOcupaMenosDeUnDecimo() {
+        SerializadorSesion serializador = new SerializadorSesion(getClass().getClassLoader(), null);
+        OAuth2User original = perfilGitHub();
+        byte[] antes = new SerializingConverter().convert(contextoDe(original));
+        byte[] despues = serializador.serializar(contextoDe(
+                new UsuarioSesion(USUARIO_ID, "estudiante@mail.com", "Estudiante UTN", "github", original)));
+
+        assertTrue(despues.length * 10 < antes.length,
+                () -> "La sesión compacta ocupa " + despues.length + " bytes contra " + antes.length);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cruma.config;
+
+import com.cruma.model.UsuarioSesion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guarda y vuelve a leer una sesión de un usuario logueado en las tablas de V6, con la misma
+ * serialización que arma {@link SesionesJdbcConfig}. Igual que {@code PlanesDeConsultaTest}, solo corre
+ * con CRUMA_TEST_DB_URL apuntando a un Postgres local y usa un esquema propio que se borra al terminar.
+ */
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+class SesionesJdbcTest {
+
+    private static final String ESQUEMA = "cruma_sesiones_test";
+    private static final String CONTEXTO = HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+    private static JdbcTemplate jdbc;
+    private static JdbcIndexedSessionRepository repositorio;
+    private static SimpleMeterRegistry registry;
+
+    @BeforeAll
+    static void migrar() {
+        String url = System.getenv("CRUMA_TEST_DB_URL");
+        String usuario = System.getenv("CRUMA_TEST_DB_USER");
+        String password = System.getenv("CRUMA_TEST_DB_PASSWORD");
+        Flyway.configure()
+                .dataSource(url, usuario, password)
+                .schemas(ESQUEMA)
+                .createSchemas(true)
+                .load()
+                .migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, usuario, password);
+        dataSource.setSchema(ESQUEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        repositorio = new JdbcIndexedSessionRepository(jdbc,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        registry = new SimpleMeterRegistry();
+        new SesionesJdbcConfig()
+                .serializacionCompacta(new StaticListableBeanFactory(Map.of("meterRegistry", registry))
+                        .getBeanProvider(MeterRegistry.class))
+                .customize(repositorio);
+    }
+
+    @AfterAll
+    static void limpiar() {
+        if (jdbc != null) {
+            jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        }
+    }
+
+    @Test
+    void laSesionDeUnUsuarioSeGuardaYSeLeeCompacta() {
+        guardarYLeer(repositorio);
+    }
+
+    /** La sesión de JDBC no es pública; se usa a través de la interfaz */
+    private static <S extends Session> void guardarYLeer(FindByIndexNameSessionRepository<S> repositorio) {
+        UsuarioSesion sesion = new UsuarioSesion(SerializadorSesionTest.USUARIO_ID, "estudiante@mail.com",
+                "Estudiante UTN", "github", SerializadorSesionTest.perfilGitHub());
+        S guardada = repositorio.createSession();
+        guardada.setAttribute(CONTEXTO, SerializadorSesionTest.contextoDe(sesion));
+        repositorio.save(guardada);
+
+        byte[] bytes = jdbc.queryForObject(
+                "SELECT attribute_bytes FROM spring_session_attributes WHERE attribute_name = ?", byte[].class, CONTEXTO);
+        // Formato compacto: primer byte 1, y mucho menos que el contexto con serialización de Java
+        assertEquals(1, bytes[0]);
+        assertTrue(bytes.length < 200, () -> "El contexto guardado ocupa " + bytes.length + " bytes");
+        assertEquals("1234567", jdbc.queryForObject("SELECT principal_name FROM spring_session", String.class));
+
+        S leida = repositorio.findById(guardada.getId());
+        SecurityContext contexto = leida.getAttribute(CONTEXTO);
+        OAuth2AuthenticationToken token = assertInstanceOf(OAuth2AuthenticationToken.class, contexto.getAuthentication());
+        UsuarioSesion reconstruida = assertInstanceOf(UsuarioSesion.class, token.getPrincipal());
+        assertEquals(SerializadorSesionTest.USUARIO_ID, reconstruida.getUsuarioId());
+        assertEquals("estudiante@mail.com", reconstruida.getMail());
+        assertEquals("github", token.getAuthorizedClientRegistrationId());
+        assertEquals(1, registry.get("cruma.sesiones.atributo.lectura").timer().count());
+        assertEquals(1, repositorio.findByIndexNameAndIndexValue(
+                FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "1234567").size());
+
+        repositorio.deleteById(guardada.getId());
+        assertNull(repositorio.findById(guardada.getId()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.cruma.controller;
+
+import com.cruma.exception.GlobalExceptionHandler;
+import com.cruma.service.CatalogoSnapshot;
+import com.cruma.service.CombinacionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.cruma.CatalogosDePrueba.catalogo;
+import static com.cruma.CatalogosDePrueba.combinaciones;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Combinaciones en NDJSON: las mismas que {@code GET /api/combinaciones} para el mismo pedido, y la línea
+ * final con {@code truncado} al cortar por límite, {@code incompleto} al agotar los nodos y siempre escrita.
+ */
+class CombinacionControllerTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final CatalogoSnapshot CATALOGO = catalogo(new Random(5), 4, 4);
+
+    private static MockMvc mockMvc(CombinacionService servicio) {
+        return MockMvcBuilders.standaloneSetup(new CombinacionController(servicio))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    /** Las líneas de la respuesta; la última es el resumen */
+    private static List<JsonNode> transmitir(MockMvc mvc, String parametros) throws Exception {
+        MvcResult inicio = mvc.perform(get("/api/combinaciones/stream?" + parametros))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(cuerpo.endsWith("\n"));
+        List<JsonNode> lineas = new ArrayList<>();
+        for (String linea : cuerpo.split("\n")) {
+            lineas.add(JSON.readTree(linea));
+        }
+        return lineas;
+    }
+
+    @Test
+    void lasLineasSonLasMismasCombinacionesQueLaRespuestaCompleta() throws Exception {
+        MockMvc mvc = mockMvc(combinaciones(CATALOGO, 5_000_000));
+        JsonNode completa = JSON.readTree(mvc.perform(get("/api/combinaciones?materiaIds=1,2,3,4&periodoId=1&limite=2000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(completa.get("combinaciones").size() > 1);
+
+        List<JsonNode> lineas = transmitir(mvc, "materiaIds=1,2,3,4&periodoId=1");
+        JsonNode fin = lineas.remove(lineas.size() - 1);
+        assertEquals(completa.get("combinaciones").size(), lineas.size());
+        for (int i = 0; i < lineas.size(); i++) {
+            assertEquals(completa.get("combinaciones").get(i), lineas.get(i), "línea " + i);
+        }
+        assertTrue(fin.get("fin").asBoolean());
+        assertEquals(lineas.size(), fin.get("cantidad").asInt());
+        assertEquals(false, fin.get("truncado").asBoolean());
+        assertEquals(false, fin.get("incompleto").asBoolean());
+    }
+
+    @Test
+    void alLlegarAlLimiteLaLineaFinalDiceTruncado() throws Exception {
+        List<JsonNode> lineas = transmitir(mockMvc(combinaciones(CATALOGO, 5_000_000)),
+                "materiaIds=1,2,3,4&periodoId=1&limite=2");
+        assertEquals(3, lineas.size());
+        JsonNode fin = lineas.get(2);
+        assertEquals(2, fin.get("cantidad").asInt());
+        assertTrue(fin.get("truncado").asBoolean());
+        assertEquals(false, fin.get("incompleto").asBoolean());
+    }
+
+    @Test
+    void sinNodosLaLineaFinalDiceIncompleto() throws Exception {
+        // Los nodos se descuentan de a lotes de 256: hace falta un catálogo con más búsqueda que eso
+        List<JsonNode> lineas = transmitir(mockMvc(combinaciones(catalogo(new Random(5), 8, 5), 1)),
+                "materiaIds=1,2,3,4,5,6,7,8&periodoId=1");
+        JsonNode fin = lineas.get(lineas.size() - 1);
+        assertTrue(fin.get("fin").asBoolean());
+        assertEquals(lineas.size() - 1, fin.get("cantidad").asInt());
+        assertTrue(fin.get("incompleto").asBoolean());
+        assertEquals(false, fin.get("truncado").asBoolean());
+    }
+
+    @Test
+    void sinComisionesSoloSeEscribeLaLineaFinal() throws Exception {
+        List<JsonNode> lineas = transmitir(mockMvc(combinaciones(CATALOGO, 5_000_000)), "materiaIds=1,99&periodoId=1");
+        assertEquals(1, lineas.size());
+        assertEquals(0, lineas.get(0).get("cantidad").asInt());
+        assertEquals(99, lineas.get(0).get("materiasSinComisiones").get(0).asInt());
+    }
+
+    @Test
+    void sinMateriasEs400AntesDeEmpezarElStream() throws Exception {
+        mockMvc(combinaciones(CATALOGO, 5_000_000)).perform(get("/api/combinaciones/stream?materiaIds=&periodoId=1"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,59 @@
+package com.cruma.controller;
+
+import com.cruma.exception.GlobalExceptionHandler;
+import com.cruma.service.CatalogoService;
+import com.cruma.service.CatalogoSnapshot;
+import com.cruma.service.ComisionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Random;
+
+import static com.cruma.CatalogosDePrueba.catalogo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Búsqueda de comisiones por franjas libres a través del endpoint; el índice se prueba en {@code IndiceBloquesTest} */
+class ComisionControllerTest {
+
+    private static MockMvc mockMvc() {
+        CatalogoSnapshot snapshot = catalogo(new Random(3), 6, 4);
+        CatalogoService catalogo = mock(CatalogoService.class);
+        when(catalogo.snapshot()).thenReturn(snapshot);
+        return MockMvcBuilders.standaloneSetup(new ComisionController(new ComisionService(catalogo)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void todaLaSemanaLibreDevuelveTodasLasComisiones() throws Exception {
+        StringBuilder franjas = new StringBuilder();
+        for (int dia = 1; dia <= 7; dia++) {
+            franjas.append(dia > 1 ? "," : "")
+                    .append("{\"dia\":\"").append(dia).append("\",\"horaEntrada\":\"0:00\",\"horaSalida\":\"23:59\"}");
+        }
+        mockMvc().perform(post("/api/comisiones/en-franjas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"franjas\":[" + franjas + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(24))
+                .andExpect(jsonPath("$[0].horarios").isArray());
+    }
+
+    @Test
+    void sinFranjasOConUnaFranjaInvalidaEs400() throws Exception {
+        mockMvc().perform(post("/api/comisiones/en-franjas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"franjas\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc().perform(post("/api/comisiones/en-franjas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"franjas\":[{\"dia\":\"8\",\"horaEntrada\":\"8:00\",\"horaSalida\":\"12:00\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,200 @@
+package com.cruma.controller;
+
+import com.cruma.exception.ExportacionSaturadaException;
+import com.cruma.exception.GlobalExceptionHandler;
+import com.cruma.service.ExportacionPdfService;
+import com.cruma.service.PlantillaExportacionPdf;
+import com.cruma.service.RenderizadorCronogramaPdf;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.cruma.CronogramasDePrueba.semana;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exportación del cronograma a PDF: la respuesta en streaming desde el pool de exportación, el 503 sin
+ * lugar en el pool, el lugar que devuelve un pedido vencido y exportaciones en paralelo con la plantilla compartida.
+ */
+class ExportarCronogramaControllerTest {
+
+    private static final PlantillaExportacionPdf PLANTILLA = new PlantillaExportacionPdf();
+    private static final RenderizadorCronogramaPdf RENDERIZADOR = new RenderizadorCronogramaPdf(PLANTILLA);
+    private static final ExportacionPdfService SERVICIO = servicio(2, 64, new SimpleMeterRegistry());
+
+    private static ExportacionPdfService servicio(int hilos, int cola, MeterRegistry registry) {
+        return new ExportacionPdfService(RENDERIZADOR, hilos, cola, 2,
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+    }
+
+    private static MockMvc mockMvc(ExportacionPdfService servicio) {
+        return MockMvcBuilders.standaloneSetup(new ExportarCronogramaController(servicio))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static final String SEMANA_JSON = """
+            [{"dia":1,"horaEntrada":"08:00","horaSalida":"09:30","nombreMateria":"Análisis Matemático I","seccion":"1K1"},
+             {"dia":3,"horaEntrada":"10:15","horaSalida":"12:30","nombreMateria":"Física I","seccion":"1K1"}]
+            """;
+
+    private static byte[] exportar() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try {
+            SERVICIO.preparar(semana()).writeTo(salida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    @Test
+    void elPdfSeEscribeDesdeElPoolDeExportacion() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExportacionPdfService servicio = servicio(1, 4, registry);
+        MockMvc mvc = mockMvc(servicio);
+
+        MvcResult inicio = mvc.perform(post("/api/cronograma/exportar-pdf")
+                        .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult fin = mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"cronogramaCRUMA.pdf\""))
+                .andReturn();
+
+        byte[] pdf = fin.getResponse().getContentAsByteArray();
+        assertEquals("%PDF", new String(pdf, 0, 4));
+        assertEquals(1, registry.get("cruma.exportacion.render").timer().count());
+        assertEquals(0, registry.get("cruma.exportacion.cola").gauge().value());
+    }
+
+    @Test
+    void conLaColaLlenaResponde503ConRetryAfter() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExportacionPdfService servicio = servicio(1, 1, registry);
+        // Dos exportaciones aceptadas ocupan el hilo y la cola aunque todavía no hayan empezado a renderizar
+        ExportacionPdfService.Exportacion primera = servicio.preparar(semana());
+        ExportacionPdfService.Exportacion segunda = servicio.preparar(semana());
+
+        mockMvc(servicio).perform(post("/api/cronograma/exportar-pdf")
+                        .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        assertEquals(1, registry.get("cruma.exportacion.rechazadas").counter().count());
+
+        // Terminar una devuelve su lugar una sola vez, aunque después también llegue el aviso de Spring MVC
+        primera.writeTo(new ByteArrayOutputStream());
+        primera.liberar();
+        ExportacionPdfService.Exportacion tercera = servicio.preparar(semana());
+        assertThrows(ExportacionSaturadaException.class, () -> servicio.preparar(semana()));
+        segunda.liberar();
+        tercera.liberar();
+    }
+
+    @Test
+    void unPedidoQueVenceEnLaColaDevuelveSuLugar() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExportacionPdfService servicio = servicio(1, 1, registry);
+        MockMvc mvc = mockMvc(servicio);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        // El único hilo queda ocupado, así los pedidos aceptados esperan en la cola del pool
+        servicio.getExecutor().execute(() -> {
+            ocupado.countDown();
+            esperar(liberar);
+        });
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        try {
+            MvcResult vencido = mvc.perform(post("/api/cronograma/exportar-pdf")
+                            .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(post("/api/cronograma/exportar-pdf")
+                            .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                    .andExpect(request().asyncStarted());
+            mvc.perform(post("/api/cronograma/exportar-pdf")
+                            .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                    .andExpect(status().isServiceUnavailable());
+
+            MockAsyncContext contexto = (MockAsyncContext) vencido.getRequest().getAsyncContext();
+            for (AsyncListener listener : contexto.getListeners()) {
+                listener.onTimeout(new AsyncEvent(contexto));
+            }
+            mvc.perform(post("/api/cronograma/exportar-pdf")
+                            .contentType(MediaType.APPLICATION_JSON).content(SEMANA_JSON))
+                    .andExpect(request().asyncStarted());
+            assertEquals(1, registry.get("cruma.exportacion.rechazadas").counter().count());
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    @Test
+    void unaHoraInvalidaEs400AntesDeEmpezarElPdf() throws Exception {
+        mockMvc(SERVICIO).perform(post("/api/cronograma/exportar-pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"dia\":1,\"horaEntrada\":\"8h\",\"horaSalida\":\"09:30\",\"nombreMateria\":\"X\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void variasExportacionesEnParaleloCompartenLaPlantilla() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> pdfs = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                pdfs.add(hilos.submit(ExportarCronogramaControllerTest::exportar));
+            }
+            for (Future<byte[]> pdf : pdfs) {
+                byte[] bytes = pdf.get();
+                assertTrue(bytes.length > 1000);
+                assertEquals("%PDF", new String(bytes, 0, 4));
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertEquals("08:00", PLANTILLA.etiquetaDeMinuto(8 * 60));
+        assertEquals("23:05", PLANTILLA.etiquetaDeMinuto(23 * 60 + 5));
+        assertTrue(PLANTILLA.linkedin().getScaledWidth() <= 16);
+    }
+}
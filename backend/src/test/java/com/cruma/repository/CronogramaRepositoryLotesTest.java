@@ -0,0 +1,118 @@
+package com.cruma.repository;
+
+import com.cruma.model.ComisionMateriaHorario;
+import com.cruma.model.Cronograma;
+import com.cruma.model.DetalleCronograma;
+import com.cruma.model.DetalleEstadoEnum;
+import com.cruma.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cuenta las sentencias que manda Hibernate al guardar un cronograma con sus detalles.
+ * Con ids por secuencia y batch_size los detalles van en un solo lote en vez de un INSERT por fila.
+ * Igual que {@link PlanesDeConsultaTest}, solo corre con CRUMA_TEST_DB_URL apuntando a un Postgres local.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CronogramaRepositoryLotesTest {
+
+    private static final String ESQUEMA = "cruma_lotes_test";
+    private static final int DETALLES = 10;
+
+    @DynamicPropertySource
+    static void baseDePrueba(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CRUMA_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("CRUMA_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("CRUMA_TEST_DB_PASSWORD"));
+        registry.add("spring.datasource.hikari.schema", () -> ESQUEMA);
+        registry.add("spring.flyway.schemas", () -> ESQUEMA);
+        registry.add("spring.flyway.create-schemas", () -> "true");
+    }
+
+    @Autowired
+    private CronogramaRepository repo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterAll
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    void losDetallesSeInsertanEnLote() {
+        UUID usuarioId = jdbc.queryForObject(
+                "INSERT INTO usuario (nombre, mail) VALUES ('Test', 'lotes@test.com') RETURNING id", UUID.class);
+        Integer carreraId = jdbc.queryForObject(
+                "INSERT INTO carrera (codigo, nombre) VALUES ('ISI', 'Sistemas') RETURNING id", Integer.class);
+        Integer periodoId = jdbc.queryForObject(
+                "INSERT INTO periodo (codigo, descripcion) VALUES ('1C', 'Primer cuatrimestre') RETURNING id", Integer.class);
+        Integer comisionId = jdbc.queryForObject(
+                "INSERT INTO comision (seccion, carrera_id) VALUES ('1K1', ?) RETURNING id", Integer.class, carreraId);
+        Integer horarioId = jdbc.queryForObject(
+                "INSERT INTO horario (dia, hora_inicio, hora_fin) VALUES (1, '08:00', '09:30') RETURNING id", Integer.class);
+        List<Integer> cmhIds = new ArrayList<>();
+        for (int i = 0; i < DETALLES; i++) {
+            Integer materiaId = jdbc.queryForObject(
+                    "INSERT INTO materia (codigo, nombre, anio_carrera, electiva) VALUES (?, ?, 1, false) RETURNING id",
+                    Integer.class, "M" + i, "Materia " + i);
+            Integer cmId = jdbc.queryForObject(
+                    "INSERT INTO comision_materia (comision_id, materia_id, periodo_id) VALUES (?, ?, ?) RETURNING id",
+                    Integer.class, comisionId, materiaId, periodoId);
+            cmhIds.add(jdbc.queryForObject(
+                    "INSERT INTO comision_materia_horario (comision_materia_id, horario_id) VALUES (?, ?) RETURNING id",
+                    Integer.class, cmId, horarioId));
+        }
+
+        Cronograma cronograma = new Cronograma();
+        cronograma.setNombre("Lotes");
+        cronograma.setUsuario(em.getReference(Usuario.class, usuarioId));
+        List<DetalleCronograma> detalles = new ArrayList<>();
+        for (Integer cmhId : cmhIds) {
+            DetalleCronograma detalle = new DetalleCronograma();
+            detalle.setCronograma(cronograma);
+            detalle.setComisionMateriaHorario(em.getReference(ComisionMateriaHorario.class, cmhId));
+            detalle.setEstado(DetalleEstadoEnum.SELECCIONADO);
+            detalles.add(detalle);
+        }
+        cronograma.setDetalles(detalles);
+
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        repo.saveAndFlush(cronograma);
+
+        assertEquals(DETALLES + 1, estadisticas.getEntityInsertCount());
+        // Un nextval por secuencia (a lo sumo dos en la primera asignación) más un INSERT por tabla
+        long sentencias = estadisticas.getPrepareStatementCount();
+        assertTrue(sentencias <= 6, () -> "Se prepararon " + sentencias + " sentencias para guardar el cronograma");
+    }
+}
@@ -0,0 +1,82 @@
+package com.cruma.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * El trigger de V8 mantiene {@code horario.dia} y {@code horario.dia_semana} iguales, escriba quien
+ * escriba una u otra. Igual que {@link PlanesDeConsultaTest}, solo corre con CRUMA_TEST_DB_URL.
+ */
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+class HorarioDiaTest {
+
+    private static final String ESQUEMA = "cruma_horario_dia_test";
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrar() {
+        String url = System.getenv("CRUMA_TEST_DB_URL");
+        String usuario = System.getenv("CRUMA_TEST_DB_USER");
+        String password = System.getenv("CRUMA_TEST_DB_PASSWORD");
+        Flyway.configure()
+                .dataSource(url, usuario, password)
+                .schemas(ESQUEMA)
+                .createSchemas(true)
+                .load()
+                .migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, usuario, password);
+        dataSource.setSchema(ESQUEMA);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void limpiar() {
+        if (jdbc != null) {
+            jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        }
+    }
+
+    private static Map<String, Object> horario(int id) {
+        return jdbc.queryForMap("SELECT dia, dia_semana FROM horario WHERE id = ?", id);
+    }
+
+    @Test
+    void unaCargaConSoloDiaSemanaCompletaDia() {
+        int id = jdbc.queryForObject("INSERT INTO horario (dia_semana, hora_inicio, hora_fin) "
+                + "VALUES ('miercoles', '08:00', '09:30') RETURNING id", Integer.class);
+        assertEquals(Map.of("dia", 3, "dia_semana", "MIÉRCOLES"), horario(id));
+
+        jdbc.update("UPDATE horario SET dia_semana = '5' WHERE id = ?", id);
+        assertEquals(Map.of("dia", 5, "dia_semana", "VIERNES"), horario(id));
+    }
+
+    @Test
+    void laAplicacionEscribeDiaYDiaSemanaLoSigue() {
+        int id = jdbc.queryForObject("INSERT INTO horario (dia, hora_inicio, hora_fin) "
+                + "VALUES (6, '08:00', '09:30') RETURNING id", Integer.class);
+        assertEquals(Map.of("dia", 6, "dia_semana", "SÁBADO"), horario(id));
+
+        jdbc.update("UPDATE horario SET dia = 1 WHERE id = ?", id);
+        assertEquals(Map.of("dia", 1, "dia_semana", "LUNES"), horario(id));
+    }
+
+    @Test
+    void unDiaNoReconocidoSeRechaza() {
+        assertThrows(DataAccessException.class, () -> jdbc.update(
+                "INSERT INTO horario (dia_semana, hora_inicio, hora_fin) VALUES ('FERIADO', '08:00', '09:30')"));
+        assertThrows(DataAccessException.class, () -> jdbc.update(
+                "INSERT INTO horario (dia, hora_inicio, hora_fin) VALUES (8, '08:00', '09:30')"));
+    }
+}
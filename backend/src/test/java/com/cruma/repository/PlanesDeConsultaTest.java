@@ -0,0 +1,228 @@
+package com.cruma.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica contra un Postgres local los planes de las consultas que generan los repositorios, tal como
+ * las manda Hibernate y con la configuración por defecto del planificador. Antes se cargan volúmenes del
+ * orden de los de producción (catálogo de una facultad, 20.000 usuarios con sus cronogramas y estados)
+ * y se corre ANALYZE, así el planificador elige como lo haría con datos reales.
+ * Solo corre si está definida CRUMA_TEST_DB_URL (con CRUMA_TEST_DB_USER y CRUMA_TEST_DB_PASSWORD), por ejemplo:
+ * {@code CRUMA_TEST_DB_URL=jdbc:postgresql://localhost:5432/cruma mvn test}
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.cruma.repository.PlanesDeConsultaTest$ConsultasEjecutadas")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlanesDeConsultaTest {
+
+    private static final String ESQUEMA = "cruma_planes_test";
+
+    /** Anota el SQL que Hibernate manda a la base, para pedir el plan de esa misma consulta */
+    public static class ConsultasEjecutadas implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @DynamicPropertySource
+    static void baseDePrueba(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CRUMA_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("CRUMA_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("CRUMA_TEST_DB_PASSWORD"));
+        registry.add("spring.datasource.hikari.schema", () -> ESQUEMA);
+        registry.add("spring.flyway.schemas", () -> ESQUEMA);
+        registry.add("spring.flyway.create-schemas", () -> "true");
+    }
+
+    @Autowired
+    private ComisionMateriaHorarioRepository cmhRepository;
+
+    @Autowired
+    private ComisionMateriaRepository cmRepository;
+
+    @Autowired
+    private CronogramaRepository cronogramaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private UsuarioMateriaEstadoRepository estadoRepository;
+
+    @Autowired
+    private CorrelativaRegularRepository correlativaRegularRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    void cargarVolumenes() {
+        // Catálogo: 6 carreras, 400 materias, 300 comisiones de 12 materias y 2 horarios por comisión-materia
+        jdbc.execute("INSERT INTO carrera (codigo, nombre) SELECT 'C' || i, 'Carrera ' || i FROM generate_series(1, 6) i");
+        jdbc.execute("INSERT INTO periodo (codigo, descripcion) "
+                + "VALUES ('ANUAL', 'Anual'), ('1C', 'Primer cuatrimestre'), ('2C', 'Segundo cuatrimestre')");
+        jdbc.execute("INSERT INTO materia (codigo, nombre, anio_carrera, electiva) "
+                + "SELECT 'M' || i, 'Materia ' || i, 1 + i % 5, i % 7 = 0 FROM generate_series(1, 400) i");
+        jdbc.execute("INSERT INTO comision (seccion, carrera_id) SELECT 'K' || i, 1 + i % 6 FROM generate_series(1, 300) i");
+        jdbc.execute("INSERT INTO comision_materia (comision_id, materia_id, periodo_id) "
+                + "SELECT c, 1 + (c * 7 + k * 31) % 400, 1 + (c + k) % 3 FROM generate_series(1, 300) c, generate_series(1, 12) k");
+        jdbc.execute("INSERT INTO horario (dia, hora_inicio, hora_fin) "
+                + "SELECT d, time '08:00' + s * interval '15 minutes', time '09:30' + s * interval '15 minutes' "
+                + "FROM generate_series(1, 6) d, generate_series(0, 55) s");
+        jdbc.execute("INSERT INTO comision_materia_horario (comision_materia_id, horario_id) "
+                + "SELECT cm.id, 1 + (cm.id * 13 + k * 101) % 336 FROM comision_materia cm, generate_series(1, 2) k");
+        jdbc.execute("INSERT INTO correlativa_regular (materia_id, materia_regular_id) "
+                + "SELECT m, 1 + (m + k * 37) % 400 FROM generate_series(1, 400) m, generate_series(1, 3) k");
+        jdbc.execute("INSERT INTO correlativa_aprobada (materia_id, materia_aprobada_id) "
+                + "SELECT m, 1 + (m + k * 53) % 400 FROM generate_series(1, 400) m, generate_series(1, 3) k");
+
+        // Usuarios: 3 cronogramas de 8 horarios y 20 materias con estado cada uno
+        jdbc.execute("INSERT INTO usuario (nombre, mail) "
+                + "SELECT 'Usuario ' || i, 'usuario' || i || '@mail.com' FROM generate_series(1, 20000) i");
+        jdbc.execute("INSERT INTO usuario_proveedor (usuario_id, proveedor) SELECT id, 'google' FROM usuario");
+        jdbc.execute("INSERT INTO cronograma (nombre, usuario_id) SELECT 'Cronograma ' || k, u.id "
+                + "FROM usuario u, generate_series(1, 3) k");
+        jdbc.execute("INSERT INTO detalle_cronograma (cronograma_id, comision_materia_horario_id) "
+                + "SELECT c.id, 1 + (c.id * 17 + k * 7) % 7200 FROM cronograma c, generate_series(1, 8) k");
+        jdbc.execute("INSERT INTO usuario_materia_estado (usuario_id, materia_id, estado) "
+                + "SELECT u.id, 1 + (k * 13) % 400, 1 FROM usuario u, generate_series(1, 20) k");
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    /**
+     * Corre la llamada al repositorio y devuelve el plan de la primera consulta que mandó Hibernate,
+     * con los mismos parámetros en el mismo orden.
+     */
+    private List<String> planDe(Runnable llamada, Object... parametros) {
+        ConsultasEjecutadas.SQL.clear();
+        llamada.run();
+        assertFalse(ConsultasEjecutadas.SQL.isEmpty(), "La llamada no consultó la base");
+        String sql = ConsultasEjecutadas.SQL.get(0);
+        return jdbc.execute((ConnectionCallback<List<String>>) conexion -> {
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement ps = conexion.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parametros.length; i++) {
+                    ps.setObject(i + 1, parametros[i]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                }
+            }
+            plan.add(0, sql);
+            return plan;
+        });
+    }
+
+    /** Ninguna de las tablas grandes indicadas se recorre entera */
+    private static void sinScanSecuencial(List<String> plan, String... tablas) {
+        for (String tabla : tablas) {
+            Pattern scan = Pattern.compile("Seq Scan on " + tabla + "\\b");
+            assertTrue(plan.stream().noneMatch(linea -> scan.matcher(linea).find()),
+                    () -> "Scan secuencial de " + tabla + ":\n" + String.join("\n", plan));
+        }
+    }
+
+    private UUID unUsuario() {
+        return jdbc.queryForObject("SELECT id FROM usuario WHERE mail = 'usuario777@mail.com'", UUID.class);
+    }
+
+    @Test
+    void candidatosDeUnCronograma() {
+        List<Integer> materias = List.of(8, 15, 22, 39, 46);
+        List<Integer> comisiones = List.of(1, 2, 3, 4, 5);
+        List<Object> parametros = new ArrayList<>(materias);
+        parametros.addAll(comisiones);
+        List<String> plan = planDe(() -> cmhRepository.findCandidatosPorMateriasYComisiones(materias, comisiones),
+                parametros.toArray());
+        sinScanSecuencial(plan, "comision_materia", "comision_materia_horario");
+    }
+
+    @Test
+    void horariosDeUnCronogramaPorId() {
+        List<Integer> ids = List.of(10, 200, 3000, 4500, 7000);
+        List<String> plan = planDe(() -> cmhRepository.findAllByIdInWithAll(ids), ids.toArray());
+        sinScanSecuencial(plan, "comision_materia", "comision_materia_horario");
+    }
+
+    @Test
+    void cronogramasDeUnUsuario() {
+        UUID usuario = unUsuario();
+        List<String> plan = planDe(() -> cronogramaRepository.findByUsuarioIdConDetalles(usuario), usuario);
+        sinScanSecuencial(plan, "cronograma", "detalle_cronograma", "comision_materia_horario", "comision_materia");
+        sinScanSecuencial(planDe(() -> cronogramaRepository.countByUsuarioId(usuario), usuario), "cronograma");
+    }
+
+    @Test
+    void unCronogramaConSusDetalles() {
+        Long id = jdbc.queryForObject("SELECT max(id) FROM cronograma", Long.class);
+        List<String> plan = planDe(() -> cronogramaRepository.findByIdConDetalles(id), id);
+        sinScanSecuencial(plan, "cronograma", "detalle_cronograma", "comision_materia_horario", "comision_materia");
+    }
+
+    @Test
+    void usuarioPorMail() {
+        String mail = "usuario777@mail.com";
+        sinScanSecuencial(planDe(() -> usuarioRepository.findByMail(mail), mail), "usuario");
+        sinScanSecuencial(planDe(() -> usuarioRepository.findByMailWithProveedores(mail), mail),
+                "usuario", "usuario_proveedor");
+    }
+
+    @Test
+    void estadosDeUnUsuario() {
+        UUID usuario = unUsuario();
+        sinScanSecuencial(planDe(() -> estadoRepository.findByUsuario_Id(usuario), usuario), "usuario_materia_estado");
+    }
+
+    @Test
+    void correlativasDeUnasMaterias() {
+        List<Integer> materias = List.of(3, 57, 120, 301);
+        List<String> plan = planDe(() -> correlativaRegularRepository.findPairsByMateriaIds(materias),
+                materias.toArray());
+        sinScanSecuencial(plan, "correlativa_regular");
+    }
+
+    /** La carga del catálogo lee todo: se espera un recorrido por tabla unido con hash, no un índice por fila */
+    @Test
+    void elCatalogoCompletoSeLeeEnUnaPasada() {
+        List<String> plan = planDe(() -> cmRepository.findAllWithAll());
+        assertTrue(plan.stream().noneMatch(linea -> linea.contains("Nested Loop")),
+                () -> "Loop anidado al cargar el catálogo:\n" + String.join("\n", plan));
+    }
+}
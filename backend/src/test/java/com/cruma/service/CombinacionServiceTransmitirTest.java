@@ -0,0 +1,60 @@
+package com.cruma.service;
+
+import com.cruma.combinaciones.ControlBusqueda;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+
+import static com.cruma.CatalogosDePrueba.PERIODO_ID;
+import static com.cruma.CatalogosDePrueba.catalogo;
+import static com.cruma.CatalogosDePrueba.combinaciones;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Si el cliente se desconecta durante el streaming, la escritura falla, la búsqueda se cancela y no se escribe más */
+class CombinacionServiceTransmitirTest {
+
+    /** Acepta algunos bytes y después falla como un socket cerrado, contando los intentos posteriores */
+    private static final class SalidaCortada extends OutputStream {
+
+        private final int bytesAntesDeFallar;
+        private int escritos;
+        private int intentosDespuesDelCorte;
+
+        SalidaCortada(int bytesAntesDeFallar) {
+            this.bytesAntesDeFallar = bytesAntesDeFallar;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (escritos + len > bytesAntesDeFallar) {
+                intentosDespuesDelCorte++;
+                throw new IOException("Broken pipe");
+            }
+            escritos += len;
+        }
+    }
+
+    @Test
+    void unaEscrituraQueFallaCancelaLaBusqueda() {
+        CombinacionService servicio = combinaciones(catalogo(new Random(5), 6, 5), 5_000_000);
+        CombinacionService.Problema problema = servicio.preparar(List.of(1, 2, 3, 4, 5, 6), PERIODO_ID);
+        ControlBusqueda control = ControlBusqueda.conPresupuesto(5_000_000);
+        SalidaCortada salida = new SalidaCortada(5000);
+
+        assertThrows(IOException.class, () -> servicio.transmitir(problema, null, salida, control));
+        assertTrue(control.isCancelada());
+        assertTrue(salida.escritos > 0);
+        // El primer flush que falla corta todo: ni más combinaciones ni la línea final
+        assertEquals(1, salida.intentosDespuesDelCorte);
+    }
+}
@@ -0,0 +1,162 @@
+package com.cruma.service;
+
+import com.cruma.dto.BloqueCronogramaDTO;
+import com.cruma.dto.CrearCronogramaDTO;
+import com.cruma.dto.CrearCronogramaV2DTO;
+import com.cruma.exception.ComisionMateriaHorarioNotFoundException;
+import com.cruma.model.Cronograma;
+import com.cruma.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cuenta las escrituras de un PUT de cronograma: guardar el mismo conjunto de horarios no escribe nada
+ * y cambiar un horario inserta y borra un solo detalle, sin tocar el cronograma. También que un bloque sin
+ * materia sea un horario no encontrado (400) y no un error al desempaquetar el id.
+ * Igual que {@link com.cruma.repository.CronogramaRepositoryLotesTest}, solo corre con CRUMA_TEST_DB_URL
+ * apuntando a un Postgres local.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(CronogramaService.class)
+class CronogramaServiceActualizarTest {
+
+    private static final String ESQUEMA = "cruma_actualizar_test";
+    private static final int HORARIOS = 6;
+
+    @DynamicPropertySource
+    static void baseDePrueba(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CRUMA_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("CRUMA_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("CRUMA_TEST_DB_PASSWORD"));
+        registry.add("spring.datasource.hikari.schema", () -> ESQUEMA);
+        registry.add("spring.flyway.schemas", () -> ESQUEMA);
+        registry.add("spring.flyway.create-schemas", () -> "true");
+    }
+
+    @Autowired
+    private CronogramaService service;
+
+    @MockitoBean
+    private UsuarioAutenticadoService usuarioAutenticado;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterAll
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    void soloSeEscribenLosDetallesQueCambian() {
+        UUID usuarioId = jdbc.queryForObject(
+                "INSERT INTO usuario (nombre, mail) VALUES ('Test', 'actualizar@test.com') RETURNING id", UUID.class);
+        Integer carreraId = jdbc.queryForObject(
+                "INSERT INTO carrera (codigo, nombre) VALUES ('ISI', 'Sistemas') RETURNING id", Integer.class);
+        Integer periodoId = jdbc.queryForObject(
+                "INSERT INTO periodo (codigo, descripcion) VALUES ('1C', 'Primer cuatrimestre') RETURNING id", Integer.class);
+        Integer comisionId = jdbc.queryForObject(
+                "INSERT INTO comision (seccion, carrera_id) VALUES ('1K1', ?) RETURNING id", Integer.class, carreraId);
+        Integer horarioId = jdbc.queryForObject(
+                "INSERT INTO horario (dia, hora_inicio, hora_fin) VALUES (1, '08:00', '09:30') RETURNING id", Integer.class);
+        List<Integer> cmhIds = new ArrayList<>();
+        for (int i = 0; i < HORARIOS; i++) {
+            Integer materiaId = jdbc.queryForObject(
+                    "INSERT INTO materia (codigo, nombre, anio_carrera, electiva) VALUES (?, ?, 1, false) RETURNING id",
+                    Integer.class, "M" + i, "Materia " + i);
+            Integer cmId = jdbc.queryForObject(
+                    "INSERT INTO comision_materia (comision_id, materia_id, periodo_id) VALUES (?, ?, ?) RETURNING id",
+                    Integer.class, comisionId, materiaId, periodoId);
+            cmhIds.add(jdbc.queryForObject(
+                    "INSERT INTO comision_materia_horario (comision_materia_id, horario_id) VALUES (?, ?) RETURNING id",
+                    Integer.class, cmId, horarioId));
+        }
+        Authentication authentication = mock(Authentication.class);
+        when(usuarioAutenticado.obtenerReferencia(any())).thenAnswer(i -> em.getReference(Usuario.class, usuarioId));
+
+        List<Integer> guardados = cmhIds.subList(0, HORARIOS - 1);
+        Long id = service.crearDesdeHorarios(pedido(guardados), authentication).getId();
+        em.flush();
+        em.clear();
+
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        Cronograma igual = service.actualizarDesdeHorarios(id, pedido(guardados), authentication);
+        assertEquals(id, igual.getId());
+        assertEquals(0, estadisticas.getEntityInsertCount());
+        assertEquals(0, estadisticas.getEntityUpdateCount());
+        assertEquals(0, estadisticas.getEntityDeleteCount());
+        em.clear();
+
+        // Se cambia el primer horario por el que no estaba
+        List<Integer> cambiados = new ArrayList<>(guardados.subList(1, guardados.size()));
+        cambiados.add(cmhIds.get(HORARIOS - 1));
+        estadisticas.clear();
+        Cronograma cambiado = service.actualizarDesdeHorarios(id, pedido(cambiados), authentication);
+        assertEquals(id, cambiado.getId());
+        assertEquals(1, estadisticas.getEntityInsertCount());
+        assertEquals(0, estadisticas.getEntityUpdateCount());
+        assertEquals(1, estadisticas.getEntityDeleteCount());
+        assertEquals(guardados.size(), cambiado.getDetalles().size());
+    }
+
+    @Test
+    void unBloqueSinMateriaEsUnHorarioNoEncontrado() {
+        UUID usuarioId = jdbc.queryForObject(
+                "INSERT INTO usuario (nombre, mail) VALUES ('Test', 'sin-materia@test.com') RETURNING id", UUID.class);
+        when(usuarioAutenticado.obtenerReferencia(any())).thenAnswer(i -> em.getReference(Usuario.class, usuarioId));
+        BloqueCronogramaDTO bloque = new BloqueCronogramaDTO();
+        bloque.setComisionId(1);
+        bloque.setDia("1");
+        bloque.setHoraEntrada("08:00");
+        bloque.setHoraSalida("09:30");
+        CrearCronogramaDTO dto = new CrearCronogramaDTO();
+        dto.setNombre("Sin materia");
+        dto.setPeriodoId(1);
+        dto.setBloques(List.of(bloque));
+
+        assertThrows(ComisionMateriaHorarioNotFoundException.class,
+                () -> service.crearDesdeDTO(dto, mock(Authentication.class)));
+    }
+
+    private static CrearCronogramaV2DTO pedido(List<Integer> cmhIds) {
+        CrearCronogramaV2DTO dto = new CrearCronogramaV2DTO();
+        dto.setNombre("Autoguardado");
+        dto.setComisionMateriaHorarioIds(new ArrayList<>(cmhIds));
+        return dto;
+    }
+}
@@ -0,0 +1,178 @@
+package com.cruma.service;
+
+import com.cruma.dto.EstadoCorrelativasResponseDTO;
+import com.cruma.dto.MateriaEstadoDTO;
+import com.cruma.exception.MateriaNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Comprueba que el PUT de estados escriba solo lo que cambió (las filas iguales conservan su updated_at,
+ * las materias que ya no vienen se borran y una materia repetida se queda con el último estado) y que el
+ * PATCH de una materia devuelva el resumen completo del usuario. Una materia inexistente es un error del
+ * pedido y no una violación de FK.
+ * Igual que {@link CronogramaServiceActualizarTest}, solo corre con CRUMA_TEST_DB_URL apuntando a un Postgres local.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CRUMA_TEST_DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(EstadoCorrelativasService.class)
+class EstadoCorrelativasServiceTest {
+
+    private static final String ESQUEMA = "cruma_estados_test";
+    private static final Instant ANTES = Instant.parse("2024-03-01T12:00:00Z");
+
+    @DynamicPropertySource
+    static void baseDePrueba(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CRUMA_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("CRUMA_TEST_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("CRUMA_TEST_DB_PASSWORD"));
+        registry.add("spring.datasource.hikari.schema", () -> ESQUEMA);
+        registry.add("spring.flyway.schemas", () -> ESQUEMA);
+        registry.add("spring.flyway.create-schemas", () -> "true");
+    }
+
+    @Autowired
+    private EstadoCorrelativasService service;
+
+    @MockitoBean
+    private UsuarioAutenticadoService usuarioAutenticado;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterAll
+    void borrarEsquema() {
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+    }
+
+    @Test
+    void elPutEscribeSoloLoQueCambio() {
+        Authentication authentication = usuario("put@test.com");
+        List<Integer> materias = materias("PUT", 4);
+        service.guardar(List.of(
+                estado(materias.get(0), 1),
+                estado(materias.get(1), 2),
+                estado(materias.get(2), 3)), authentication);
+        jdbc.update("UPDATE usuario_materia_estado SET updated_at = ?", Timestamp.from(ANTES));
+
+        // La primera queda igual, la segunda cambia, la tercera ya no viene y la cuarta llega repetida
+        EstadoCorrelativasResponseDTO respuesta = service.guardar(List.of(
+                estado(materias.get(0), 1),
+                estado(materias.get(1), 3),
+                estado(materias.get(3), 2),
+                estado(materias.get(3), 1)), authentication);
+
+        Map<Integer, Integer> estados = estadosGuardados();
+        assertEquals(Map.of(materias.get(0), 1, materias.get(1), 3, materias.get(3), 1), estados);
+        Map<Integer, Instant> actualizadas = actualizaciones();
+        assertEquals(ANTES, actualizadas.get(materias.get(0)));
+        assertNotEquals(ANTES, actualizadas.get(materias.get(1)));
+        assertNotEquals(ANTES, actualizadas.get(materias.get(3)));
+
+        assertEquals(3, respuesta.getEstados().size());
+        // Postgres guarda microsegundos
+        assertEquals(actualizadas.get(materias.get(1)), respuesta.getUltimaActualizacion().truncatedTo(ChronoUnit.MICROS));
+        assertEquals(2, respuesta.getResumen().getHabilitadas());
+        assertEquals(1, respuesta.getResumen().getAprobadas());
+        assertEquals(3, respuesta.getResumen().getTotal());
+    }
+
+    @Test
+    void elPatchDevuelveElResumenCompleto() {
+        Authentication authentication = usuario("patch@test.com");
+        List<Integer> materias = materias("PATCH", 3);
+        service.guardar(List.of(
+                estado(materias.get(0), 1),
+                estado(materias.get(1), 1),
+                estado(materias.get(2), 0)), authentication);
+        jdbc.update("UPDATE usuario_materia_estado SET updated_at = ?", Timestamp.from(ANTES));
+
+        EstadoCorrelativasResponseDTO respuesta = service.actualizarUno(materias.get(1), 2, authentication);
+
+        assertEquals(3, respuesta.getEstados().size());
+        assertEquals(1, respuesta.getResumen().getBloqueadas());
+        assertEquals(1, respuesta.getResumen().getHabilitadas());
+        assertEquals(1, respuesta.getResumen().getRegulares());
+        assertEquals(3, respuesta.getResumen().getTotal());
+        Map<Integer, Instant> actualizadas = actualizaciones();
+        assertEquals(ANTES, actualizadas.get(materias.get(0)));
+        assertEquals(ANTES, actualizadas.get(materias.get(2)));
+        assertEquals(actualizadas.get(materias.get(1)), respuesta.getUltimaActualizacion());
+    }
+
+    @Test
+    void unaMateriaInexistenteNoLlegaALaBase() {
+        Authentication authentication = usuario("inexistente@test.com");
+        Integer materia = materias("INEX", 1).get(0);
+        Integer inexistente = materia + 1000;
+
+        assertThrows(MateriaNotFoundException.class, () -> service.actualizarUno(inexistente, 2, authentication));
+        assertThrows(IllegalArgumentException.class, () -> service.guardar(
+                List.of(estado(materia, 1), estado(inexistente, 1)), authentication));
+        assertEquals(Map.of(), estadosGuardados());
+    }
+
+    private Authentication usuario(String mail) {
+        UUID usuarioId = jdbc.queryForObject(
+                "INSERT INTO usuario (nombre, mail) VALUES ('Test', ?) RETURNING id", UUID.class, mail);
+        when(usuarioAutenticado.obtenerId(any())).thenReturn(usuarioId);
+        return mock(Authentication.class);
+    }
+
+    private List<Integer> materias(String prefijo, int cantidad) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(jdbc.queryForObject(
+                    "INSERT INTO materia (codigo, nombre, anio_carrera, electiva) VALUES (?, ?, 1, false) RETURNING id",
+                    Integer.class, prefijo + i, "Materia " + prefijo + i));
+        }
+        return ids;
+    }
+
+    private Map<Integer, Integer> estadosGuardados() {
+        Map<Integer, Integer> estados = new HashMap<>();
+        jdbc.query("SELECT materia_id, estado FROM usuario_materia_estado",
+                rs -> { estados.put(rs.getInt(1), rs.getInt(2)); });
+        return estados;
+    }
+
+    private Map<Integer, Instant> actualizaciones() {
+        Map<Integer, Instant> actualizadas = new HashMap<>();
+        jdbc.query("SELECT materia_id, updated_at FROM usuario_materia_estado",
+                rs -> { actualizadas.put(rs.getInt(1), rs.getTimestamp(2).toInstant()); });
+        return actualizadas;
+    }
+
+    private static MateriaEstadoDTO estado(Integer materiaId, int estado) {
+        return new MateriaEstadoDTO(materiaId, estado);
+    }
+}
@@ -0,0 +1,103 @@
+package com.cruma.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Prueba la consulta de emails contra un servidor local que imita /user/emails de GitHub */
+class GitHubEmailServiceTest {
+
+    private HttpServer servidor;
+    private ExecutorService hilos;
+    private final AtomicInteger pedidos = new AtomicInteger();
+    private final AtomicReference<String> respuesta = new AtomicReference<>("[]");
+    private final AtomicReference<String> autorizacion = new AtomicReference<>();
+    private volatile long demoraMs;
+
+    @BeforeEach
+    void levantarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/user/emails", intercambio -> {
+            pedidos.incrementAndGet();
+            autorizacion.set(intercambio.getRequestHeaders().getFirst("Authorization"));
+            try {
+                Thread.sleep(demoraMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] cuerpo = respuesta.get().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream out = intercambio.getResponseBody()) {
+                out.write(cuerpo);
+            } catch (IOException e) {
+                // El cliente cortó por timeout
+            }
+        });
+        // Un hilo por pedido, así un pedido demorado no frena al siguiente
+        hilos = Executors.newCachedThreadPool();
+        servidor.setExecutor(hilos);
+        servidor.start();
+    }
+
+    @AfterEach
+    void bajarServidor() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+
+    private GitHubEmailService servicio() {
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort();
+        return new GitHubEmailService(url, 500, 300, 100, 60);
+    }
+
+    @Test
+    void devuelveElPrimarioYLoGuardaEnCache() {
+        respuesta.set("""
+                [{"email":"otro@mail.com","primary":false,"verified":true},
+                 {"email":"principal@mail.com","primary":true,"verified":true}]
+                """);
+        GitHubEmailService servicio = servicio();
+
+        assertEquals("principal@mail.com", servicio.obtenerEmail("42", "token"));
+        assertEquals("Bearer token", autorizacion.get());
+        assertEquals("principal@mail.com", servicio.obtenerEmail("42", "token"));
+        assertEquals("principal@mail.com", servicio.obtenerEmail("42", null));
+        assertEquals(1, pedidos.get());
+    }
+
+    @Test
+    void sinPrimarioUsaElPrimeroVerificado() {
+        respuesta.set("""
+                [{"email":"sinverificar@mail.com","primary":false,"verified":false},
+                 {"email":"verificado@mail.com","primary":false,"verified":true}]
+                """);
+        assertEquals("verificado@mail.com", servicio().obtenerEmail("7", "token"));
+    }
+
+    @Test
+    void siGitHubTardaDevuelveNullSinGuardarlo() {
+        respuesta.set("[{\"email\":\"lento@mail.com\",\"primary\":true,\"verified\":true}]");
+        demoraMs = 1500;
+        GitHubEmailService servicio = servicio();
+
+        assertNull(servicio.obtenerEmail("9", "token"));
+
+        demoraMs = 0;
+        assertEquals("lento@mail.com", servicio.obtenerEmail("9", "token"));
+        assertEquals(2, pedidos.get());
+    }
+}
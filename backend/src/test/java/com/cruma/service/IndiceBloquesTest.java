@@ -0,0 +1,144 @@
+package com.cruma.service;
+
+import com.cruma.dto.BusquedaFranjasDTO;
+import com.cruma.dto.ComisionInfoDTO;
+import com.cruma.dto.HorarioDTO;
+import com.cruma.service.CatalogoSnapshot.Bloque;
+import com.cruma.service.CatalogoSnapshot.OpcionComision;
+import com.cruma.service.IndiceBloques.Franja;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.cruma.CatalogosDePrueba.CARRERA_ID;
+import static com.cruma.CatalogosDePrueba.PERIODO_ID;
+import static com.cruma.CatalogosDePrueba.catalogo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Búsqueda de comisiones por franjas libres: el índice por día con búsqueda binaria contra una fuerza
+ * bruta minuto a minuto, con franjas contiguas, superpuestas, inválidas y bloques que tocan sus bordes.
+ */
+class IndiceBloquesTest {
+
+    private static int siguienteHorario;
+
+    private static Bloque bloque(int dia, int inicio, int fin) {
+        return new Bloque(++siguienteHorario, String.valueOf(dia), dia,
+                LocalTime.ofSecondOfDay(inicio * 60L), LocalTime.ofSecondOfDay(fin * 60L));
+    }
+
+    private static OpcionComision opcion(int id, Bloque... bloques) {
+        return new OpcionComision(id, id, id, "1K" + id, CARRERA_ID, "ISI", PERIODO_ID, List.of(bloques));
+    }
+
+    /** Cada minuto de cada bloque tiene que caer en alguna franja válida del mismo día */
+    private static List<OpcionComision> fuerzaBruta(List<OpcionComision> opciones, List<Franja> franjas) {
+        List<OpcionComision> resultado = new ArrayList<>();
+        for (OpcionComision o : opciones) {
+            boolean adentro = !o.bloques().isEmpty();
+            for (Bloque b : o.bloques()) {
+                for (int minuto = b.inicioMinutos(); minuto < b.finMinutos() && adentro; minuto++) {
+                    int m = minuto;
+                    adentro = franjas.stream().anyMatch(f -> f.dia() == b.dia() && f.dia() >= 1 && f.dia() <= 7
+                            && f.inicioMinutos() <= m && m < f.finMinutos());
+                }
+            }
+            if (adentro) {
+                resultado.add(o);
+            }
+        }
+        return resultado;
+    }
+
+    @Test
+    void dentroDeCoincideConFuerzaBruta() {
+        Random random = new Random(17);
+        for (int caso = 0; caso < 200; caso++) {
+            // Todo sobre una grilla de 30 minutos, así los bloques tocan los bordes de las franjas seguido
+            List<OpcionComision> opciones = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                Bloque[] bloques = new Bloque[random.nextInt(4)];
+                for (int b = 0; b < bloques.length; b++) {
+                    int inicio = 8 * 60 + 30 * random.nextInt(24);
+                    bloques[b] = bloque(1 + random.nextInt(3), inicio, inicio + 30 * (1 + random.nextInt(6)));
+                }
+                opciones.add(opcion(i + 1, bloques));
+            }
+            List<Franja> franjas = new ArrayList<>();
+            for (int f = 0; f < random.nextInt(7); f++) {
+                int inicio = 8 * 60 + 30 * random.nextInt(24);
+                // Algunas vacías o invertidas, y algún día fuera de rango, que no cubren nada
+                int fin = inicio + 30 * (random.nextInt(10) - 1);
+                franjas.add(new Franja(random.nextInt(20) == 0 ? 9 : 1 + random.nextInt(3), inicio, fin));
+            }
+
+            assertEquals(fuerzaBruta(opciones, franjas), new IndiceBloques(opciones).dentroDe(franjas),
+                    "caso " + caso + ": " + franjas);
+        }
+    }
+
+    @Test
+    void losBordesDeLasFranjasCuentanComoAdentro() {
+        OpcionComision justa = opcion(1, bloque(1, 480, 570));
+        OpcionComision tocaElInicio = opcion(2, bloque(1, 450, 480));
+        OpcionComision tocaElFin = opcion(3, bloque(1, 570, 600));
+        OpcionComision cruzaDosContiguas = opcion(4, bloque(2, 540, 660));
+        OpcionComision cruzaUnHueco = opcion(5, bloque(3, 540, 660));
+        OpcionComision enDosDias = opcion(6, bloque(1, 500, 530), bloque(2, 600, 630));
+        OpcionComision sinBloques = opcion(7);
+        List<OpcionComision> opciones = List.of(justa, tocaElInicio, tocaElFin, cruzaDosContiguas, cruzaUnHueco,
+                enDosDias, sinBloques);
+        List<Franja> franjas = List.of(
+                new Franja(1, 480, 570),
+                new Franja(2, 540, 600), new Franja(2, 600, 660),
+                new Franja(3, 540, 599), new Franja(3, 600, 660));
+
+        assertEquals(List.of(justa, cruzaDosContiguas, enDosDias), new IndiceBloques(opciones).dentroDe(franjas));
+        // Franjas superpuestas y desordenadas dan lo mismo que su unión
+        assertEquals(List.of(justa), new IndiceBloques(opciones).dentroDe(List.of(
+                new Franja(1, 520, 570), new Franja(1, 480, 530), new Franja(1, 500, 510))));
+        assertEquals(List.of(), new IndiceBloques(opciones).dentroDe(List.of()));
+        assertEquals(List.of(), new IndiceBloques(List.of()).dentroDe(franjas));
+    }
+
+    @Test
+    void laBusquedaPorFranjasValidaElPedidoYFiltraElCatalogo() {
+        CatalogoSnapshot snapshot = catalogo(new Random(3), 6, 4);
+        CatalogoService catalogo = mock(CatalogoService.class);
+        when(catalogo.snapshot()).thenReturn(snapshot);
+        ComisionService service = new ComisionService(catalogo);
+
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorFranjas(null));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorFranjas(
+                new BusquedaFranjasDTO(List.of(), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorFranjas(
+                new BusquedaFranjasDTO(List.of(new HorarioDTO("Feriado", "8:00", "12:00", null)), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorFranjas(
+                new BusquedaFranjasDTO(List.of(new HorarioDTO("1", "8:00", null, null)), null, null)));
+
+        List<HorarioDTO> franjas = List.of(new HorarioDTO("1", "8:00", "13:00", null),
+                new HorarioDTO("Martes", "8:00", "20:00", null), new HorarioDTO("3", "12:00", "20:00", null));
+        List<Franja> comoFranjas = List.of(new Franja(1, 480, 780), new Franja(2, 480, 1200), new Franja(3, 720, 1200));
+        List<OpcionComision> todas = new ArrayList<>();
+        for (int materiaId = 1; materiaId <= 6; materiaId++) {
+            todas.addAll(snapshot.opciones(materiaId));
+        }
+        todas.sort((a, b) -> Integer.compare(a.comisionMateriaId(), b.comisionMateriaId()));
+        List<ComisionInfoDTO> esperadas = fuerzaBruta(todas, comoFranjas).stream()
+                .map(o -> snapshot.comisionInfo(o.comisionMateriaId()))
+                .toList();
+        assertFalse(esperadas.isEmpty());
+
+        assertEquals(esperadas, service.buscarPorFranjas(new BusquedaFranjasDTO(franjas, null, null)));
+        assertEquals(esperadas, service.buscarPorFranjas(new BusquedaFranjasDTO(franjas, CARRERA_ID, PERIODO_ID)));
+        assertEquals(List.of(), service.buscarPorFranjas(new BusquedaFranjasDTO(franjas, CARRERA_ID + 1, null)));
+    }
+}
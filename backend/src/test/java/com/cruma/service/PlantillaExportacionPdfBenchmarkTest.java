@@ -0,0 +1,68 @@
+package com.cruma.service;
+
+import com.cruma.Medidor;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.BaseFont;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cruma.CronogramasDePrueba.semana;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cuánto CPU y memoria ahorra no preparar fuente, logos y franjas en cada exportación.
+ * Solo corre con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PlantillaExportacionPdfBenchmarkTest {
+
+    private static final PlantillaExportacionPdf PLANTILLA = new PlantillaExportacionPdf();
+
+    @Test
+    void recursosPorExportacion() throws Exception {
+        RenderizadorCronogramaPdf renderizador = new RenderizadorCronogramaPdf(PLANTILLA);
+        Medidor.Medicion antes = Medidor.medir(PlantillaExportacionPdfBenchmarkTest::recursosComoAntes, 40);
+        Medidor.Medicion despues = Medidor.medir(() -> List.of(PLANTILLA.linkedin(), PLANTILLA.logo()), 2_000);
+        Medidor.Medicion exportacion = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            renderizador.renderizar(semana(), salida);
+            return salida;
+        }, 40);
+
+        System.out.printf("Recursos por exportación: antes %d µs y %d KB, con plantilla %d µs y %d KB "
+                        + "| exportación completa %d µs y %d KB%n",
+                antes.nanos() / 1000, antes.bytes() / 1024, despues.nanos() / 1000, despues.bytes() / 1024,
+                exportacion.nanos() / 1000, exportacion.bytes() / 1024);
+        assertTrue(despues.bytes() * 10 < antes.bytes(),
+                () -> "Con plantilla se asignan " + despues.bytes() + " bytes contra " + antes.bytes());
+    }
+
+    /** Lo que hacía exportarPDF en cada pedido antes de tener la plantilla */
+    private static Object recursosComoAntes() throws Exception {
+        BaseFont ptsans = BaseFont.createFont(PlantillaExportacionPdf.class
+                .getResource("/static/PTSans-Regular.ttf").toString(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+        List<Object> recursos = new ArrayList<>();
+        recursos.add(new Font(ptsans, 8, Font.BOLD, Color.WHITE));
+        recursos.add(new Font(ptsans, 6));
+        recursos.add(new Font(ptsans, 9, Font.UNDERLINE, new Color(10, 110, 200)));
+        for (int h = 8; h <= 23; h++) {
+            for (int m = 0; m < 60; m += 5) {
+                if (h == 23 && m > 5) break;
+                recursos.add(String.format("%02d:%02d", h, m));
+            }
+        }
+        Image linkedin = Image.getInstance(PlantillaExportacionPdf.class.getResource("/static/linkedin.png"));
+        linkedin.scaleToFit(16, 16);
+        Image logo = Image.getInstance(PlantillaExportacionPdf.class.getResource("/static/CRUMA.png"));
+        logo.scaleToFit(30, 30);
+        recursos.add(linkedin);
+        recursos.add(logo);
+        return recursos;
+    }
+}
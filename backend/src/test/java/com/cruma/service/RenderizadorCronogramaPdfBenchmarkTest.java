@@ -0,0 +1,49 @@
+package com.cruma.service;
+
+import com.cruma.Medidor;
+import com.cruma.dto.BloqueCronogramaExportDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static com.cruma.CronogramasDePrueba.semana;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tiempo por exportación del canvas contra la tabla de una fila por franja de 5 minutos, y contra un
+ * documento con solo el pie para ver aparte lo que cuesta la grilla. Solo corre con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RenderizadorCronogramaPdfBenchmarkTest {
+
+    private static final PlantillaExportacionPdf PLANTILLA = new PlantillaExportacionPdf();
+
+    @Test
+    void canvasContraTabla() throws Exception {
+        RenderizadorCronogramaPdf renderizador = new RenderizadorCronogramaPdf(PLANTILLA);
+        List<BloqueCronogramaExportDTO> bloques = semana();
+        Medidor.Medicion tabla = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            RenderizadorCronogramaPdfTest.tablaComoAntes(renderizador, bloques, salida);
+            return salida;
+        }, 60);
+        Medidor.Medicion canvas = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            renderizador.renderizar(bloques, salida);
+            return salida;
+        }, 60);
+        Medidor.Medicion pie = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            RenderizadorCronogramaPdfTest.soloPie(renderizador, salida);
+            return salida;
+        }, 60);
+
+        System.out.printf("PDF del cronograma: tabla %d µs y %d KB asignados | canvas %d µs y %d KB asignados "
+                        + "| solo el pie %d µs: la grilla pasa de %d µs a %d µs%n",
+                tabla.nanos() / 1000, tabla.bytes() / 1024, canvas.nanos() / 1000, canvas.bytes() / 1024,
+                pie.nanos() / 1000, (tabla.nanos() - pie.nanos()) / 1000, (canvas.nanos() - pie.nanos()) / 1000);
+        assertTrue(canvas.nanos() * 2 < tabla.nanos(), () -> "El canvas tardó " + canvas.nanos() + " ns contra " + tabla.nanos());
+    }
+}
@@ -0,0 +1,162 @@
+package com.cruma.service;
+
+import com.cruma.Medidor;
+import com.cruma.dto.BloqueCronogramaExportDTO;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.cruma.CronogramasDePrueba.bloque;
+import static com.cruma.CronogramasDePrueba.semana;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renderizado sobre el canvas: horas aceptadas y, contra la tabla de una fila por franja de 5 minutos
+ * que se usaba antes, tamaño del PDF y memoria asignada. Los tiempos están en
+ * {@link RenderizadorCronogramaPdfBenchmarkTest}.
+ */
+class RenderizadorCronogramaPdfTest {
+
+    private static final PlantillaExportacionPdf PLANTILLA = new PlantillaExportacionPdf();
+
+    @Test
+    void aceptaHorasFueraDelRangoHabitual() throws Exception {
+        RenderizadorCronogramaPdf renderizador = new RenderizadorCronogramaPdf(PLANTILLA);
+        List<BloqueCronogramaExportDTO> bloques = new ArrayList<>(semana());
+        bloques.add(bloque(3, "7:15", "8:45", "Inglés I"));
+        bloques.add(bloque(5, "22:30", "24:00", "Química"));
+        bloques.add(bloque(4, "00:00", "01:00:00", "Guardia"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        renderizador.renderizar(bloques, salida);
+
+        assertEquals("%PDF", new String(salida.toByteArray(), 0, 4));
+        assertEquals(7 * 60 + 15, RenderizadorCronogramaPdf.aMinutos("7:15"));
+        assertEquals(24 * 60, RenderizadorCronogramaPdf.aMinutos("24:00"));
+        // LocalTime.toString() con segundos: se ignoran
+        assertEquals(8 * 60 + 15, RenderizadorCronogramaPdf.aMinutos("08:15:30"));
+    }
+
+    @Test
+    void rechazaHorasMalFormadasOFueraDeRango() {
+        for (String hora : new String[]{"0715", "8h", ":30", "08:", "-1:00", "08:75", "25:00", "24:30", "24:00:01",
+                "08:15:60", null}) {
+            assertThrows(IllegalArgumentException.class, () -> RenderizadorCronogramaPdf.aMinutos(hora),
+                    () -> "Se aceptó " + hora);
+        }
+    }
+
+    @Test
+    void elCanvasOcupaYAsignaMenosQueLaTabla() throws Exception {
+        RenderizadorCronogramaPdf renderizador = new RenderizadorCronogramaPdf(PLANTILLA);
+        List<BloqueCronogramaExportDTO> bloques = semana();
+        ByteArrayOutputStream pdfTabla = new ByteArrayOutputStream();
+        tablaComoAntes(renderizador, bloques, pdfTabla);
+        ByteArrayOutputStream pdfCanvas = new ByteArrayOutputStream();
+        renderizador.renderizar(bloques, pdfCanvas);
+        // Los tiempos quedan para RenderizadorCronogramaPdfBenchmarkTest; los bytes asignados no dependen de la carga
+        long asignadosTabla = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            tablaComoAntes(renderizador, bloques, salida);
+            return salida;
+        }, 5).bytes();
+        long asignadosCanvas = Medidor.medir(() -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            renderizador.renderizar(bloques, salida);
+            return salida;
+        }, 5).bytes();
+
+        assertTrue(pdfCanvas.size() < pdfTabla.size(),
+                () -> "El PDF del canvas ocupa " + pdfCanvas.size() + " bytes contra " + pdfTabla.size());
+        assertTrue(asignadosCanvas * 5 < asignadosTabla,
+                () -> "El canvas asignó " + asignadosCanvas + " bytes contra " + asignadosTabla);
+    }
+
+    static void soloPie(RenderizadorCronogramaPdf renderizador, ByteArrayOutputStream salida) throws Exception {
+        Document document = new Document(PageSize.A4.rotate(), 8, 8, 8, 8);
+        PdfWriter writer = PdfWriter.getInstance(document, salida);
+        document.open();
+        renderizador.dibujarPie(writer.getDirectContent(), document);
+        document.close();
+    }
+
+    /**
+     * El renderizado anterior: una PdfPTable de 7 columnas con una fila por franja de 5 minutos.
+     * El pie es el mismo en los dos, para comparar solo la grilla.
+     */
+    static void tablaComoAntes(RenderizadorCronogramaPdf renderizador, List<BloqueCronogramaExportDTO> bloques,
+                                       ByteArrayOutputStream salida) throws Exception {
+        Document document = new Document(PageSize.A4.rotate(), 8, 8, 8, 8);
+        PdfWriter writer = PdfWriter.getInstance(document, salida);
+        document.open();
+        PdfPTable table = new PdfPTable(7);
+        table.setWidthPercentage(100);
+        table.setWidths(PLANTILLA.getAnchos());
+        for (String d : PLANTILLA.getEncabezados()) {
+            PdfPCell cell = new PdfPCell(new Phrase(d, PLANTILLA.getFontHeader()));
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            cell.setBackgroundColor(PLANTILLA.getColorEncabezado());
+            cell.setPadding(1f);
+            cell.setBorder(Rectangle.TOP | Rectangle.LEFT | Rectangle.RIGHT);
+            table.addCell(cell);
+        }
+        // Bloque que ocupa cada franja y día, armado antes de la tabla como hacía el controller
+        int filas = (23 * 60 + 5 - 8 * 60) / 5 + 1;
+        BloqueCronogramaExportDTO[][] ocupacion = new BloqueCronogramaExportDTO[filas][7];
+        boolean[][] inicios = new boolean[filas][7];
+        for (BloqueCronogramaExportDTO b : bloques) {
+            int entrada = RenderizadorCronogramaPdf.aMinutos(b.getHoraEntrada());
+            int fin = RenderizadorCronogramaPdf.aMinutos(b.getHoraSalida());
+            for (int fila = 0; fila < filas; fila++) {
+                int minuto = 8 * 60 + fila * 5;
+                if (minuto >= entrada && minuto < fin) {
+                    ocupacion[fila][b.getDia()] = b;
+                    inicios[fila][b.getDia()] = minuto == entrada;
+                }
+            }
+        }
+        for (int fila = 0; fila < filas; fila++) {
+            int minuto = 8 * 60 + fila * 5;
+            String etiqueta = minuto % 30 == 0 ? PLANTILLA.etiquetaDeMinuto(minuto) : "";
+            PdfPCell horaCell = new PdfPCell(new Phrase(etiqueta, PLANTILLA.getFontBody()));
+            horaCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            horaCell.setBackgroundColor(PLANTILLA.getColorHora());
+            horaCell.setPadding(0.75f);
+            horaCell.setBorder(Rectangle.LEFT | Rectangle.RIGHT);
+            table.addCell(horaCell);
+            for (int dia = 1; dia <= 6; dia++) {
+                BloqueCronogramaExportDTO match = ocupacion[fila][dia];
+                PdfPCell cell;
+                if (match != null && inicios[fila][dia]) {
+                    cell = new PdfPCell(new Phrase(match.getNombreMateria() + " (" + match.getSeccion() + ")\n"
+                            + match.getHoraEntrada() + " - " + match.getHoraSalida(), PLANTILLA.getFontBody()));
+                } else {
+                    cell = new PdfPCell(new Phrase(""));
+                }
+                cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+                cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+                if (match != null) {
+                    cell.setBackgroundColor(PLANTILLA.getColorBloque());
+                }
+                cell.setPadding(0.75f);
+                cell.setBorder(Rectangle.LEFT | Rectangle.RIGHT);
+                table.addCell(cell);
+            }
+        }
+        document.add(table);
+        renderizador.dibujarPie(writer.getDirectContent(), document);
+        document.close();
+    }
+}
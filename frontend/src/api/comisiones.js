@@ -1,7 +1,7 @@
 import { api } from "./axios";
 
 export function fetchComisionesBatch(materiaIds){
-    return api.get('/comisiones', {params: materiaIds.join(',')})
+    return api.get('/comisiones', { params: { materiaIds: materiaIds.join(',') } })
     .then ( res => res.data)
     
 }
\ No newline at end of file
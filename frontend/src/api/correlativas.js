@@ -13,4 +13,9 @@ export function fetchEstadoCorrelativas() {
 export function saveEstadoCorrelativas(estados) {
   return api.put("/correlativas/estado", estados ?? [])
     .then(res => res.data);
+}
+
+export function updateEstadoCorrelativa(materiaId, estado) {
+  return api.patch(`/correlativas/estado/${materiaId}`, { materiaId, estado })
+    .then(res => res.data);
 }
\ No newline at end of file
@@ -468,19 +468,27 @@ export default function Armar() {
       // Mapear selectedCuatri (0 o 1) al periodoId real de la BD
       const periodoIdReal = mapearPeriodoFrontendABackend(selectedCuatri);
 
-      const payload = {
-        nombre: nombre.trim(),
-        periodoId: periodoIdReal,
-        bloques: fixedBlocks.map(block => ({
-          materiaId: block.materiaId,
-          comisionId: block.comisionId,
-          dia: block.dia,
-          horaEntrada: block.horaEntrada,
-          horaSalida: block.horaSalida
-        }))
-      };
-
-      await api.post('/cronogramas', payload);
+      // Si todos los bloques tienen el id del horario se usa la API v2, que no tiene que
+      // reconstruir el horario a partir del día y las horas
+      if (fixedBlocks.every(block => block.comisionMateriaHorarioId)) {
+        await api.post('/v2/cronogramas', {
+          nombre: nombre.trim(),
+          comisionMateriaHorarioIds: fixedBlocks.map(block => block.comisionMateriaHorarioId)
+        });
+      } else {
+        const payload = {
+          nombre: nombre.trim(),
+          periodoId: periodoIdReal,
+          bloques: fixedBlocks.map(block => ({
+            materiaId: block.materiaId,
+            comisionId: block.comisionId,
+            dia: block.dia,
+            horaEntrada: block.horaEntrada,
+            horaSalida: block.horaSalida
+          }))
+        };
+        await api.post('/cronogramas', payload);
+      }
       setShowSuccessModal(true);
     } catch (error) {
       const mensajeError = handleApiError(error, 'Error al guardar el cronograma. Por favor, intenta nuevamente.');
@@ -627,11 +635,13 @@ export default function Armar() {
       try {
         const apiUrl = import.meta.env.VITE_API_URL || 'http://localhost:3000';
         const comisionesAcumuladas = [];
+        // Una sola llamada para todas las materias: { materiaId: [comisiones] }
+        const res = await fetch(
+          `${apiUrl}/api/comisiones?materiaIds=${materiaIds.join(',')}`
+        );
+        const porMateria = await res.json();
         for (let materiaId of materiaIds) {
-          const res = await fetch(
-            `${apiUrl}/api/materias/${materiaId}/comisiones`
-          );
-          const data = await res.json();
+          const data = porMateria[materiaId] || [];
           // Transformar los horarios: convertir diaSemana (nombre) a dia (número)
           const comisionesTransformadas = data.map(comision => ({
             ...comision,
@@ -795,7 +805,8 @@ export default function Armar() {
       horaEntrada: h.horaEntrada,
       horaSalida: h.horaSalida,
       materiaId: com.materiaId,
-      comisionId: com.comisionId
+      comisionId: com.comisionId,
+      comisionMateriaHorarioId: h.comisionMateriaHorarioId
     }));
 
     setFixedBlocks(prev => {
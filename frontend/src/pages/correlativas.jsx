@@ -7,7 +7,11 @@ import { useNavigate } from "react-router-dom";
 import { useCorrelativasModel } from "../hooks/useCorrelativasModel";
 import { useAuth } from "../contexts/AuthContext";
 import { useErrorHandler } from "../hooks/useErrorHandler";
-import { fetchEstadoCorrelativas, saveEstadoCorrelativas } from "../api/correlativas";
+import {
+    fetchEstadoCorrelativas,
+    saveEstadoCorrelativas,
+    updateEstadoCorrelativa,
+} from "../api/correlativas";
 import {
     getCorrelativasEstado,
     saveCorrelativasEstado,
@@ -40,6 +44,12 @@ export const Correlativas = () => {
     const [showInfoTooltip, setShowInfoTooltip] = useState(false);
 
     const localLoadedRef = useRef(false);
+    // Últimos estados guardados en el backend (materiaId -> estado), para mandar solo lo que cambió
+    const estadosPersistidosRef = useRef(null);
+
+    const recordarEstadosPersistidos = (estados) => {
+        estadosPersistidosRef.current = new Map((estados ?? []).map((e) => [e.materiaId, e.estado]));
+    };
 
     useEffect(() => {
         if (!data) return;
@@ -106,6 +116,7 @@ export const Correlativas = () => {
             try {
                 setCargandoPersistencia(true);
                 const resp = await fetchEstadoCorrelativas();
+                recordarEstadosPersistidos(resp?.estados);
                 if (resp?.estados?.length) {
                     aplicarEstadosPersistidos(resp.estados);
                 }
@@ -261,26 +272,22 @@ export const Correlativas = () => {
         const materiasSinComision = [];
 
         try {
-            const promesas = puedeCursarIds.map(async (materiaId) => {
-                try {
-                    const res = await fetch(`${apiUrl}/api/materias/${materiaId}/comisiones`);
-                    if (!res.ok) return null;
-                    const comisiones = await res.json();
-
-                    const tieneHorarios = comisiones.some(
-                        (c) => c.periodo === selectedCuatri || c.periodo === 0
-                    );
-
-                    if (!tieneHorarios) {
-                        const materia = selectedMaterias.find((m) => m.id === materiaId);
-                        if (materia) materiasSinComision.push(materia.nombre);
-                    }
-                } catch (error) {
-                    console.error(`Error verificando materia ${materiaId}`, error);
+            // Una sola llamada para todas las materias: { materiaId: [comisiones] }
+            const res = await fetch(`${apiUrl}/api/comisiones?materiaIds=${puedeCursarIds.join(",")}`);
+            if (!res.ok) return [];
+            const comisionesPorMateria = await res.json();
+
+            puedeCursarIds.forEach((materiaId) => {
+                const comisiones = comisionesPorMateria[materiaId] || [];
+                const tieneHorarios = comisiones.some(
+                    (c) => c.periodo === selectedCuatri || c.periodo === 0
+                );
+
+                if (!tieneHorarios) {
+                    const materia = selectedMaterias.find((m) => m.id === materiaId);
+                    if (materia) materiasSinComision.push(materia.nombre);
                 }
             });
-
-            await Promise.all(promesas);
         } catch (error) {
             console.error("Error general en validación de horarios", error);
         }
@@ -301,7 +308,17 @@ export const Correlativas = () => {
                 materiaId: m.id,
                 estado: m.estado ?? 0,
             }));
-            const resp = await saveEstadoCorrelativas(payload);
+            // Si respecto de lo guardado cambió una sola materia alcanza con un PATCH;
+            // si no (primer guardado, cambios en cascada por correlativas) se manda la lista entera
+            const persistidos = estadosPersistidosRef.current;
+            const cambios = persistidos && persistidos.size === payload.length
+                && payload.every((e) => persistidos.has(e.materiaId))
+                ? payload.filter((e) => persistidos.get(e.materiaId) !== e.estado)
+                : null;
+            const resp = cambios?.length === 1
+                ? await updateEstadoCorrelativa(cambios[0].materiaId, cambios[0].estado)
+                : await saveEstadoCorrelativas(payload);
+            recordarEstadosPersistidos(resp?.estados);
             setUltimaActualizacion(resp?.ultimaActualizacion || new Date().toISOString());
             setAlertModalMessage("Tus estados de correlativas se guardaron en el perfil.");
             setShowAlertModal(true);
@@ -96,7 +96,8 @@ export default function Perfil() {
       comisionId: detalle.comisionId,
       dia: detalle.dia,
       horaEntrada: detalle.horaEntrada,
-      horaSalida: detalle.horaSalida
+      horaSalida: detalle.horaSalida,
+      comisionMateriaHorarioId: detalle.comisionMateriaHorarioId
     }));
 
     // Guardar en localStorage temporalmente para que la página armar lo cargue